@@ -0,0 +1,185 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.benchmarks;
+
+import es.uam.eps.ir.ranksys.core.IdDouble;
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import static es.uam.eps.ir.ranksys.core.util.parsing.DoubleParser.ddp;
+import static es.uam.eps.ir.ranksys.core.util.parsing.Parsers.dp;
+import static es.uam.eps.ir.ranksys.core.util.parsing.Parsers.ip;
+import static es.uam.eps.ir.ranksys.core.util.parsing.Parsers.vp;
+import es.uam.eps.ir.ranksys.fast.feature.FastFeatureData;
+import es.uam.eps.ir.ranksys.fast.feature.SimpleFastFeatureData;
+import es.uam.eps.ir.ranksys.fast.index.FastFeatureIndex;
+import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
+import es.uam.eps.ir.ranksys.fast.index.FastUserIndex;
+import es.uam.eps.ir.ranksys.fast.index.SimpleFastFeatureIndex;
+import es.uam.eps.ir.ranksys.fast.index.SimpleFastItemIndex;
+import es.uam.eps.ir.ranksys.fast.index.SimpleFastUserIndex;
+import es.uam.eps.ir.ranksys.fast.preference.FastPreferenceData;
+import es.uam.eps.ir.ranksys.fast.preference.SimpleFastPreferenceData;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark state with synthetic training and test preferences, item
+ * features and recommendations for a sample of test users. The scale of
+ * the data is configured through JMH parameters, e.g.
+ * {@code -p numUsers=100000 -p numItems=20000}.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+@State(Scope.Benchmark)
+public class BenchmarkData {
+
+    /**
+     * Number of users.
+     */
+    @Param({"10000"})
+    public int numUsers;
+
+    /**
+     * Number of items.
+     */
+    @Param({"5000"})
+    public int numItems;
+
+    /**
+     * Number of item features.
+     */
+    @Param({"50"})
+    public int numFeatures;
+
+    /**
+     * Average number of preferences per user.
+     */
+    @Param({"50"})
+    public int prefsPerUser;
+
+    /**
+     * Exponent of the power laws of item popularity and user activity.
+     */
+    @Param({"1.0"})
+    public double exponent;
+
+    /**
+     * Seed of the data generator.
+     */
+    @Param({"1"})
+    public long seed;
+
+    /**
+     * Length of the recommendations of the sample of test users.
+     */
+    public static final int RECOMMENDATION_LENGTH = 100;
+
+    /**
+     * Maximum number of test users with sample recommendations.
+     */
+    public static final int NUM_RECOMMENDATIONS = 1000;
+
+    /**
+     * Synthetic data in text form.
+     */
+    public SyntheticData data;
+
+    /**
+     * User index.
+     */
+    public FastUserIndex<Integer> userIndex;
+
+    /**
+     * Item index.
+     */
+    public FastItemIndex<Integer> itemIndex;
+
+    /**
+     * Feature index.
+     */
+    public FastFeatureIndex<Integer> featureIndex;
+
+    /**
+     * Training preferences.
+     */
+    public FastPreferenceData<Integer, Integer, Void> trainData;
+
+    /**
+     * Test preferences.
+     */
+    public FastPreferenceData<Integer, Integer, Void> testData;
+
+    /**
+     * Item features.
+     */
+    public FastFeatureData<Integer, Integer, Double> featureData;
+
+    /**
+     * Recommendations of length {@link #RECOMMENDATION_LENGTH} for a sample
+     * of test users, with items drawn from the training popularity.
+     */
+    public List<Recommendation<Integer, Integer>> recommendations;
+
+    /**
+     * Generates and loads the data.
+     *
+     * @throws IOException when IO error
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        data = new SyntheticData(numUsers, numItems, numFeatures, prefsPerUser, exponent, 0.2, seed);
+        userIndex = SimpleFastUserIndex.load(new ByteArrayInputStream(data.getUsers()), ip);
+        itemIndex = SimpleFastItemIndex.load(new ByteArrayInputStream(data.getItems()), ip);
+        featureIndex = SimpleFastFeatureIndex.load(new ByteArrayInputStream(data.getFeatures()), ip);
+        trainData = SimpleFastPreferenceData.load(new ByteArrayInputStream(data.getTrainPreferences()), ip, ip, ddp, vp, userIndex, itemIndex);
+        testData = SimpleFastPreferenceData.load(new ByteArrayInputStream(data.getTestPreferences()), ip, ip, ddp, vp, userIndex, itemIndex);
+        featureData = SimpleFastFeatureData.load(new ByteArrayInputStream(data.getItemFeatures()), ip, ip, dp, itemIndex, featureIndex);
+        recommendations = sampleRecommendations(new Random(seed));
+    }
+
+    private List<Recommendation<Integer, Integer>> sampleRecommendations(Random rnd) {
+        int[] popularItems = trainData.getIidxWithPreferences()
+                .flatMap(iidx -> IntStream.range(0, trainData.numUsers(iidx)).map(k -> iidx))
+                .toArray();
+        int length = Math.min(RECOMMENDATION_LENGTH, trainData.numItemsWithPreferences());
+
+        List<Recommendation<Integer, Integer>> list = new ArrayList<>();
+        testData.getUidxWithPreferences().limit(NUM_RECOMMENDATIONS).forEach(uidx -> {
+            boolean[] seen = new boolean[numItems];
+            List<IdDouble<Integer>> items = new ArrayList<>(length);
+            while (items.size() < length) {
+                int iidx = popularItems[rnd.nextInt(popularItems.length)];
+                if (!seen[iidx]) {
+                    seen[iidx] = true;
+                    items.add(new IdDouble<>(itemIndex.iidx2item(iidx), (double) (length - items.size())));
+                }
+            }
+            list.add(new Recommendation<>(userIndex.uidx2user(uidx), items));
+        });
+
+        return list;
+    }
+}
@@ -0,0 +1,102 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.benchmarks;
+
+import es.uam.eps.ir.ranksys.mf.Factorization;
+import es.uam.eps.ir.ranksys.mf.Factorizer;
+import es.uam.eps.ir.ranksys.mf.als.HKVFactorizer;
+import es.uam.eps.ir.ranksys.mf.als.PZTFactorizer;
+import es.uam.eps.ir.ranksys.mf.plsa.PLSAFactorizer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the training of the matrix factorization models.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class FactorizerBenchmark {
+
+    /**
+     * Factorizer: hkv, pzt or plsa.
+     */
+    @Param({"hkv", "pzt", "plsa"})
+    public String factorizer;
+
+    /**
+     * Number of latent factors.
+     */
+    @Param({"50"})
+    public int k;
+
+    /**
+     * Number of iterations.
+     */
+    @Param({"1"})
+    public int numIter;
+
+    private Factorizer<Integer, Integer> f;
+
+    /**
+     * Creates the factorizer.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (factorizer) {
+            case "hkv":
+                f = new HKVFactorizer<>(0.1, x -> 1 + x, numIter);
+                break;
+            case "pzt":
+                f = new PZTFactorizer<>(0.1, x -> 1 + x, numIter);
+                break;
+            case "plsa":
+                f = new PLSAFactorizer<>(numIter);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown factorizer " + factorizer);
+        }
+    }
+
+    /**
+     * Factorizes the training preferences.
+     *
+     * @param data benchmark data
+     * @return factorization
+     */
+    @Benchmark
+    public Factorization<Integer, Integer> factorize(BenchmarkData data) {
+        return f.factorize(k, data.trainData);
+    }
+}
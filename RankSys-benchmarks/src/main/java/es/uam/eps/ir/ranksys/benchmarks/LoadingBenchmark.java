@@ -0,0 +1,89 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.benchmarks;
+
+import static es.uam.eps.ir.ranksys.core.util.parsing.DoubleParser.ddp;
+import static es.uam.eps.ir.ranksys.core.util.parsing.Parsers.dp;
+import static es.uam.eps.ir.ranksys.core.util.parsing.Parsers.ip;
+import static es.uam.eps.ir.ranksys.core.util.parsing.Parsers.vp;
+import es.uam.eps.ir.ranksys.fast.feature.FastFeatureData;
+import es.uam.eps.ir.ranksys.fast.feature.SimpleFastFeatureData;
+import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
+import es.uam.eps.ir.ranksys.fast.index.SimpleFastItemIndex;
+import es.uam.eps.ir.ranksys.fast.preference.FastPreferenceData;
+import es.uam.eps.ir.ranksys.fast.preference.SimpleFastPreferenceData;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the loading of indexes, preferences and features from their
+ * text formats.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LoadingBenchmark {
+
+    /**
+     * Loads the item index.
+     *
+     * @param data benchmark data
+     * @return item index
+     * @throws IOException when IO error
+     */
+    @Benchmark
+    public FastItemIndex<Integer> itemIndex(BenchmarkData data) throws IOException {
+        return SimpleFastItemIndex.load(new ByteArrayInputStream(data.data.getItems()), ip);
+    }
+
+    /**
+     * Loads the training preferences.
+     *
+     * @param data benchmark data
+     * @return training preferences
+     * @throws IOException when IO error
+     */
+    @Benchmark
+    public FastPreferenceData<Integer, Integer, Void> preferences(BenchmarkData data) throws IOException {
+        return SimpleFastPreferenceData.load(new ByteArrayInputStream(data.data.getTrainPreferences()), ip, ip, ddp, vp, data.userIndex, data.itemIndex);
+    }
+
+    /**
+     * Loads the item features.
+     *
+     * @param data benchmark data
+     * @return item features
+     * @throws IOException when IO error
+     */
+    @Benchmark
+    public FastFeatureData<Integer, Integer, Double> features(BenchmarkData data) throws IOException {
+        return SimpleFastFeatureData.load(new ByteArrayInputStream(data.data.getItemFeatures()), ip, ip, dp, data.itemIndex, data.featureIndex);
+    }
+}
@@ -0,0 +1,176 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.benchmarks;
+
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.ranksys.diversity.distance.metrics.EILD;
+import es.uam.eps.ir.ranksys.diversity.intentaware.IntentModel;
+import es.uam.eps.ir.ranksys.diversity.intentaware.metrics.AlphaNDCG;
+import es.uam.eps.ir.ranksys.diversity.intentaware.metrics.ERRIA;
+import es.uam.eps.ir.ranksys.diversity.sales.metrics.AggregateDiversityMetric;
+import es.uam.eps.ir.ranksys.diversity.sales.metrics.EIUDC;
+import es.uam.eps.ir.ranksys.diversity.sales.metrics.Entropy;
+import es.uam.eps.ir.ranksys.diversity.sales.metrics.GiniIndex;
+import es.uam.eps.ir.ranksys.diversity.sales.metrics.fast.FastAggregateDiversityMetric;
+import es.uam.eps.ir.ranksys.diversity.sales.metrics.fast.FastEIUDC;
+import es.uam.eps.ir.ranksys.diversity.sales.metrics.fast.FastEntropy;
+import es.uam.eps.ir.ranksys.diversity.sales.metrics.fast.FastGiniIndex;
+import es.uam.eps.ir.ranksys.metrics.SystemMetric;
+import es.uam.eps.ir.ranksys.metrics.basic.AverageRecommendationMetric;
+import es.uam.eps.ir.ranksys.metrics.basic.NDCG;
+import es.uam.eps.ir.ranksys.metrics.basic.Precision;
+import es.uam.eps.ir.ranksys.metrics.basic.Recall;
+import es.uam.eps.ir.ranksys.metrics.rank.LogarithmicDiscountModel;
+import es.uam.eps.ir.ranksys.metrics.rank.NoDiscountModel;
+import es.uam.eps.ir.ranksys.metrics.rel.BinaryRelevanceModel;
+import es.uam.eps.ir.ranksys.metrics.rel.NoRelevanceModel;
+import es.uam.eps.ir.ranksys.novdiv.distance.CosineFeatureItemDistanceModel;
+import es.uam.eps.ir.ranksys.novelty.longtail.FDItemNovelty;
+import es.uam.eps.ir.ranksys.novelty.longtail.PCItemNovelty;
+import es.uam.eps.ir.ranksys.novelty.longtail.metrics.EFD;
+import es.uam.eps.ir.ranksys.novelty.longtail.metrics.EPC;
+import es.uam.eps.ir.ranksys.novelty.unexp.PDItemNovelty;
+import es.uam.eps.ir.ranksys.novelty.unexp.metrics.EPD;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the metrics. Each invocation evaluates the sample
+ * recommendations of {@link BenchmarkData}: recommendation metrics are
+ * averaged over them and system metrics aggregate them. Relevance and user
+ * models are not cached, so that their computation is measured too.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class MetricBenchmark {
+
+    /**
+     * Metric.
+     */
+    @Param({"prec", "recall", "ndcg", "eild", "epc", "efd", "epd", "err-ia", "a-ndcg", "aggrdiv", "fast-aggrdiv", "gini", "fast-gini", "entropy", "fast-entropy", "eiudc", "fast-eiudc"})
+    public String metric;
+
+    /**
+     * Cutoff of the metrics.
+     */
+    @Param({"10"})
+    public int cutoff;
+
+    private SystemMetric<Integer, Integer> m;
+
+    /**
+     * Creates the metric.
+     *
+     * @param data benchmark data
+     */
+    @Setup(Level.Trial)
+    public void setup(BenchmarkData data) {
+        double threshold = 4.0;
+        BinaryRelevanceModel<Integer, Integer> binRel = new BinaryRelevanceModel<>(false, data.testData, threshold);
+        NoRelevanceModel<Integer, Integer> noRel = new NoRelevanceModel<>();
+        NoDiscountModel disc = new NoDiscountModel();
+
+        switch (metric) {
+            case "prec":
+                m = new AverageRecommendationMetric<>(new Precision<>(cutoff, binRel), false);
+                break;
+            case "recall":
+                m = new AverageRecommendationMetric<>(new Recall<>(cutoff, binRel), false);
+                break;
+            case "ndcg":
+                m = new AverageRecommendationMetric<>(new NDCG<>(cutoff, new NDCG.NDCGRelevanceModel<>(false, data.testData, threshold)), false);
+                break;
+            case "eild":
+                m = new AverageRecommendationMetric<>(new EILD<>(cutoff, new CosineFeatureItemDistanceModel<>(data.featureData), noRel, disc), false);
+                break;
+            case "epc":
+                m = new AverageRecommendationMetric<>(new EPC<>(cutoff, new PCItemNovelty<>(data.trainData), noRel, disc), false);
+                break;
+            case "efd":
+                m = new AverageRecommendationMetric<>(new EFD<>(cutoff, new FDItemNovelty<>(data.trainData), noRel, disc), false);
+                break;
+            case "epd":
+                m = new AverageRecommendationMetric<>(new EPD<>(cutoff, new PDItemNovelty<>(false, data.trainData, new CosineFeatureItemDistanceModel<>(data.featureData)), noRel, disc), false);
+                break;
+            case "err-ia":
+                m = new AverageRecommendationMetric<>(new ERRIA<>(cutoff, new IntentModel<>(data.trainData, data.featureData), new ERRIA.ERRRelevanceModel<>(false, data.testData, threshold)), false);
+                break;
+            case "a-ndcg":
+                m = new AverageRecommendationMetric<>(new AlphaNDCG<>(cutoff, 0.5, data.featureData, binRel), false);
+                break;
+            case "aggrdiv":
+                m = new AggregateDiversityMetric<>(cutoff, noRel);
+                break;
+            case "fast-aggrdiv":
+                m = new FastAggregateDiversityMetric<>(cutoff, noRel, data.itemIndex);
+                break;
+            case "gini":
+                m = new GiniIndex<>(cutoff, data.numItems);
+                break;
+            case "fast-gini":
+                m = new FastGiniIndex<>(cutoff, data.itemIndex);
+                break;
+            case "entropy":
+                m = new Entropy<>(cutoff);
+                break;
+            case "fast-entropy":
+                m = new FastEntropy<>(cutoff, data.itemIndex);
+                break;
+            case "eiudc":
+                m = new EIUDC<>(cutoff, new LogarithmicDiscountModel(), noRel);
+                break;
+            case "fast-eiudc":
+                m = new FastEIUDC<>(cutoff, new LogarithmicDiscountModel(), noRel, data.itemIndex);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown metric " + metric);
+        }
+    }
+
+    /**
+     * Evaluates the sample recommendations.
+     *
+     * @param data benchmark data
+     * @return value of the metric
+     */
+    @Benchmark
+    public double evaluate(BenchmarkData data) {
+        m.reset();
+        for (Recommendation<Integer, Integer> recommendation : data.recommendations) {
+            m.add(recommendation);
+        }
+        return m.evaluate();
+    }
+}
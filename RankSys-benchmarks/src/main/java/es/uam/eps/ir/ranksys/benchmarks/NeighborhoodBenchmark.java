@@ -0,0 +1,119 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.benchmarks;
+
+import es.uam.eps.ir.ranksys.nn.item.neighborhood.CachedItemNeighborhood;
+import es.uam.eps.ir.ranksys.nn.item.neighborhood.ItemNeighborhood;
+import es.uam.eps.ir.ranksys.nn.item.neighborhood.TopKItemNeighborhood;
+import es.uam.eps.ir.ranksys.nn.item.sim.ItemSimilarity;
+import es.uam.eps.ir.ranksys.nn.item.sim.VectorCosineItemSimilarity;
+import es.uam.eps.ir.ranksys.nn.user.neighborhood.TopKUserNeighborhood;
+import es.uam.eps.ir.ranksys.nn.user.neighborhood.UserNeighborhood;
+import es.uam.eps.ir.ranksys.nn.user.sim.UserSimilarity;
+import es.uam.eps.ir.ranksys.nn.user.sim.VectorCosineUserSimilarity;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the construction of vector similarities and of the
+ * neighborhoods computed from them.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class NeighborhoodBenchmark {
+
+    /**
+     * Size of the neighborhoods.
+     */
+    @Param({"100"})
+    public int k;
+
+    /**
+     * Number of users whose neighborhood is computed in each invocation.
+     */
+    @Param({"100"})
+    public int numTargetUsers;
+
+    private UserSimilarity<Integer> userSimilarity;
+    private ItemSimilarity<Integer> itemSimilarity;
+
+    /**
+     * Creates the similarities.
+     *
+     * @param data benchmark data
+     */
+    @Setup(Level.Trial)
+    public void setup(BenchmarkData data) {
+        userSimilarity = new VectorCosineUserSimilarity<>(data.trainData, 0.5);
+        itemSimilarity = new VectorCosineItemSimilarity<>(data.trainData, 0.5);
+    }
+
+    /**
+     * Creates a user similarity, which computes the norms of the user
+     * vectors.
+     *
+     * @param data benchmark data
+     * @return user similarity
+     */
+    @Benchmark
+    public UserSimilarity<Integer> userSimilarity(BenchmarkData data) {
+        return new VectorCosineUserSimilarity<>(data.trainData, 0.5);
+    }
+
+    /**
+     * Computes the top-k neighborhoods of a number of users.
+     *
+     * @param data benchmark data
+     * @param bh black hole
+     */
+    @Benchmark
+    public void userNeighborhoods(BenchmarkData data, Blackhole bh) {
+        UserNeighborhood<Integer> neighborhood = new TopKUserNeighborhood<>(userSimilarity, k);
+        for (int uidx = 0; uidx < Math.min(numTargetUsers, data.numUsers); uidx++) {
+            neighborhood.getNeighbors(uidx).forEach(bh::consume);
+        }
+    }
+
+    /**
+     * Computes and caches the top-k neighborhoods of all the items.
+     *
+     * @return cached item neighborhood
+     */
+    @Benchmark
+    public ItemNeighborhood<Integer> cachedItemNeighborhood() {
+        return new CachedItemNeighborhood<>(new TopKItemNeighborhood<>(itemSimilarity, k));
+    }
+}
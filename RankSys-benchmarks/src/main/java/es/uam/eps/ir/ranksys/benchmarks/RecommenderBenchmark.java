@@ -0,0 +1,134 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.benchmarks;
+
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.mf.als.HKVFactorizer;
+import es.uam.eps.ir.ranksys.mf.rec.MFRecommender;
+import es.uam.eps.ir.ranksys.nn.item.ItemNeighborhoodRecommender;
+import es.uam.eps.ir.ranksys.nn.item.neighborhood.CachedItemNeighborhood;
+import es.uam.eps.ir.ranksys.nn.item.neighborhood.TopKItemNeighborhood;
+import es.uam.eps.ir.ranksys.nn.item.sim.VectorCosineItemSimilarity;
+import es.uam.eps.ir.ranksys.nn.user.UserNeighborhoodRecommender;
+import es.uam.eps.ir.ranksys.nn.user.neighborhood.TopKUserNeighborhood;
+import es.uam.eps.ir.ranksys.nn.user.sim.VectorCosineUserSimilarity;
+import es.uam.eps.ir.ranksys.rec.fast.FastRecommender;
+import es.uam.eps.ir.ranksys.rec.fast.basic.PopularityRecommender;
+import es.uam.eps.ir.ranksys.rec.fast.basic.RandomRecommender;
+import es.uam.eps.ir.ranksys.rec.runner.fast.FastFilters;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the per-user scoring of the recommenders. Each invocation
+ * generates the recommendations of a number of test users, filtering out
+ * the items in their training preferences. Models are trained in the set-up
+ * and are not part of the measurement.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class RecommenderBenchmark {
+
+    /**
+     * Recommender: rnd, pop, ub, ib or hkv.
+     */
+    @Param({"rnd", "pop", "ub", "ib", "hkv"})
+    public String recommender;
+
+    /**
+     * Maximum length of the recommendations.
+     */
+    @Param({"100"})
+    public int maxLength;
+
+    /**
+     * Number of users whose recommendations are generated in each
+     * invocation.
+     */
+    @Param({"100"})
+    public int numTargetUsers;
+
+    private FastRecommender<Integer, Integer> rec;
+    private Function<Integer, IntPredicate> filter;
+    private int[] targetUidxs;
+
+    /**
+     * Trains the recommender.
+     *
+     * @param data benchmark data
+     */
+    @Setup(Level.Trial)
+    public void setup(BenchmarkData data) {
+        switch (recommender) {
+            case "rnd":
+                rec = new RandomRecommender<>(data.trainData, data.trainData);
+                break;
+            case "pop":
+                rec = new PopularityRecommender<>(data.trainData);
+                break;
+            case "ub":
+                rec = new UserNeighborhoodRecommender<>(data.trainData, new TopKUserNeighborhood<>(new VectorCosineUserSimilarity<>(data.trainData, 0.5), 100), 1);
+                break;
+            case "ib":
+                rec = new ItemNeighborhoodRecommender<>(data.trainData, new CachedItemNeighborhood<>(new TopKItemNeighborhood<>(new VectorCosineItemSimilarity<>(data.trainData, 0.5), 10)), 1);
+                break;
+            case "hkv":
+                rec = new MFRecommender<>(data.userIndex, data.itemIndex, new HKVFactorizer<Integer, Integer>(0.1, x -> 1 + x, 5).factorize(50, data.trainData));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown recommender " + recommender);
+        }
+        filter = FastFilters.notInTrain(data.trainData);
+        targetUidxs = data.testData.getUidxWithPreferences().limit(numTargetUsers).toArray();
+    }
+
+    /**
+     * Generates the recommendations of the target users.
+     *
+     * @param data benchmark data
+     * @param bh black hole
+     */
+    @Benchmark
+    public void recommend(BenchmarkData data, Blackhole bh) {
+        for (int uidx : targetUidxs) {
+            IntPredicate userFilter = filter.apply(data.userIndex.uidx2user(uidx));
+            FastRecommendation recommendation = rec.getRecommendation(uidx, maxLength, userFilter);
+            bh.consume(recommendation);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.benchmarks;
+
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.ranksys.diversity.binom.BinomialModel;
+import es.uam.eps.ir.ranksys.diversity.binom.reranking.BinomialCoverageReranker;
+import es.uam.eps.ir.ranksys.diversity.binom.reranking.BinomialDiversityReranker;
+import es.uam.eps.ir.ranksys.diversity.binom.reranking.BinomialNonRedundancyReranker;
+import es.uam.eps.ir.ranksys.diversity.binom.reranking.FastBinomialDiversityReranker;
+import es.uam.eps.ir.ranksys.diversity.distance.reranking.MMR;
+import es.uam.eps.ir.ranksys.diversity.intentaware.IntentModel;
+import es.uam.eps.ir.ranksys.diversity.intentaware.reranking.FastRXQuAD;
+import es.uam.eps.ir.ranksys.diversity.intentaware.reranking.FastXQuAD;
+import es.uam.eps.ir.ranksys.diversity.intentaware.reranking.RXQuAD;
+import es.uam.eps.ir.ranksys.diversity.intentaware.reranking.XQuAD;
+import es.uam.eps.ir.ranksys.novdiv.distance.CosineFeatureItemDistanceModel;
+import es.uam.eps.ir.ranksys.novdiv.distance.FastCosineFeatureItemDistanceModel;
+import es.uam.eps.ir.ranksys.novdiv.reranking.Reranker;
+import es.uam.eps.ir.ranksys.novelty.longtail.FastPCItemNovelty;
+import es.uam.eps.ir.ranksys.novelty.longtail.PCItemNovelty;
+import es.uam.eps.ir.ranksys.novelty.longtail.reranking.FastPCItemNoveltyReranker;
+import es.uam.eps.ir.ranksys.novelty.longtail.reranking.PCItemNoveltyReranker;
+import es.uam.eps.ir.ranksys.novelty.unexp.PDItemNovelty;
+import es.uam.eps.ir.ranksys.novelty.unexp.reranking.PDItemNoveltyReranker;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the re-rankers. Each invocation re-ranks the sample
+ * recommendations of {@link BenchmarkData}. The user models of the
+ * re-rankers are not cached, so that their computation is measured too.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class RerankerBenchmark {
+
+    /**
+     * Re-ranker.
+     */
+    @Param({"mmr", "fast-mmr", "xquad", "fast-xquad", "rxquad", "fast-rxquad", "binom-cov", "binom-nonred", "binom", "fast-binom", "pc", "fast-pc", "pd"})
+    public String reranker;
+
+    /**
+     * Trade-off between relevance and novelty or diversity.
+     */
+    @Param({"0.5"})
+    public double lambda;
+
+    /**
+     * Length of the re-ranked lists.
+     */
+    @Param({"20"})
+    public int cutoff;
+
+    private Reranker<Integer, Integer> r;
+
+    /**
+     * Creates the re-ranker.
+     *
+     * @param data benchmark data
+     */
+    @Setup(Level.Trial)
+    public void setup(BenchmarkData data) {
+        switch (reranker) {
+            case "mmr":
+                r = new MMR<>(lambda, cutoff, new CosineFeatureItemDistanceModel<>(data.featureData));
+                break;
+            case "fast-mmr":
+                r = new MMR<>(lambda, cutoff, new FastCosineFeatureItemDistanceModel<>(data.featureData));
+                break;
+            case "xquad":
+                r = new XQuAD<>(new IntentModel<>(data.trainData, data.featureData), lambda, cutoff, true);
+                break;
+            case "fast-xquad":
+                r = new FastXQuAD<>(data.trainData, data.featureData, new IntentModel<>(data.trainData, data.featureData), lambda, cutoff, true);
+                break;
+            case "rxquad":
+                r = new RXQuAD<>(new IntentModel<>(data.trainData, data.featureData), 0.5, lambda, cutoff, true);
+                break;
+            case "fast-rxquad":
+                r = new FastRXQuAD<>(data.trainData, data.featureData, new IntentModel<>(data.trainData, data.featureData), 0.5, lambda, cutoff, true);
+                break;
+            case "binom-cov":
+                r = new BinomialCoverageReranker<>(data.featureData, binomialModel(data), lambda, cutoff);
+                break;
+            case "binom-nonred":
+                r = new BinomialNonRedundancyReranker<>(data.featureData, binomialModel(data), lambda, cutoff);
+                break;
+            case "binom":
+                r = new BinomialDiversityReranker<>(data.featureData, binomialModel(data), lambda, cutoff);
+                break;
+            case "fast-binom":
+                r = new FastBinomialDiversityReranker<>(data.trainData, data.featureData, binomialModel(data), lambda, cutoff);
+                break;
+            case "pc":
+                r = new PCItemNoveltyReranker<>(lambda, new PCItemNovelty<>(data.trainData), true);
+                break;
+            case "fast-pc":
+                r = new FastPCItemNoveltyReranker<>(lambda, new FastPCItemNovelty<>(data.trainData), true);
+                break;
+            case "pd":
+                r = new PDItemNoveltyReranker<>(lambda, new PDItemNovelty<>(false, data.trainData, new CosineFeatureItemDistanceModel<>(data.featureData)), true);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown re-ranker " + reranker);
+        }
+    }
+
+    private static BinomialModel<Integer, Integer, Integer> binomialModel(BenchmarkData data) {
+        return new BinomialModel<>(false, Stream.empty(), data.trainData, data.featureData, 0.5);
+    }
+
+    /**
+     * Re-ranks the sample recommendations.
+     *
+     * @param data benchmark data
+     * @param bh black hole
+     */
+    @Benchmark
+    public void rerank(BenchmarkData data, Blackhole bh) {
+        for (Recommendation<Integer, Integer> recommendation : data.recommendations) {
+            bh.consume(r.rerankRecommendation(recommendation, cutoff));
+        }
+    }
+}
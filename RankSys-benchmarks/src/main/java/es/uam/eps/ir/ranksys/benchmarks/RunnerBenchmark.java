@@ -0,0 +1,102 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.benchmarks;
+
+import es.uam.eps.ir.ranksys.core.format.SimpleRecommendationFormat;
+import static es.uam.eps.ir.ranksys.core.util.parsing.Parsers.ip;
+import es.uam.eps.ir.ranksys.rec.Recommender;
+import es.uam.eps.ir.ranksys.rec.fast.basic.PopularityRecommender;
+import es.uam.eps.ir.ranksys.rec.runner.RecommenderRunner;
+import es.uam.eps.ir.ranksys.rec.runner.fast.FastFilterRecommenderRunner;
+import es.uam.eps.ir.ranksys.rec.runner.fast.FastFilters;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the recommender runners, that generate and write the
+ * recommendations of all the test users. A popularity recommender is used,
+ * so that the measurement is dominated by the filtering, the ordering and
+ * the formatting of the recommendations. The output is discarded.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class RunnerBenchmark {
+
+    /**
+     * Maximum length of the recommendations.
+     */
+    @Param({"100"})
+    public int maxLength;
+
+    private Recommender<Integer, Integer> recommender;
+    private RecommenderRunner<Integer, Integer> runner;
+
+    /**
+     * Creates the recommender and the runner.
+     *
+     * @param data benchmark data
+     */
+    @Setup(Level.Trial)
+    public void setup(BenchmarkData data) {
+        Set<Integer> targetUsers = data.testData.getUsersWithPreferences().collect(Collectors.toSet());
+        recommender = new PopularityRecommender<>(data.trainData);
+        runner = new FastFilterRecommenderRunner<>(data.userIndex, data.itemIndex, targetUsers, new SimpleRecommendationFormat<>(ip, ip), FastFilters.notInTrain(data.trainData), maxLength);
+    }
+
+    /**
+     * Runs the recommender for all the test users.
+     *
+     * @throws IOException when IO error
+     */
+    @Benchmark
+    public void run() throws IOException {
+        runner.run(recommender, new NullOutputStream());
+    }
+
+    private static class NullOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generator of synthetic recommendation data with power-law distributions.
+ * The popularity of the items and the activity of the users follow Zipf
+ * laws with a common exponent, and the number of features of the items is
+ * drawn from the same law over the features. The data is generated as
+ * tab-separated text in the formats read by the loaders of RankSys, so that
+ * loading can be benchmarked too. Given the same parameters and seed, the
+ * generated data is always the same.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public class SyntheticData {
+
+    private final int numUsers;
+    private final int numItems;
+    private final int numFeatures;
+    private final byte[] users;
+    private final byte[] items;
+    private final byte[] features;
+    private final byte[] trainPreferences;
+    private final byte[] testPreferences;
+    private final byte[] itemFeatures;
+
+    /**
+     * Constructor.
+     *
+     * @param numUsers number of users
+     * @param numItems number of items
+     * @param numFeatures number of item features
+     * @param prefsPerUser average number of preferences per user
+     * @param exponent exponent of the power laws
+     * @param testRatio ratio of the preferences of each user kept for test
+     * @param seed seed of the random number generator
+     */
+    public SyntheticData(int numUsers, int numItems, int numFeatures, int prefsPerUser, double exponent, double testRatio, long seed) {
+        this.numUsers = numUsers;
+        this.numItems = numItems;
+        this.numFeatures = numFeatures;
+
+        Random rnd = new Random(seed);
+
+        this.users = ids(numUsers);
+        this.items = ids(numItems);
+        this.features = ids(numFeatures);
+
+        double[] itemCdf = zipfCdf(numItems, exponent);
+        double[] userWeights = zipfWeights(numUsers, exponent);
+        double userNorm = Arrays.stream(userWeights).sum();
+
+        StringBuilder train = new StringBuilder();
+        StringBuilder test = new StringBuilder();
+        boolean[] rated = new boolean[numItems];
+        int[] ratedItems = new int[numItems];
+        for (int u = 0; u < numUsers; u++) {
+            int n = (int) Math.round(userWeights[u] / userNorm * numUsers * prefsPerUser);
+            n = Math.max(1, Math.min(n, numItems / 2));
+
+            int m = 0;
+            while (m < n) {
+                int i = sample(itemCdf, rnd);
+                if (!rated[i]) {
+                    rated[i] = true;
+                    ratedItems[m++] = i;
+                }
+            }
+            for (int k = 0; k < m; k++) {
+                int i = ratedItems[k];
+                rated[i] = false;
+                StringBuilder sb = rnd.nextDouble() < testRatio ? test : train;
+                sb.append(u).append('\t').append(i).append('\t').append(1 + rnd.nextInt(5)).append('\n');
+            }
+        }
+        this.trainPreferences = train.toString().getBytes(StandardCharsets.UTF_8);
+        this.testPreferences = test.toString().getBytes(StandardCharsets.UTF_8);
+
+        double[] featureCdf = zipfCdf(numFeatures, exponent);
+        StringBuilder itemFeatureText = new StringBuilder();
+        boolean[] assigned = new boolean[numFeatures];
+        int[] assignedFeatures = new int[numFeatures];
+        for (int i = 0; i < numItems; i++) {
+            int n = 1 + Math.min(numFeatures - 1, (int) (-Math.log(1 - rnd.nextDouble()) * 2));
+            int m = 0;
+            while (m < n) {
+                int f = sample(featureCdf, rnd);
+                if (!assigned[f]) {
+                    assigned[f] = true;
+                    assignedFeatures[m++] = f;
+                }
+            }
+            for (int k = 0; k < m; k++) {
+                int f = assignedFeatures[k];
+                assigned[f] = false;
+                itemFeatureText.append(i).append('\t').append(f).append('\t').append(1.0).append('\n');
+            }
+        }
+        this.itemFeatures = itemFeatureText.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of users.
+     *
+     * @return number of users
+     */
+    public int numUsers() {
+        return numUsers;
+    }
+
+    /**
+     * Returns the number of items.
+     *
+     * @return number of items
+     */
+    public int numItems() {
+        return numItems;
+    }
+
+    /**
+     * Returns the number of features.
+     *
+     * @return number of features
+     */
+    public int numFeatures() {
+        return numFeatures;
+    }
+
+    /**
+     * Returns the user ids, one per line.
+     *
+     * @return text of the user index
+     */
+    public byte[] getUsers() {
+        return users;
+    }
+
+    /**
+     * Returns the item ids, one per line.
+     *
+     * @return text of the item index
+     */
+    public byte[] getItems() {
+        return items;
+    }
+
+    /**
+     * Returns the feature ids, one per line.
+     *
+     * @return text of the feature index
+     */
+    public byte[] getFeatures() {
+        return features;
+    }
+
+    /**
+     * Returns the training preferences as user-item-rating triplets.
+     *
+     * @return text of the training preferences
+     */
+    public byte[] getTrainPreferences() {
+        return trainPreferences;
+    }
+
+    /**
+     * Returns the test preferences as user-item-rating triplets.
+     *
+     * @return text of the test preferences
+     */
+    public byte[] getTestPreferences() {
+        return testPreferences;
+    }
+
+    /**
+     * Returns the features of the items as item-feature-value triplets.
+     *
+     * @return text of the item features
+     */
+    public byte[] getItemFeatures() {
+        return itemFeatures;
+    }
+
+    private static byte[] ids(int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < n; k++) {
+            sb.append(k).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static double[] zipfWeights(int n, double exponent) {
+        double[] weights = new double[n];
+        for (int k = 0; k < n; k++) {
+            weights[k] = 1 / Math.pow(k + 1, exponent);
+        }
+        return weights;
+    }
+
+    private static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = zipfWeights(n, exponent);
+        for (int k = 1; k < n; k++) {
+            cdf[k] += cdf[k - 1];
+        }
+        double norm = cdf[n - 1];
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= norm;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, Random rnd) {
+        int k = Arrays.binarySearch(cdf, rnd.nextDouble());
+        if (k < 0) {
+            k = -k - 1;
+        }
+        return Math.min(k, cdf.length - 1);
+    }
+}
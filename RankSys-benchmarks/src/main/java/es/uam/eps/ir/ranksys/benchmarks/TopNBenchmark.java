@@ -0,0 +1,90 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.benchmarks;
+
+import es.uam.eps.ir.ranksys.fast.utils.topn.IntDoubleTopN;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the top-N selection of item scores.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class TopNBenchmark {
+
+    /**
+     * Number of scored items.
+     */
+    @Param({"10000", "100000"})
+    public int numScores;
+
+    /**
+     * Capacity of the top-N.
+     */
+    @Param({"10", "100", "1000"})
+    public int capacity;
+
+    private double[] scores;
+
+    /**
+     * Generates the scores.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random rnd = new Random(1);
+        scores = new double[numScores];
+        for (int k = 0; k < numScores; k++) {
+            scores[k] = rnd.nextDouble();
+        }
+    }
+
+    /**
+     * Selects and sorts the top-N scores.
+     *
+     * @return top-N
+     */
+    @Benchmark
+    public IntDoubleTopN topN() {
+        IntDoubleTopN topN = new IntDoubleTopN(capacity);
+        for (int k = 0; k < scores.length; k++) {
+            topN.add(k, scores[k]);
+        }
+        topN.sort();
+
+        return topN;
+    }
+}
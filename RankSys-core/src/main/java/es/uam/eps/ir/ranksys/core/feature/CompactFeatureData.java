@@ -0,0 +1,284 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.core.feature;
+
+import es.uam.eps.ir.ranksys.core.IdObject;
+import es.uam.eps.ir.ranksys.core.util.SparseArrays;
+import es.uam.eps.ir.ranksys.core.util.parsing.Parser;
+import es.uam.eps.ir.ranksys.core.util.parsing.TsvTokenizer;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Compact feature data, a drop-in replacement of SimpleFeatureData. Items and
+ * features are interned into internal indexes, and the item-feature pairs are
+ * stored in compressed sparse row (CSR) arrays by item and by feature.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <I> type of the items
+ * @param <F> type of the features
+ * @param <V> type of the information about item-feature pairs
+ */
+public class CompactFeatureData<I, F, V> implements FeatureData<I, F, V> {
+
+    private final Object2IntOpenHashMap<I> item2iidx;
+    private final Object2IntOpenHashMap<F> feat2fidx;
+    private final I[] items;
+    private final F[] feats;
+    private final int[] itemPtr;
+    private final int[] itemIdxs;
+    private final Object[] itemVs;
+    private final int[] featPtr;
+    private final int[] featIdxs;
+    private final Object[] featVs;
+
+    /**
+     * Constructor.
+     *
+     * @param item2iidx map from items to internal indexes, returning -1 for
+     * unknown items
+     * @param feat2fidx map from features to internal indexes, returning -1
+     * for unknown features
+     * @param items items by internal index
+     * @param feats features by internal index
+     * @param itemPtr offsets of the item rows
+     * @param itemIdxs feature indexes of the item rows
+     * @param itemVs information of the item rows
+     * @param featPtr offsets of the feature rows
+     * @param featIdxs item indexes of the feature rows
+     * @param featVs information of the feature rows
+     */
+    protected CompactFeatureData(Object2IntOpenHashMap<I> item2iidx, Object2IntOpenHashMap<F> feat2fidx, I[] items, F[] feats, int[] itemPtr, int[] itemIdxs, Object[] itemVs, int[] featPtr, int[] featIdxs, Object[] featVs) {
+        this.item2iidx = item2iidx;
+        this.feat2fidx = feat2fidx;
+        this.items = items;
+        this.feats = feats;
+        this.itemPtr = itemPtr;
+        this.itemIdxs = itemIdxs;
+        this.itemVs = itemVs;
+        this.featPtr = featPtr;
+        this.featIdxs = featIdxs;
+        this.featVs = featVs;
+    }
+
+    @Override
+    public Stream<F> getAllFeatures() {
+        return Arrays.stream(feats);
+    }
+
+    @Override
+    public Stream<I> getAllItems() {
+        return Arrays.stream(items);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<IdObject<I, V>> getFeatureItems(F f) {
+        int fidx = feat2fidx.getInt(f);
+        if (fidx < 0) {
+            return Stream.empty();
+        }
+        return IntStream.range(featPtr[fidx], featPtr[fidx + 1])
+                .mapToObj(k -> new IdObject<>(items[featIdxs[k]], (V) featVs[k]));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<IdObject<F, V>> getItemFeatures(I i) {
+        int iidx = item2iidx.getInt(i);
+        if (iidx < 0) {
+            return Stream.empty();
+        }
+        return IntStream.range(itemPtr[iidx], itemPtr[iidx + 1])
+                .mapToObj(k -> new IdObject<>(feats[itemIdxs[k]], (V) itemVs[k]));
+    }
+
+    @Override
+    public boolean containsFeature(F f) {
+        return feat2fidx.containsKey(f);
+    }
+
+    @Override
+    public int numFeatures() {
+        return feats.length;
+    }
+
+    @Override
+    public int numFeatures(I i) {
+        int iidx = item2iidx.getInt(i);
+        if (iidx < 0) {
+            return 0;
+        }
+        return itemPtr[iidx + 1] - itemPtr[iidx];
+    }
+
+    @Override
+    public boolean containsItem(I i) {
+        return item2iidx.containsKey(i);
+    }
+
+    @Override
+    public int numItems() {
+        return items.length;
+    }
+
+    @Override
+    public int numItems(F f) {
+        int fidx = feat2fidx.getInt(f);
+        if (fidx < 0) {
+            return 0;
+        }
+        return featPtr[fidx + 1] - featPtr[fidx];
+    }
+
+    @Override
+    public int numItemsWithFeatures() {
+        return items.length;
+    }
+
+    @Override
+    public int numFeaturesWithItems() {
+        return feats.length;
+    }
+
+    @Override
+    public Stream<I> getItemsWithFeatures() {
+        return getAllItems();
+    }
+
+    @Override
+    public Stream<F> getFeaturesWithItems() {
+        return getAllFeatures();
+    }
+
+    /**
+     * Load feature data from a file.
+     * 
+     * Each line is a different item-feature pair, with tab-separated fields indicating
+     * item, feature and other information.
+     *
+     * @param <I> type of the items
+     * @param <F> type of the features
+     * @param <V> type of the information about item-feature pairs
+     * @param path file path
+     * @param iParser item type parser
+     * @param fParser feature type parser
+     * @param vParser information type parser
+     * @return a compact FeatureData
+     * @throws IOException when path does not exist or IO error
+     */
+    public static <I, F, V> CompactFeatureData<I, F, V> load(String path, Parser<I> iParser, Parser<F> fParser, Parser<V> vParser) throws IOException {
+        try (TsvTokenizer tokenizer = TsvTokenizer.map(path, 3)) {
+            return load(tokenizer, iParser, fParser, vParser);
+        }
+    }
+
+    /**
+     * Load feature data from a input stream.
+     * 
+     * Each line is a different item-feature pair, with tab-separated fields indicating
+     * item, feature and other information.
+     *
+     * @param <I> type of the items
+     * @param <F> type of the features
+     * @param <V> type of the information about item-feature pairs
+     * @param in input stream
+     * @param iParser item type parser
+     * @param fParser feature type parser
+     * @param vParser information type parser
+     * @return a compact FeatureData
+     * @throws IOException when IO error
+     */
+    public static <I, F, V> CompactFeatureData<I, F, V> load(InputStream in, Parser<I> iParser, Parser<F> fParser, Parser<V> vParser) throws IOException {
+        try (TsvTokenizer tokenizer = new TsvTokenizer(in, 3)) {
+            return load(tokenizer, iParser, fParser, vParser);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <I, F, V> CompactFeatureData<I, F, V> load(TsvTokenizer tokenizer, Parser<I> iParser, Parser<F> fParser, Parser<V> vParser) throws IOException {
+        Object2IntOpenHashMap<I> item2iidx = new Object2IntOpenHashMap<>();
+        item2iidx.defaultReturnValue(-1);
+        ObjectArrayList<I> items = new ObjectArrayList<>();
+        Object2IntOpenHashMap<F> feat2fidx = new Object2IntOpenHashMap<>();
+        feat2fidx.defaultReturnValue(-1);
+        ObjectArrayList<F> feats = new ObjectArrayList<>();
+
+        IntArrayList iidxs = new IntArrayList();
+        IntArrayList fidxs = new IntArrayList();
+        ObjectArrayList<V> vs = new ObjectArrayList<>();
+
+        while (tokenizer.nextLine()) {
+            I item = tokenizer.parse(0, iParser);
+            F feat = tokenizer.parse(1, fParser);
+            V value;
+            if (tokenizer.numFields() == 2) {
+                value = vParser.parse(null);
+            } else {
+                value = tokenizer.parse(2, vParser);
+            }
+
+            int iidx = item2iidx.getInt(item);
+            if (iidx < 0) {
+                iidx = items.size();
+                item2iidx.put(item, iidx);
+                items.add(item);
+            }
+            int fidx = feat2fidx.getInt(feat);
+            if (fidx < 0) {
+                fidx = feats.size();
+                feat2fidx.put(feat, fidx);
+                feats.add(feat);
+            }
+
+            iidxs.add(iidx);
+            fidxs.add(fidx);
+            vs.add(value);
+        }
+
+        int numItems = items.size();
+        int numFeatures = feats.size();
+        int numPairs = iidxs.size();
+
+        int[] itemPtr = new int[numItems + 1];
+        int[] itemIdxs = new int[numPairs];
+        Object[] itemVs = new Object[numPairs];
+        SparseArrays.group(numItems, numPairs, iidxs.elements(), fidxs.elements(), null, vs.elements(), itemPtr, itemIdxs, null, itemVs);
+        iidxs = null;
+        fidxs = null;
+        vs = null;
+
+        int[] featPtr = new int[numFeatures + 1];
+        int[] featIdxs = new int[numPairs];
+        Object[] featVs = new Object[numPairs];
+        SparseArrays.transpose(numItems, numFeatures, itemPtr, itemIdxs, null, itemVs, featPtr, featIdxs, null, featVs);
+
+        item2iidx.trim();
+        feat2fidx.trim();
+
+        return new CompactFeatureData<>(item2iidx, feat2fidx, (I[]) items.toArray(), (F[]) feats.toArray(), itemPtr, itemIdxs, itemVs, featPtr, featIdxs, featVs);
+    }
+
+}
@@ -19,12 +19,11 @@ package es.uam.eps.ir.ranksys.core.feature;
 
 import es.uam.eps.ir.ranksys.core.IdObject;
 import es.uam.eps.ir.ranksys.core.util.parsing.Parser;
-import java.io.BufferedReader;
-import java.io.FileInputStream;
+import es.uam.eps.ir.ranksys.core.util.parsing.TsvTokenizer;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -68,12 +67,12 @@ public class SimpleFeatureData<I, F, V> implements FeatureData<I, F, V> {
 
     @Override
     public Stream<IdObject<I, V>> getFeatureItems(F f) {
-        return featMap.getOrDefault(f, new ArrayList<>()).stream();
+        return featMap.getOrDefault(f, Collections.emptyList()).stream();
     }
 
     @Override
     public Stream<IdObject<F, V>> getItemFeatures(I i) {
-        return itemMap.getOrDefault(i, new ArrayList<>()).stream();
+        return itemMap.getOrDefault(i, Collections.emptyList()).stream();
     }
 
     @Override
@@ -88,7 +87,7 @@ public class SimpleFeatureData<I, F, V> implements FeatureData<I, F, V> {
 
     @Override
     public int numFeatures(I i) {
-        return itemMap.getOrDefault(i, new ArrayList<>()).size();
+        return itemMap.getOrDefault(i, Collections.emptyList()).size();
     }
 
     @Override
@@ -103,7 +102,7 @@ public class SimpleFeatureData<I, F, V> implements FeatureData<I, F, V> {
 
     @Override
     public int numItems(F f) {
-        return featMap.getOrDefault(f, new ArrayList<>()).size();
+        return featMap.getOrDefault(f, Collections.emptyList()).size();
     }
 
     @Override
@@ -143,7 +142,9 @@ public class SimpleFeatureData<I, F, V> implements FeatureData<I, F, V> {
      * @throws IOException when path does not exist or IO error
      */
     public static <I, F, V> SimpleFeatureData<I, F, V> load(String path, Parser<I> iParser, Parser<F> fParser, Parser<V> vParser) throws IOException {
-        return load(new FileInputStream(path), iParser, fParser, vParser);
+        try (TsvTokenizer tokenizer = TsvTokenizer.map(path, 3)) {
+            return load(tokenizer, iParser, fParser, vParser);
+        }
     }
 
     /**
@@ -163,35 +164,38 @@ public class SimpleFeatureData<I, F, V> implements FeatureData<I, F, V> {
      * @throws IOException when IO error
      */
     public static <I, F, V> SimpleFeatureData<I, F, V> load(InputStream in, Parser<I> iParser, Parser<F> fParser, Parser<V> vParser) throws IOException {
+        try (TsvTokenizer tokenizer = new TsvTokenizer(in, 3)) {
+            return load(tokenizer, iParser, fParser, vParser);
+        }
+    }
+
+    private static <I, F, V> SimpleFeatureData<I, F, V> load(TsvTokenizer tokenizer, Parser<I> iParser, Parser<F> fParser, Parser<V> vParser) throws IOException {
         Map<I, List<IdObject<F, V>>> itemMap = new HashMap<>();
         Map<F, List<IdObject<I, V>>> featMap = new HashMap<>();
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
-            reader.lines().forEach(l -> {
-                String[] tokens = l.split("\t", 3);
-                I item = iParser.parse(tokens[0]);
-                F feat = fParser.parse(tokens[1]);
-                V value;
-                if (tokens.length == 2) {
-                    value = vParser.parse(null);
-                } else {
-                    value = vParser.parse(tokens[2]);
-                }
-
-                List<IdObject<F, V>> iList = itemMap.get(item);
-                if (iList == null) {
-                    iList = new ArrayList<>();
-                    itemMap.put(item, iList);
-                }
-                iList.add(new IdObject<>(feat, value));
-
-                List<IdObject<I, V>> fList = featMap.get(feat);
-                if (fList == null) {
-                    fList = new ArrayList<>();
-                    featMap.put(feat, fList);
-                }
-                fList.add(new IdObject<>(item, value));
-            });
+        while (tokenizer.nextLine()) {
+            I item = tokenizer.parse(0, iParser);
+            F feat = tokenizer.parse(1, fParser);
+            V value;
+            if (tokenizer.numFields() == 2) {
+                value = vParser.parse(null);
+            } else {
+                value = tokenizer.parse(2, vParser);
+            }
+
+            List<IdObject<F, V>> iList = itemMap.get(item);
+            if (iList == null) {
+                iList = new ArrayList<>();
+                itemMap.put(item, iList);
+            }
+            iList.add(new IdObject<>(feat, value));
+
+            List<IdObject<I, V>> fList = featMap.get(feat);
+            if (fList == null) {
+                fList = new ArrayList<>();
+                featMap.put(feat, fList);
+            }
+            fList.add(new IdObject<>(item, value));
         }
 
         return new SimpleFeatureData<>(itemMap, featMap);
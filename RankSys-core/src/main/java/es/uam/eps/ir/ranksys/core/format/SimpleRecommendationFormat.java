@@ -19,14 +19,12 @@ package es.uam.eps.ir.ranksys.core.format;
 
 import es.uam.eps.ir.ranksys.core.IdDouble;
 import es.uam.eps.ir.ranksys.core.Recommendation;
-import static es.uam.eps.ir.ranksys.core.util.FastStringSplitter.split;
 import es.uam.eps.ir.ranksys.core.util.parsing.Parser;
+import es.uam.eps.ir.ranksys.core.util.parsing.TsvTokenizer;
 import static es.uam.eps.ir.ranksys.core.util.parsing.Parsers.dp;
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.ArrayList;
@@ -112,8 +110,8 @@ public class SimpleRecommendationFormat<U, I> implements RecommendationFormat<U,
         @Override
         public Stream<Recommendation<U, I>> readAll() throws IOException {
             try {
-                BufferedReader reader = new BufferedReader(new InputStreamReader(in));
-                RecommendationIterator iterator = new RecommendationIterator(reader);
+                TsvTokenizer tokenizer = new TsvTokenizer(in, 4);
+                RecommendationIterator iterator = new RecommendationIterator(tokenizer);
                 return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, 0), false);
             } catch (IOException ex) {
                 getLogger(SimpleRecommendationFormat.class.getName()).log(Level.SEVERE, null, ex);
@@ -128,11 +126,11 @@ public class SimpleRecommendationFormat<U, I> implements RecommendationFormat<U,
         private U lastU = null;
         private I lastI;
         private Double lastS;
-        private final BufferedReader reader;
+        private final TsvTokenizer tokenizer;
         private boolean eos = false;
 
-        public RecommendationIterator(BufferedReader reader) throws IOException {
-            this.reader = reader;
+        public RecommendationIterator(TsvTokenizer tokenizer) throws IOException {
+            this.tokenizer = tokenizer;
         }
 
         @Override
@@ -141,24 +139,23 @@ public class SimpleRecommendationFormat<U, I> implements RecommendationFormat<U,
                 return false;
             }
             if (lastU == null) {
-                String line = null;
+                boolean line = false;
                 try {
-                    line = reader.readLine();
+                    line = tokenizer.nextLine();
                 } catch (IOException ex) {
                     getLogger(Recommendation.class.getName()).log(Level.SEVERE, null, ex);
                 }
-                if (line == null) {
+                if (!line) {
                     try {
-                        reader.close();
+                        tokenizer.close();
                     } catch (IOException ex) {
                         getLogger(Recommendation.class.getName()).log(Level.SEVERE, null, ex);
                     }
                     return false;
                 } else {
-                    CharSequence[] tokens = split(line, '\t', 4);
-                    lastU = uParser.parse(tokens[0]);
-                    lastI = iParser.parse(tokens[1]);
-                    lastS = vParser.parse(tokens[2]);
+                    lastU = tokenizer.parse(0, uParser);
+                    lastI = tokenizer.parse(1, iParser);
+                    lastS = tokenizer.parse(2, vParser);
                     return true;
                 }
             } else {
@@ -168,18 +165,17 @@ public class SimpleRecommendationFormat<U, I> implements RecommendationFormat<U,
 
         @Override
         public Recommendation<U, I> next() {
-            String line = null;
+            boolean line = false;
 
             List<IdDouble<I>> list = new ArrayList<>();
 
             U nextU = lastU;
             list.add(new IdDouble<>(lastI, lastS));
             try {
-                while ((line = reader.readLine()) != null) {
-                    CharSequence[] tokens = split(line, '\t', 4);
-                    U u = uParser.parse(tokens[0]);
-                    I i = iParser.parse(tokens[1]);
-                    Double s = vParser.parse(tokens[2]);
+                while (line = tokenizer.nextLine()) {
+                    U u = tokenizer.parse(0, uParser);
+                    I i = tokenizer.parse(1, iParser);
+                    Double s = tokenizer.parse(2, vParser);
                     if (u.equals(lastU)) {
                         list.add(new IdDouble<>(i, s));
                     } else {
@@ -192,7 +188,7 @@ public class SimpleRecommendationFormat<U, I> implements RecommendationFormat<U,
             } catch (IOException ex) {
                 getLogger(Recommendation.class.getName()).log(Level.SEVERE, null, ex);
             }
-            if (line == null) {
+            if (!line) {
                 lastU = null;
                 eos = true;
             }
@@ -17,6 +17,7 @@
  */
 package es.uam.eps.ir.ranksys.core.model;
 
+import es.uam.eps.ir.ranksys.core.util.BoundedCache;
 import es.uam.eps.ir.ranksys.core.util.Lazy;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -33,6 +34,8 @@ public abstract class UserModel<U> {
 
     private final boolean caching;
     private final Lazy<Map<U, Model<U>>> lazyUserMap;
+    private final int cacheSize;
+    private final BoundedCache<U, Model<U>> boundedCache;
 
     /**
      * Constructor in which it can be specified whether to perform
@@ -48,6 +51,23 @@ public abstract class UserModel<U> {
         } else {
             this.lazyUserMap = null;
         }
+        this.cacheSize = 0;
+        this.boundedCache = null;
+    }
+
+    /**
+     * Constructor which caches on demand the models of at most a given number
+     * of users, evicting the least recently used ones. Unlike the eager
+     * caching constructors, the memory used by the cache is bounded
+     * regardless of the number of users.
+     *
+     * @param cacheSize maximum number of user models kept in the cache
+     */
+    public UserModel(int cacheSize) {
+        this.caching = false;
+        this.lazyUserMap = null;
+        this.cacheSize = cacheSize;
+        this.boundedCache = new BoundedCache<>(cacheSize);
     }
 
     /**
@@ -68,12 +88,25 @@ public abstract class UserModel<U> {
     }
 
     /**
-     * Constructor which lazily caches the models for the same users the model in the parameter does.
+     * Constructor which lazily caches the models for the same users the model in the parameter does,
+     * or which uses a bounded cache of the same size if that is the case for the model in the parameter.
      *
      * @param model another model from which we see
      */
     public UserModel(UserModel<U> model) {
-        this(model.caching, model.caching ? model.lazyUserMap.get().keySet().stream() : null);
+        this.caching = model.caching;
+        if (model.caching) {
+            Stream<U> users = model.lazyUserMap.get().keySet().stream();
+            this.lazyUserMap = new Lazy<>(() -> users.parallel().collect(Collectors.toMap(u -> u, u -> get(u))));
+        } else {
+            this.lazyUserMap = null;
+        }
+        this.cacheSize = model.cacheSize;
+        if (model.boundedCache != null) {
+            this.boundedCache = new BoundedCache<>(model.cacheSize);
+        } else {
+            this.boundedCache = null;
+        }
     }
 
     /**
@@ -102,11 +135,33 @@ public abstract class UserModel<U> {
     public Model<U> getModel(U u) {
         if (caching) {
             return lazyUserMap.get().get(u);
+        } else if (boundedCache != null) {
+            return boundedCache.get(u, this::get);
         } else {
             return get(u);
         }
     }
 
+    /**
+     * Returns the number of requests to the bounded cache that found the user
+     * model already computed.
+     *
+     * @return number of cache hits, 0 if no bounded cache is used
+     */
+    public long getCacheHits() {
+        return boundedCache == null ? 0 : boundedCache.hitCount();
+    }
+
+    /**
+     * Returns the number of requests to the bounded cache that had to compute
+     * the user model.
+     *
+     * @return number of cache misses, 0 if no bounded cache is used
+     */
+    public long getCacheMisses() {
+        return boundedCache == null ? 0 : boundedCache.missCount();
+    }
+
     /**
      * User model
      *
@@ -0,0 +1,317 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.core.preference;
+
+import es.uam.eps.ir.ranksys.core.util.SparseArrays;
+import es.uam.eps.ir.ranksys.core.util.parsing.DoubleParser;
+import es.uam.eps.ir.ranksys.core.util.parsing.Parser;
+import es.uam.eps.ir.ranksys.core.util.parsing.TsvTokenizer;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Compact preference data, a drop-in replacement of SimplePreferenceData.
+ * Users and items are interned into internal indexes, and the preferences are
+ * stored in compressed sparse row (CSR) arrays by user and by item, so that
+ * no object is kept per preference and the queries do not allocate anything
+ * but the returned streams.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ * 
+ * @param <U> type of the users
+ * @param <I> type of the items
+ * @param <O> type of other information for users and items
+ */
+public class CompactPreferenceData<U, I, O> implements PreferenceData<U, I, O> {
+
+    private final Object2IntOpenHashMap<U> user2uidx;
+    private final Object2IntOpenHashMap<I> item2iidx;
+    private final U[] users;
+    private final I[] items;
+    private final int[] userPtr;
+    private final int[] userIdxs;
+    private final double[] userVs;
+    private final Object[] userOs;
+    private final int[] itemPtr;
+    private final int[] itemIdxs;
+    private final double[] itemVs;
+    private final Object[] itemOs;
+
+    /**
+     * Constructor.
+     *
+     * @param user2uidx map from users to internal indexes, returning -1 for
+     * unknown users
+     * @param item2iidx map from items to internal indexes, returning -1 for
+     * unknown items
+     * @param users users by internal index
+     * @param items items by internal index
+     * @param userPtr offsets of the user rows
+     * @param userIdxs item indexes of the user rows
+     * @param userVs values of the user rows
+     * @param userOs other information of the user rows, null if none
+     * @param itemPtr offsets of the item rows
+     * @param itemIdxs user indexes of the item rows
+     * @param itemVs values of the item rows
+     * @param itemOs other information of the item rows, null if none
+     */
+    protected CompactPreferenceData(Object2IntOpenHashMap<U> user2uidx, Object2IntOpenHashMap<I> item2iidx, U[] users, I[] items, int[] userPtr, int[] userIdxs, double[] userVs, Object[] userOs, int[] itemPtr, int[] itemIdxs, double[] itemVs, Object[] itemOs) {
+        this.user2uidx = user2uidx;
+        this.item2iidx = item2iidx;
+        this.users = users;
+        this.items = items;
+        this.userPtr = userPtr;
+        this.userIdxs = userIdxs;
+        this.userVs = userVs;
+        this.userOs = userOs;
+        this.itemPtr = itemPtr;
+        this.itemIdxs = itemIdxs;
+        this.itemVs = itemVs;
+        this.itemOs = itemOs;
+    }
+
+    @Override
+    public boolean containsUser(U u) {
+        return user2uidx.containsKey(u);
+    }
+
+    @Override
+    public int numUsers() {
+        return users.length;
+    }
+
+    @Override
+    public int numUsers(I i) {
+        int iidx = item2iidx.getInt(i);
+        if (iidx < 0) {
+            return 0;
+        }
+        return itemPtr[iidx + 1] - itemPtr[iidx];
+    }
+
+    @Override
+    public boolean containsItem(I i) {
+        return item2iidx.containsKey(i);
+    }
+
+    @Override
+    public int numItems() {
+        return items.length;
+    }
+
+    @Override
+    public int numItems(U u) {
+        int uidx = user2uidx.getInt(u);
+        if (uidx < 0) {
+            return 0;
+        }
+        return userPtr[uidx + 1] - userPtr[uidx];
+    }
+
+    @Override
+    public int numPreferences() {
+        return userIdxs.length;
+    }
+
+    @Override
+    public Stream<U> getAllUsers() {
+        return Arrays.stream(users);
+    }
+
+    @Override
+    public Stream<I> getAllItems() {
+        return Arrays.stream(items);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<IdPref<I, O>> getUserPreferences(U u) {
+        int uidx = user2uidx.getInt(u);
+        if (uidx < 0) {
+            return Stream.empty();
+        }
+        return IntStream.range(userPtr[uidx], userPtr[uidx + 1])
+                .mapToObj(k -> new IdPref<>(items[userIdxs[k]], userVs[k], userOs == null ? null : (O) userOs[k]));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<IdPref<U, O>> getItemPreferences(I i) {
+        int iidx = item2iidx.getInt(i);
+        if (iidx < 0) {
+            return Stream.empty();
+        }
+        return IntStream.range(itemPtr[iidx], itemPtr[iidx + 1])
+                .mapToObj(k -> new IdPref<>(users[itemIdxs[k]], itemVs[k], itemOs == null ? null : (O) itemOs[k]));
+    }
+
+    @Override
+    public int numUsersWithPreferences() {
+        return users.length;
+    }
+
+    @Override
+    public int numItemsWithPreferences() {
+        return items.length;
+    }
+
+    @Override
+    public Stream<U> getUsersWithPreferences() {
+        return getAllUsers();
+    }
+
+    @Override
+    public Stream<I> getItemsWithPreferences() {
+        return getAllItems();
+    }
+
+    /**
+     * Load preferences from a file.
+     * 
+     * Each line is a different preference, with tab-separated fields indicating
+     * user, item, weight and other information.
+     *
+     * @param <U> type of the users
+     * @param <I> type of the items
+     * @param <O> type of other information
+     * @param path path of the input file
+     * @param uParser user type parser
+     * @param iParser item type parser
+     * @param dp double parse
+     * @param vParser other info parser
+     * @return a compact PreferenceData with the information read
+     * @throws IOException when path does not exists of IO error
+     */
+    public static <U, I, O> CompactPreferenceData<U, I, O> load(String path, Parser<U> uParser, Parser<I> iParser, DoubleParser dp, Parser<O> vParser) throws IOException {
+        try (TsvTokenizer tokenizer = TsvTokenizer.map(path, 4)) {
+            return load(tokenizer, uParser, iParser, dp, vParser);
+        }
+    }
+
+    /**
+     * Load preferences from an input stream.
+     * 
+     * Each line is a different preference, with tab-separated fields indicating
+     * user, item, weight and other information.
+     *
+     * @param <U> type of the users
+     * @param <I> type of the items
+     * @param <O> type of other information
+     * @param in input stream to read from
+     * @param uParser user type parser
+     * @param iParser item type parser
+     * @param dp double parse
+     * @param vParser other info parser
+     * @return a compact PreferenceData with the information read
+     * @throws IOException when path does not exists of IO error
+     */
+    public static <U, I, O> CompactPreferenceData<U, I, O> load(InputStream in, Parser<U> uParser, Parser<I> iParser, DoubleParser dp, Parser<O> vParser) throws IOException {
+        try (TsvTokenizer tokenizer = new TsvTokenizer(in, 4)) {
+            return load(tokenizer, uParser, iParser, dp, vParser);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <U, I, O> CompactPreferenceData<U, I, O> load(TsvTokenizer tokenizer, Parser<U> uParser, Parser<I> iParser, DoubleParser dp, Parser<O> vParser) throws IOException {
+        Object2IntOpenHashMap<U> user2uidx = new Object2IntOpenHashMap<>();
+        user2uidx.defaultReturnValue(-1);
+        ObjectArrayList<U> users = new ObjectArrayList<>();
+        Object2IntOpenHashMap<I> item2iidx = new Object2IntOpenHashMap<>();
+        item2iidx.defaultReturnValue(-1);
+        ObjectArrayList<I> items = new ObjectArrayList<>();
+
+        IntArrayList uidxs = new IntArrayList();
+        IntArrayList iidxs = new IntArrayList();
+        DoubleArrayList vs = new DoubleArrayList();
+        ObjectArrayList<O> os = null;
+
+        while (tokenizer.nextLine()) {
+            U user = tokenizer.parse(0, uParser);
+            I item = tokenizer.parse(1, iParser);
+            double value;
+            if (tokenizer.numFields() >= 3) {
+                value = tokenizer.parseDouble(2, dp);
+            } else {
+                value = dp.parse(null);
+            }
+            O other;
+            if (tokenizer.numFields() == 4) {
+                other = tokenizer.parse(3, vParser);
+            } else {
+                other = vParser.parse(null);
+            }
+
+            int uidx = user2uidx.getInt(user);
+            if (uidx < 0) {
+                uidx = users.size();
+                user2uidx.put(user, uidx);
+                users.add(user);
+            }
+            int iidx = item2iidx.getInt(item);
+            if (iidx < 0) {
+                iidx = items.size();
+                item2iidx.put(item, iidx);
+                items.add(item);
+            }
+
+            if (other != null && os == null) {
+                os = new ObjectArrayList<>(uidxs.elements().length);
+                os.size(uidxs.size());
+            }
+            uidxs.add(uidx);
+            iidxs.add(iidx);
+            vs.add(value);
+            if (os != null) {
+                os.add(other);
+            }
+        }
+
+        int numUsers = users.size();
+        int numItems = items.size();
+        int numPreferences = uidxs.size();
+
+        int[] userPtr = new int[numUsers + 1];
+        int[] userIdxs = new int[numPreferences];
+        double[] userVs = new double[numPreferences];
+        Object[] userOs = os == null ? null : new Object[numPreferences];
+        SparseArrays.group(numUsers, numPreferences, uidxs.elements(), iidxs.elements(), vs.elements(), os == null ? null : os.elements(), userPtr, userIdxs, userVs, userOs);
+        uidxs = null;
+        iidxs = null;
+        vs = null;
+        os = null;
+
+        int[] itemPtr = new int[numItems + 1];
+        int[] itemIdxs = new int[numPreferences];
+        double[] itemVs = new double[numPreferences];
+        Object[] itemOs = userOs == null ? null : new Object[numPreferences];
+        SparseArrays.transpose(numUsers, numItems, userPtr, userIdxs, userVs, userOs, itemPtr, itemIdxs, itemVs, itemOs);
+
+        user2uidx.trim();
+        item2iidx.trim();
+
+        return new CompactPreferenceData<>(user2uidx, item2iidx, (U[]) users.toArray(), (I[]) items.toArray(), userPtr, userIdxs, userVs, userOs, itemPtr, itemIdxs, itemVs, itemOs);
+    }
+
+}
@@ -17,11 +17,15 @@
  */
 package es.uam.eps.ir.ranksys.core.preference;
 
+import es.uam.eps.ir.ranksys.core.util.Lazy;
 import java.util.stream.Stream;
 
 /**
  * Concatenation of two PreferenceData's
  *
+ * The numbers of distinct users and items are computed once, when first
+ * requested.
+ *
  * @author Saúl Vargas (saul.vargas@uam.es)
  * 
  * @param <U> type of the users
@@ -32,6 +36,10 @@ public class ConcatPreferenceData<U, I, O> implements PreferenceData<U, I, O> {
 
     private final PreferenceData<U, I, O> d1;
     private final PreferenceData<U, I, O> d2;
+    private final Lazy<Integer> numUsers;
+    private final Lazy<Integer> numItems;
+    private final Lazy<Integer> numUsersWithPreferences;
+    private final Lazy<Integer> numItemsWithPreferences;
 
     /**
      * Constructor.
@@ -42,6 +50,10 @@ public class ConcatPreferenceData<U, I, O> implements PreferenceData<U, I, O> {
     public ConcatPreferenceData(PreferenceData<U, I, O> d1, PreferenceData<U, I, O> d2) {
         this.d1 = d1;
         this.d2 = d2;
+        this.numUsers = new Lazy<>(() -> (int) getAllUsers().count());
+        this.numItems = new Lazy<>(() -> (int) getAllItems().count());
+        this.numUsersWithPreferences = new Lazy<>(() -> (int) getUsersWithPreferences().count());
+        this.numItemsWithPreferences = new Lazy<>(() -> (int) getItemsWithPreferences().count());
     }
 
     @Override
@@ -51,7 +63,7 @@ public class ConcatPreferenceData<U, I, O> implements PreferenceData<U, I, O> {
 
     @Override
     public int numUsers() {
-        return (int) getAllUsers().count();
+        return numUsers.get();
     }
 
     @Override
@@ -66,7 +78,7 @@ public class ConcatPreferenceData<U, I, O> implements PreferenceData<U, I, O> {
 
     @Override
     public int numItems() {
-        return (int) getAllItems().count();
+        return numItems.get();
     }
 
     @Override
@@ -101,12 +113,12 @@ public class ConcatPreferenceData<U, I, O> implements PreferenceData<U, I, O> {
 
     @Override
     public int numUsersWithPreferences() {
-        return (int) getUsersWithPreferences().count();
+        return numUsersWithPreferences.get();
     }
 
     @Override
     public int numItemsWithPreferences() {
-        return (int) getItemsWithPreferences().count();
+        return numItemsWithPreferences.get();
     }
 
     @Override
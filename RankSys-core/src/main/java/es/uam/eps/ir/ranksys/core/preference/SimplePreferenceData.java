@@ -19,12 +19,11 @@ package es.uam.eps.ir.ranksys.core.preference;
 
 import es.uam.eps.ir.ranksys.core.util.parsing.DoubleParser;
 import es.uam.eps.ir.ranksys.core.util.parsing.Parser;
-import java.io.BufferedReader;
-import java.io.FileInputStream;
+import es.uam.eps.ir.ranksys.core.util.parsing.TsvTokenizer;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -70,7 +69,7 @@ public class SimplePreferenceData<U, I, O> implements PreferenceData<U, I, O> {
 
     @Override
     public int numUsers(I i) {
-        return itemMap.getOrDefault(i, new ArrayList<>(0)).size();
+        return itemMap.getOrDefault(i, Collections.emptyList()).size();
     }
 
     @Override
@@ -85,7 +84,7 @@ public class SimplePreferenceData<U, I, O> implements PreferenceData<U, I, O> {
 
     @Override
     public int numItems(U u) {
-        return userMap.getOrDefault(u, new ArrayList<>()).size();
+        return userMap.getOrDefault(u, Collections.emptyList()).size();
     }
 
     @Override
@@ -105,12 +104,12 @@ public class SimplePreferenceData<U, I, O> implements PreferenceData<U, I, O> {
 
     @Override
     public Stream<IdPref<I, O>> getUserPreferences(U u) {
-        return userMap.getOrDefault(u, new ArrayList<>()).stream();
+        return userMap.getOrDefault(u, Collections.emptyList()).stream();
     }
 
     @Override
     public Stream<IdPref<U, O>> getItemPreferences(I i) {
-        return itemMap.getOrDefault(i, new ArrayList<>()).stream();
+        return itemMap.getOrDefault(i, Collections.emptyList()).stream();
     }
 
     @Override
@@ -151,7 +150,9 @@ public class SimplePreferenceData<U, I, O> implements PreferenceData<U, I, O> {
      * @throws IOException when path does not exists of IO error
      */
     public static <U, I, O> SimplePreferenceData<U, I, O> load(String path, Parser<U> uParser, Parser<I> iParser, DoubleParser dp, Parser<O> vParser) throws IOException {
-        return load(new FileInputStream(path), uParser, iParser, dp, vParser);
+        try (TsvTokenizer tokenizer = TsvTokenizer.map(path, 4)) {
+            return load(tokenizer, uParser, iParser, dp, vParser);
+        }
     }
 
     /**
@@ -172,47 +173,50 @@ public class SimplePreferenceData<U, I, O> implements PreferenceData<U, I, O> {
      * @throws IOException when path does not exists of IO error
      */
     public static <U, I, O> SimplePreferenceData<U, I, O> load(InputStream in, Parser<U> uParser, Parser<I> iParser, DoubleParser dp, Parser<O> vParser) throws IOException {
+        try (TsvTokenizer tokenizer = new TsvTokenizer(in, 4)) {
+            return load(tokenizer, uParser, iParser, dp, vParser);
+        }
+    }
+
+    private static <U, I, O> SimplePreferenceData<U, I, O> load(TsvTokenizer tokenizer, Parser<U> uParser, Parser<I> iParser, DoubleParser dp, Parser<O> vParser) throws IOException {
         Map<U, List<IdPref<I, O>>> userMap = new HashMap<>();
         Map<I, List<IdPref<U, O>>> itemMap = new HashMap<>();
-        int[] numPreferences = new int[]{0};
-
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
-            reader.lines().forEach(l -> {
-                String[] tokens = l.split("\t", 4);
-                U user = uParser.parse(tokens[0]);
-                I item = iParser.parse(tokens[1]);
-                double value;
-                if (tokens.length >= 3) {
-                    value = dp.parse(tokens[2]);
-                } else {
-                    value = dp.parse(null);
-                }
-                O other;
-                if (tokens.length == 4) {
-                    other = vParser.parse(tokens[3]);
-                } else {
-                    other = vParser.parse(null);
-                }
-
-                numPreferences[0]++;
-
-                List<IdPref<I, O>> uList = userMap.get(user);
-                if (uList == null) {
-                    uList = new ArrayList<>();
-                    userMap.put(user, uList);
-                }
-                uList.add(new IdPref<>(item, value, other));
-
-                List<IdPref<U, O>> iList = itemMap.get(item);
-                if (iList == null) {
-                    iList = new ArrayList<>();
-                    itemMap.put(item, iList);
-                }
-                iList.add(new IdPref<>(user, value, other));
-            });
+        int numPreferences = 0;
+
+        while (tokenizer.nextLine()) {
+            U user = tokenizer.parse(0, uParser);
+            I item = tokenizer.parse(1, iParser);
+            double value;
+            if (tokenizer.numFields() >= 3) {
+                value = tokenizer.parseDouble(2, dp);
+            } else {
+                value = dp.parse(null);
+            }
+            O other;
+            if (tokenizer.numFields() == 4) {
+                other = tokenizer.parse(3, vParser);
+            } else {
+                other = vParser.parse(null);
+            }
+
+            numPreferences++;
+
+            List<IdPref<I, O>> uList = userMap.get(user);
+            if (uList == null) {
+                uList = new ArrayList<>();
+                userMap.put(user, uList);
+            }
+            uList.add(new IdPref<>(item, value, other));
+
+            List<IdPref<U, O>> iList = itemMap.get(item);
+            if (iList == null) {
+                iList = new ArrayList<>();
+                itemMap.put(item, iList);
+            }
+            iList.add(new IdPref<>(user, value, other));
         }
 
-        return new SimplePreferenceData<>(userMap, itemMap, numPreferences[0]);
+        return new SimplePreferenceData<>(userMap, itemMap, numPreferences);
     }
 
 }
@@ -0,0 +1,175 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.core.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Concurrent, size-bounded cache with least-recently-used eviction. The cache
+ * is split in independently locked segments, each of them an access-ordered
+ * LinkedHashMap, so that concurrent threads rarely contend for the same lock.
+ * Values are computed outside the locks, so a value may be computed more than
+ * once under contention: the computation is expected to be side-effect free.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class BoundedCache<K, V> {
+
+    private final Segment<K, V>[] segments;
+    private final int mask;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * Constructor with as many segments as available processors.
+     *
+     * @param maxSize maximum number of entries kept in the cache
+     */
+    public BoundedCache(int maxSize) {
+        this(maxSize, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize maximum number of entries kept in the cache
+     * @param concurrency expected number of concurrent accessing threads
+     */
+    @SuppressWarnings("unchecked")
+    public BoundedCache(int maxSize, int concurrency) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        int n = 1;
+        while (n < concurrency && (n << 1) <= maxSize) {
+            n <<= 1;
+        }
+        this.segments = new Segment[n];
+        for (int i = 0; i < n; i++) {
+            int segmentSize = maxSize / n + (i < maxSize % n ? 1 : 0);
+            segments[i] = new Segment<>(segmentSize);
+        }
+        this.mask = n - 1;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Returns the value associated to a key, computing and storing it if
+     * it was not in the cache.
+     *
+     * @param key key
+     * @param function function that computes the value of a key
+     * @return value associated to the key
+     */
+    public V get(K key, Function<? super K, ? extends V> function) {
+        Segment<K, V> segment = segmentFor(key);
+
+        V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+
+        misses.increment();
+        value = function.apply(key);
+        if (value != null) {
+            synchronized (segment) {
+                segment.put(key, value);
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns the number of entries currently in the cache.
+     *
+     * @return number of entries currently in the cache
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes all the entries of the cache. Hit and miss counters are not
+     * reset.
+     */
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of requests that found its value in the cache.
+     *
+     * @return number of cache hits
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of requests that had to compute its value.
+     *
+     * @return number of cache misses
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & mask];
+    }
+
+    private static class Segment<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+        private final int maxSize;
+
+        public Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
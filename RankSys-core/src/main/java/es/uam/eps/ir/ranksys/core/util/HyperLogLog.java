@@ -0,0 +1,176 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.core.util;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch for estimating the number of distinct elements of a
+ * multiset in a fixed amount of memory. Sketches with the same precision can
+ * be merged, the result being the sketch of the union of the multisets.
+ *
+ * P. Flajolet, É. Fusy, O. Gandouet and F. Meunier. HyperLogLog: the analysis
+ * of a near-optimal cardinality estimation algorithm. AOFA 2007.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public class HyperLogLog {
+
+    private final int p;
+    private final byte[] registers;
+
+    /**
+     * Constructor.
+     *
+     * @param p precision, i.e., logarithm in base 2 of the number of
+     * registers, between 4 and 18. The relative standard error of the
+     * estimates is about 1.04 / sqrt(2^p).
+     */
+    public HyperLogLog(int p) {
+        if (p < 4 || p > 18) {
+            throw new IllegalArgumentException("precision must be between 4 and 18");
+        }
+        this.p = p;
+        this.registers = new byte[1 << p];
+    }
+
+    /**
+     * Adds an element to the sketch. Only the 32-bit hash code of the element
+     * is considered, so that elements with equal hash codes are counted once
+     * and the estimates saturate around 2^32 distinct elements. See
+     * {@link #add(long)} for elements that are identified by a long value.
+     *
+     * @param o element
+     */
+    public void add(Object o) {
+        addHash(mix(o.hashCode()));
+    }
+
+    /**
+     * Adds an element identified by a long value to the sketch. The 64 bits
+     * of the value are mixed into its hash.
+     *
+     * @param v value of the element
+     */
+    public void add(long v) {
+        addHash(mix(v));
+    }
+
+    /**
+     * Adds an element identified by an int value, such as an index, to the
+     * sketch. It is equivalent to {@link #add(long)}.
+     *
+     * @param v value of the element
+     */
+    public void add(int v) {
+        add((long) v);
+    }
+
+    /**
+     * Adds a 64-bit hash of an element to the sketch. The hash is expected to
+     * be well distributed.
+     *
+     * @param hash hash of the element
+     */
+    public synchronized void addHash(long hash) {
+        int idx = (int) (hash >>> (64 - p));
+        int rho = Long.numberOfLeadingZeros((hash << p) | (1L << (p - 1))) + 1;
+        if (rho > registers[idx]) {
+            registers[idx] = (byte) rho;
+        }
+    }
+
+    /**
+     * Merges another sketch into this one. The registers of the other sketch
+     * are copied under its lock before being merged under the lock of this
+     * one, so that both locks are never held at the same time.
+     *
+     * @param other sketch with the same precision
+     */
+    public void merge(HyperLogLog other) {
+        if (other.p != p) {
+            throw new IllegalArgumentException("sketches with different precision");
+        }
+        byte[] otherRegisters;
+        synchronized (other) {
+            otherRegisters = other.registers.clone();
+        }
+        synchronized (this) {
+            for (int i = 0; i < registers.length; i++) {
+                if (otherRegisters[i] > registers[i]) {
+                    registers[i] = otherRegisters[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the estimated number of distinct elements added to the sketch.
+     *
+     * @return estimated number of distinct elements
+     */
+    public synchronized double cardinality() {
+        int m = registers.length;
+        double sum = 0.0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) {
+                zeros++;
+            }
+        }
+
+        double alpha;
+        switch (m) {
+            case 16:
+                alpha = 0.673;
+                break;
+            case 32:
+                alpha = 0.697;
+                break;
+            case 64:
+                alpha = 0.709;
+                break;
+            default:
+                alpha = 0.7213 / (1 + 1.079 / m);
+        }
+
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log(m / (double) zeros);
+        }
+
+        return estimate;
+    }
+
+    /**
+     * Removes all the elements of the sketch.
+     */
+    public synchronized void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,193 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.core.util;
+
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * Concurrent, size-bounded cache of primitive long keys and double values.
+ * The cache is direct-mapped: every key has a single slot, and storing a key
+ * evicts whichever key previously occupied it. Slots are grouped in
+ * independently locked segments whose lookups are optimistic reads, so that
+ * cache hits neither box keys or values nor acquire any lock. As in
+ * {@link BoundedCache}, values are computed outside the locks and the
+ * computation is expected to be side-effect free.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public class LongDoubleCache {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final Segment[] segments;
+    private final int mask;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * Constructor with as many segments as available processors.
+     *
+     * @param maxSize maximum number of entries kept in the cache
+     */
+    public LongDoubleCache(int maxSize) {
+        this(maxSize, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize maximum number of entries kept in the cache
+     * @param concurrency expected number of concurrent accessing threads
+     */
+    public LongDoubleCache(int maxSize, int concurrency) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        int n = 1;
+        while (n < concurrency && (n << 1) <= maxSize) {
+            n <<= 1;
+        }
+        this.segments = new Segment[n];
+        for (int i = 0; i < n; i++) {
+            int segmentSize = maxSize / n + (i < maxSize % n ? 1 : 0);
+            segments[i] = new Segment(segmentSize);
+        }
+        this.mask = n - 1;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Returns the value associated to a key, computing and storing it if
+     * it was not in the cache.
+     *
+     * @param key key, any value but {@link Long#MIN_VALUE}
+     * @param function function that computes the value of a key
+     * @return value associated to the key
+     */
+    public double get(long key, LongToDoubleFunction function) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Long.MIN_VALUE is not a valid key");
+        }
+        long h = murmurHash3(key);
+        Segment segment = segments[(int) h & mask];
+        int slot = (int) ((h >>> 32) % segment.keys.length);
+
+        long stamp = segment.lock.tryOptimisticRead();
+        long k = segment.keys[slot];
+        double value = segment.values[slot];
+        if (!segment.lock.validate(stamp)) {
+            stamp = segment.lock.readLock();
+            try {
+                k = segment.keys[slot];
+                value = segment.values[slot];
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        if (k == key) {
+            hits.increment();
+            return value;
+        }
+
+        misses.increment();
+        value = function.applyAsDouble(key);
+        stamp = segment.lock.writeLock();
+        try {
+            segment.keys[slot] = key;
+            segment.values[slot] = value;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns the number of entries currently in the cache.
+     *
+     * @return number of entries currently in the cache
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                for (long k : segment.keys) {
+                    if (k != EMPTY) {
+                        size++;
+                    }
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes all the entries of the cache. Hit and miss counters are not
+     * reset.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                Arrays.fill(segment.keys, EMPTY);
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of requests that found its value in the cache.
+     *
+     * @return number of cache hits
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of requests that had to compute its value.
+     *
+     * @return number of cache misses
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    private static class Segment {
+
+        private final StampedLock lock;
+        private final long[] keys;
+        private final double[] values;
+
+        public Segment(int size) {
+            this.lock = new StampedLock();
+            this.keys = new long[size];
+            this.values = new double[size];
+            Arrays.fill(keys, EMPTY);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.core.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Construction of compressed sparse row (CSR) arrays, in which the entries of
+ * row r are in positions [ptr[r], ptr[r + 1]) of parallel arrays of column
+ * indexes, values and other information. Arrays of values or other
+ * information may be null when the entries do not have them.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public class SparseArrays {
+
+    private static final int MIN_BLOCK_SIZE = 4096;
+
+    /**
+     * Groups a list of entries by row, keeping the order of the entries in
+     * each row.
+     *
+     * @param numRows number of rows
+     * @param numEntries number of entries
+     * @param rows row of each entry
+     * @param cols column of each entry
+     * @param vs value of each entry, may be null
+     * @param os other information of each entry, may be null
+     * @param rowPtr offsets of the rows, of length numRows + 1, filled by the
+     * method
+     * @param rowIdxs column indexes of the rows, filled by the method
+     * @param rowVs values of the rows, filled by the method if vs is not
+     * null
+     * @param rowOs other information of the rows, filled by the method if os
+     * is not null
+     */
+    public static void group(int numRows, int numEntries, int[] rows, int[] cols, double[] vs, Object[] os, int[] rowPtr, int[] rowIdxs, double[] rowVs, Object[] rowOs) {
+        for (int k = 0; k < numEntries; k++) {
+            rowPtr[rows[k] + 1]++;
+        }
+        for (int r = 0; r < numRows; r++) {
+            rowPtr[r + 1] += rowPtr[r];
+        }
+
+        int[] next = new int[numRows];
+        System.arraycopy(rowPtr, 0, next, 0, numRows);
+        for (int k = 0; k < numEntries; k++) {
+            int pos = next[rows[k]]++;
+            rowIdxs[pos] = cols[k];
+            if (vs != null) {
+                rowVs[pos] = vs[k];
+            }
+            if (os != null) {
+                rowOs[pos] = os[k];
+            }
+        }
+    }
+
+    /**
+     * Transposes CSR arrays by a counting sort of the entries by column. The
+     * rows are split in blocks of similar number of entries, each of them
+     * counting and then scattering its entries in parallel to the others.
+     * The entries of each column are ordered by row.
+     *
+     * @param numRows number of rows
+     * @param numCols number of columns
+     * @param rowPtr offsets of the rows, of length numRows + 1
+     * @param rowIdxs column indexes of the rows
+     * @param rowVs values of the rows, may be null
+     * @param rowOs other information of the rows, may be null
+     * @param colPtr offsets of the columns, of length numCols + 1, filled by
+     * the method
+     * @param colIdxs row indexes of the columns, filled by the method
+     * @param colVs values of the columns, filled by the method if rowVs is
+     * not null
+     * @param colOs other information of the columns, filled by the method if
+     * rowOs is not null
+     */
+    public static void transpose(int numRows, int numCols, int[] rowPtr, int[] rowIdxs, double[] rowVs, Object[] rowOs, int[] colPtr, int[] colIdxs, double[] colVs, Object[] colOs) {
+        int numEntries = rowPtr[numRows];
+        int numBlocks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), numEntries / MIN_BLOCK_SIZE));
+
+        int[] bounds = new int[numBlocks + 1];
+        for (int b = 1, r = 0; b < numBlocks; b++) {
+            long target = (long) numEntries * b / numBlocks;
+            while (rowPtr[r] < target) {
+                r++;
+            }
+            bounds[b] = r;
+        }
+        bounds[numBlocks] = numRows;
+
+        int[][] offsets = new int[numBlocks][];
+        IntStream.range(0, numBlocks).parallel().forEach(b -> {
+            int[] counts = new int[numCols];
+            for (int k = rowPtr[bounds[b]]; k < rowPtr[bounds[b + 1]]; k++) {
+                counts[rowIdxs[k]]++;
+            }
+            offsets[b] = counts;
+        });
+
+        int offset = 0;
+        for (int c = 0; c < numCols; c++) {
+            colPtr[c] = offset;
+            for (int b = 0; b < numBlocks; b++) {
+                int count = offsets[b][c];
+                offsets[b][c] = offset;
+                offset += count;
+            }
+        }
+        colPtr[numCols] = offset;
+
+        IntStream.range(0, numBlocks).parallel().forEach(b -> {
+            int[] next = offsets[b];
+            for (int r = bounds[b]; r < bounds[b + 1]; r++) {
+                for (int k = rowPtr[r]; k < rowPtr[r + 1]; k++) {
+                    int pos = next[rowIdxs[k]]++;
+                    colIdxs[pos] = r;
+                    if (rowVs != null) {
+                        colVs[pos] = rowVs[k];
+                    }
+                    if (rowOs != null) {
+                        colOs[pos] = rowOs[k];
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the number of temporary bytes used by
+     * {@link #transpose(int, int, int[], int[], double[], Object[], int[], int[], double[], Object[])}.
+     *
+     * @param numCols number of columns
+     * @return number of temporary bytes of the transposition
+     */
+    public static long transposeBytes(int numCols) {
+        return (long) Integer.BYTES * ForkJoinPool.getCommonPoolParallelism() * numCols;
+    }
+}
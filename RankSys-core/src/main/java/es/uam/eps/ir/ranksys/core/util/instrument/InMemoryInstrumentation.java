@@ -0,0 +1,88 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.core.util.instrument;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Instrumentation that keeps a LogLinearHistogram in memory for each name.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public class InMemoryInstrumentation implements Instrumentation {
+
+    private final int precision;
+    private final Map<String, LogLinearHistogram> histograms;
+
+    /**
+     * Constructor with a relative error below 1%.
+     */
+    public InMemoryInstrumentation() {
+        this(7);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param precision number of bits of the sub-buckets of the histograms
+     */
+    public InMemoryInstrumentation(int precision) {
+        this.precision = precision;
+        this.histograms = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public LogLinearHistogram histogram(String name) {
+        LogLinearHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, n -> new LogLinearHistogram(precision));
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns the histograms recorded so far, sorted by name.
+     *
+     * @return map of name-histogram pairs
+     */
+    public SortedMap<String, LogLinearHistogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    /**
+     * Removes all the histograms.
+     */
+    public void clear() {
+        histograms.clear();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        getHistograms().forEach((name, histogram) -> sb.append(name).append('\t').append(histogram).append('\n'));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,63 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.core.util.instrument;
+
+/**
+ * Service provider of the histograms in which instrumented code records
+ * its measurements. Histograms are identified by name, and instrumented code
+ * checks isEnabled before taking any measurement, so that a disabled
+ * instrumentation costs a single branch.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public interface Instrumentation {
+
+    /**
+     * Instrumentation that does not record anything.
+     */
+    public static final Instrumentation NOOP = new Instrumentation() {
+
+        private final Histogram histogram = value -> {
+        };
+
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public Histogram histogram(String name) {
+            return histogram;
+        }
+    };
+
+    /**
+     * Determines whether measurements should be taken.
+     *
+     * @return true if measurements are recorded, false otherwise
+     */
+    public boolean isEnabled();
+
+    /**
+     * Returns the histogram of a given name, creating it if necessary.
+     *
+     * @param name name of the histogram
+     * @return histogram
+     */
+    public Histogram histogram(String name);
+}
@@ -0,0 +1,85 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.core.util.instrument;
+
+/**
+ * Holder of the instrumentation used by the library, which is
+ * Instrumentation.NOOP unless another one is set.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public class Instruments {
+
+    private static volatile Instrumentation instrumentation = Instrumentation.NOOP;
+
+    /**
+     * Returns the current instrumentation.
+     *
+     * @return current instrumentation
+     */
+    public static Instrumentation get() {
+        return instrumentation;
+    }
+
+    /**
+     * Sets the instrumentation to be used from now on.
+     *
+     * @param instrumentation instrumentation, null to disable it
+     */
+    public static void set(Instrumentation instrumentation) {
+        Instruments.instrumentation = instrumentation == null ? Instrumentation.NOOP : instrumentation;
+    }
+
+    /**
+     * Returns the current time in nanoseconds if the current instrumentation
+     * is enabled, 0 otherwise.
+     *
+     * @return start time of a measurement
+     */
+    public static long start() {
+        return instrumentation.isEnabled() ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records the nanoseconds elapsed since a time obtained with start, if
+     * the current instrumentation is enabled. Measurements started while it
+     * was disabled are ignored.
+     *
+     * @param name name of the histogram
+     * @param start start time of the measurement
+     */
+    public static void stop(String name, long start) {
+        Instrumentation i = instrumentation;
+        if (i.isEnabled() && start != 0L) {
+            i.histogram(name).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records a value, if the current instrumentation is enabled.
+     *
+     * @param name name of the histogram
+     * @param value value to be recorded
+     */
+    public static void record(String name, long value) {
+        Instrumentation i = instrumentation;
+        if (i.isEnabled()) {
+            i.histogram(name).record(value);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.core.util.instrument;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram with bounded relative error, in the manner of HDR
+ * histograms. Values are bucketed by their order of magnitude in base two,
+ * and each order of magnitude is split in 2^precision linear sub-buckets,
+ * so that quantiles are reported with a relative error below 2^-precision
+ * using a fixed amount of memory. Negative values are recorded as 0.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public class LogLinearHistogram implements Histogram {
+
+    private final int precision;
+    private final AtomicLongArray counts;
+    private final LongAdder count;
+    private final DoubleAdder total;
+    private final LongAccumulator min;
+    private final LongAccumulator max;
+
+    /**
+     * Constructor with a relative error below 1%.
+     */
+    public LogLinearHistogram() {
+        this(7);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param precision number of bits of the sub-buckets, between 1 and 16
+     */
+    public LogLinearHistogram(int precision) {
+        if (precision < 1 || precision > 16) {
+            throw new IllegalArgumentException("precision must be between 1 and 16");
+        }
+        this.precision = precision;
+        this.counts = new AtomicLongArray((65 - precision) << precision);
+        this.count = new LongAdder();
+        this.total = new DoubleAdder();
+        this.min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        this.max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+    }
+
+    @Override
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        total.add(value);
+        min.accumulate(value);
+        max.accumulate(value);
+    }
+
+    private int bucket(long value) {
+        int e = 63 - Long.numberOfLeadingZeros(value) - precision;
+        if (e < 0) {
+            return (int) value;
+        }
+        return (e << precision) + (int) (value >>> e);
+    }
+
+    private long highestValue(int bucket) {
+        int e = (bucket >>> precision) - 1;
+        if (e < 0) {
+            return bucket;
+        }
+        long sub = bucket - ((long) e << precision);
+        return ((sub + 1) << e) - 1;
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return number of recorded values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded values.
+     *
+     * @return sum of the recorded values
+     */
+    public double getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return mean of the recorded values, NaN if there are none
+     */
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? Double.NaN : getTotal() / n;
+    }
+
+    /**
+     * Returns the minimum recorded value.
+     *
+     * @return minimum recorded value, 0 if there are none
+     */
+    public long getMin() {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    /**
+     * Returns the maximum recorded value.
+     *
+     * @return maximum recorded value, 0 if there are none
+     */
+    public long getMax() {
+        return getCount() == 0 ? 0 : max.get();
+    }
+
+    /**
+     * Returns an upper bound of the value at a given quantile, whose
+     * relative error is below 2^-precision.
+     *
+     * @param q quantile, between 0 and 1
+     * @return value at the quantile, 0 if there are no recorded values
+     */
+    public long getValueAtQuantile(double q) {
+        long n = 0;
+        for (int b = 0; b < counts.length(); b++) {
+            n += counts.get(b);
+        }
+        if (n == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(Math.max(q, 0.0), 1.0) * n));
+        long acc = 0;
+        for (int b = 0; b < counts.length(); b++) {
+            acc += counts.get(b);
+            if (acc >= rank) {
+                return Math.min(highestValue(b), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1f min=%d p50=%d p90=%d p99=%d max=%d",
+                getCount(), getMean(), getMin(), getValueAtQuantile(0.5), getValueAtQuantile(0.9), getValueAtQuantile(0.99), getMax());
+    }
+}
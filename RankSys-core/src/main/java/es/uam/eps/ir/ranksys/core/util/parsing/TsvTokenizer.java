@@ -0,0 +1,533 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.core.util.parsing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Byte-level tokenizer of tab-separated files.
+ *
+ * Lines are read directly from a byte buffer and split into fields without
+ * creating intermediate strings, so that integer, long and double fields can
+ * be parsed without allocating any object. The default parsers of Parsers
+ * and DoubleParser are recognised and run on the bytes; any other parser
+ * receives the UTF-8 decoded field. Lines end with '\n' or "\r\n", and empty
+ * lines are skipped.
+ *
+ * Instances are not thread-safe, and the fields of a line are only valid
+ * until the next call to nextLine.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public class TsvTokenizer implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAP_SIZE = 1 << 30;
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+        1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final Source source;
+    private final int maxFields;
+    private byte[] buf;
+    private int pos;
+    private int lim;
+    private boolean eof;
+    private int numFields;
+    private int[] starts;
+    private int[] ends;
+
+    /**
+     * Constructor that reads from an input stream.
+     *
+     * @param in input stream
+     * @param maxFields maximum number of fields of a line, the last one
+     * containing the rest of the line, or 0 for no limit
+     */
+    public TsvTokenizer(InputStream in, int maxFields) {
+        this(new StreamSource(in), maxFields);
+    }
+
+    /**
+     * Constructor that reads the remaining bytes of a buffer, typically a
+     * memory-mapped region of a file.
+     *
+     * @param buffer byte buffer
+     * @param maxFields maximum number of fields of a line, the last one
+     * containing the rest of the line, or 0 for no limit
+     */
+    public TsvTokenizer(ByteBuffer buffer, int maxFields) {
+        this(new BufferSource(buffer), maxFields);
+    }
+
+    private TsvTokenizer(Source source, int maxFields) {
+        this.source = source;
+        this.maxFields = maxFields;
+        this.buf = new byte[BUFFER_SIZE];
+        this.pos = 0;
+        this.lim = 0;
+        this.eof = false;
+        this.numFields = 0;
+        int n = maxFields > 0 ? maxFields : 8;
+        this.starts = new int[n];
+        this.ends = new int[n];
+    }
+
+    /**
+     * Creates a tokenizer that reads a file by memory-mapping it in regions.
+     *
+     * @param path file path
+     * @param maxFields maximum number of fields of a line, the last one
+     * containing the rest of the line, or 0 for no limit
+     * @return tokenizer of the file
+     * @throws IOException when the file cannot be opened
+     */
+    public static TsvTokenizer map(String path, int maxFields) throws IOException {
+        return map(Paths.get(path), maxFields);
+    }
+
+    /**
+     * Creates a tokenizer that reads a file by memory-mapping it in regions.
+     *
+     * @param path file path
+     * @param maxFields maximum number of fields of a line, the last one
+     * containing the rest of the line, or 0 for no limit
+     * @return tokenizer of the file
+     * @throws IOException when the file cannot be opened
+     */
+    public static TsvTokenizer map(Path path, int maxFields) throws IOException {
+        FileChannel channel = FileChannel.open(path, READ);
+        return new TsvTokenizer(new MappedSource(channel, 0, channel.size()), maxFields);
+    }
+
+    /**
+     * Creates a tokenizer that reads a range of bytes of a file by
+     * memory-mapping it in regions. The range is expected to start and end
+     * at line boundaries, such as those given by {@link #split}.
+     *
+     * @param path file path
+     * @param from first byte of the range, inclusive
+     * @param to last byte of the range, exclusive
+     * @param maxFields maximum number of fields of a line, the last one
+     * containing the rest of the line, or 0 for no limit
+     * @return tokenizer of the range of the file
+     * @throws IOException when the file cannot be opened
+     */
+    public static TsvTokenizer map(Path path, long from, long to, int maxFields) throws IOException {
+        return new TsvTokenizer(new MappedSource(FileChannel.open(path, READ), from, to), maxFields);
+    }
+
+    /**
+     * Splits a file in ranges of bytes of similar size that start and end at
+     * line boundaries, so that they can be tokenized in parallel. Ranges may
+     * be empty if the file has few and long lines.
+     *
+     * @param path file path
+     * @param numSplits number of ranges
+     * @return array of numSplits + 1 offsets, range k being the bytes from
+     * offset k (inclusive) to offset k + 1 (exclusive)
+     * @throws IOException when the file cannot be read
+     */
+    public static long[] split(Path path, int numSplits) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            long size = channel.size();
+            long[] offsets = new long[numSplits + 1];
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            for (int k = 1; k < numSplits; k++) {
+                long offset = Math.max(offsets[k - 1], size * k / numSplits);
+                if (offset > 0 && offset < size) {
+                    offset = nextLineStart(channel, offset - 1, size, buffer);
+                }
+                offsets[k] = offset;
+            }
+            offsets[numSplits] = size;
+            return offsets;
+        }
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer buffer) throws IOException {
+        while (position < size) {
+            buffer.clear();
+            int n = channel.read(buffer, position);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += n;
+        }
+        return size;
+    }
+
+    /**
+     * Advances to the next non-empty line.
+     *
+     * @return true if there was a line, false if the end of the input was
+     * reached
+     * @throws IOException when the underlying source fails
+     */
+    public boolean nextLine() throws IOException {
+        int scan = pos;
+        while (true) {
+            int nl = scan;
+            while (nl < lim && buf[nl] != '\n') {
+                nl++;
+            }
+            if (nl == lim && !eof) {
+                scan = lim - pos;
+                fill();
+                scan += pos;
+                continue;
+            }
+            if (nl == lim && pos == lim) {
+                numFields = 0;
+                return false;
+            }
+
+            int start = pos;
+            int end = nl;
+            pos = nl < lim ? nl + 1 : lim;
+            scan = pos;
+            if (end > start && buf[end - 1] == '\r') {
+                end--;
+            }
+            if (end > start) {
+                tokenize(start, end);
+                return true;
+            }
+        }
+    }
+
+    private void fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, lim - pos);
+            lim -= pos;
+            pos = 0;
+        }
+        if (lim == buf.length) {
+            byte[] newBuf = new byte[buf.length * 2];
+            System.arraycopy(buf, 0, newBuf, 0, lim);
+            buf = newBuf;
+        }
+        int n = source.read(buf, lim, buf.length - lim);
+        if (n < 0) {
+            eof = true;
+        } else {
+            lim += n;
+        }
+    }
+
+    private void tokenize(int start, int end) {
+        numFields = 0;
+        int s = start;
+        for (int i = start; i < end; i++) {
+            if (buf[i] == '\t' && (maxFields <= 0 || numFields < maxFields - 1)) {
+                addField(s, i);
+                s = i + 1;
+            }
+        }
+        addField(s, end);
+    }
+
+    private void addField(int start, int end) {
+        if (numFields == starts.length) {
+            int[] newStarts = new int[numFields * 2];
+            int[] newEnds = new int[numFields * 2];
+            System.arraycopy(starts, 0, newStarts, 0, numFields);
+            System.arraycopy(ends, 0, newEnds, 0, numFields);
+            starts = newStarts;
+            ends = newEnds;
+        }
+        starts[numFields] = start;
+        ends[numFields] = end;
+        numFields++;
+    }
+
+    /**
+     * Returns the number of fields of the current line.
+     *
+     * @return number of fields of the current line
+     */
+    public int numFields() {
+        return numFields;
+    }
+
+    /**
+     * Returns a field of the current line as a string.
+     *
+     * @param field index of the field
+     * @return UTF-8 decoded field
+     */
+    public String getString(int field) {
+        checkField(field);
+        return new String(buf, starts[field], ends[field] - starts[field], UTF_8);
+    }
+
+    /**
+     * Parses a field of the current line as an integer, with the same
+     * semantics as Parsers.ip.
+     *
+     * @param field index of the field
+     * @return parsed integer
+     */
+    public int getInt(int field) {
+        checkField(field);
+        int s = starts[field];
+        int e = ends[field];
+        boolean neg = s < e && buf[s] == '-';
+        int i = neg ? s + 1 : s;
+        if (i == e) {
+            return Parsers.ip.parse(getString(field));
+        }
+        int v = 0;
+        for (; i < e; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) {
+                return Parsers.ip.parse(getString(field));
+            }
+            v = v * 10 + d;
+        }
+        return neg ? -v : v;
+    }
+
+    /**
+     * Parses a field of the current line as a long, with the same semantics
+     * as Parsers.lp.
+     *
+     * @param field index of the field
+     * @return parsed long
+     */
+    public long getLong(int field) {
+        checkField(field);
+        int s = starts[field];
+        int e = ends[field];
+        boolean neg = s < e && buf[s] == '-';
+        int i = neg ? s + 1 : s;
+        if (i == e) {
+            return Parsers.lp.parse(getString(field));
+        }
+        long v = 0;
+        for (; i < e; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) {
+                return Parsers.lp.parse(getString(field));
+            }
+            v = v * 10 + d;
+        }
+        return neg ? -v : v;
+    }
+
+    /**
+     * Parses a field of the current line as a double, with the same result
+     * as Double.parseDouble. Plain decimal numbers with up to 15 significant
+     * digits are parsed on the bytes; any other syntax falls back to
+     * Double.parseDouble.
+     *
+     * @param field index of the field
+     * @return parsed double
+     */
+    public double getDouble(int field) {
+        checkField(field);
+        int s = starts[field];
+        int e = ends[field];
+        boolean neg = s < e && buf[s] == '-';
+        int i = s < e && (neg || buf[s] == '+') ? s + 1 : s;
+
+        long mantissa = 0;
+        int digits = 0;
+        int fracDigits = -1;
+        for (; i < e; i++) {
+            byte b = buf[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fracDigits >= 0) {
+                    fracDigits++;
+                }
+                if (mantissa >= MAX_EXACT_MANTISSA) {
+                    return Double.parseDouble(getString(field));
+                }
+            } else if (b == '.' && fracDigits < 0) {
+                fracDigits = 0;
+            } else {
+                return Double.parseDouble(getString(field));
+            }
+        }
+        if (digits == 0 || fracDigits >= POW10.length) {
+            return Double.parseDouble(getString(field));
+        }
+
+        double v = (double) mantissa;
+        if (fracDigits > 0) {
+            v /= POW10[fracDigits];
+        }
+        return neg ? -v : v;
+    }
+
+    /**
+     * Parses a field of the current line with a generic parser. Parsers.ip,
+     * Parsers.lp and Parsers.dp are run directly on the bytes of the field,
+     * although their results are boxed, and Parsers.vp does not read the
+     * field at all. Any other parser, including Parsers.sp, is applied to the
+     * field decoded with {@link #getString(int)}.
+     *
+     * @param <T> type of the parsed object
+     * @param field index of the field
+     * @param parser parser
+     * @return parsed object
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T parse(int field, Parser<T> parser) {
+        if (parser == Parsers.ip) {
+            return (T) Integer.valueOf(getInt(field));
+        } else if (parser == Parsers.lp) {
+            return (T) Long.valueOf(getLong(field));
+        } else if (parser == Parsers.dp) {
+            return (T) Double.valueOf(getDouble(field));
+        } else if (parser == Parsers.vp) {
+            checkField(field);
+            return null;
+        } else {
+            return parser.parse(getString(field));
+        }
+    }
+
+    /**
+     * Parses a field of the current line with a double parser.
+     * DoubleParser.ddp is run directly on the bytes of the field.
+     *
+     * @param field index of the field
+     * @param parser double parser
+     * @return parsed double
+     */
+    public double parseDouble(int field, DoubleParser parser) {
+        if (parser == DoubleParser.ddp) {
+            return getDouble(field);
+        } else {
+            return parser.parse(getString(field));
+        }
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= numFields) {
+            throw new IndexOutOfBoundsException("field " + field + " of " + numFields);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private interface Source extends Closeable {
+
+        int read(byte[] b, int off, int len) throws IOException;
+    }
+
+    private static class StreamSource implements Source {
+
+        private final InputStream in;
+
+        public StreamSource(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return in.read(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static class BufferSource implements Source {
+
+        private final ByteBuffer buffer;
+
+        public BufferSource(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+
+    private static class MappedSource implements Source {
+
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+        private ByteBuffer region;
+
+        public MappedSource(FileChannel channel, long from, long to) {
+            this.channel = channel;
+            this.end = to;
+            this.position = from;
+            this.region = null;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (region == null || !region.hasRemaining()) {
+                if (position >= end) {
+                    return -1;
+                }
+                long regionSize = Math.min(MAP_SIZE, end - position);
+                region = channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize);
+                position += regionSize;
+            }
+            int n = Math.min(len, region.remaining());
+            region.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            region = null;
+            channel.close();
+        }
+    }
+}
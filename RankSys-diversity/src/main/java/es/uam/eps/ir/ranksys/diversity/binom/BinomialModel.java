@@ -20,9 +20,15 @@ package es.uam.eps.ir.ranksys.diversity.binom;
 import es.uam.eps.ir.ranksys.core.preference.PreferenceData;
 import es.uam.eps.ir.ranksys.core.feature.FeatureData;
 import es.uam.eps.ir.ranksys.core.model.UserModel;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2DoubleMap;
 import it.unimi.dsi.fastutil.objects.Object2DoubleOpenHashMap;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 import org.apache.commons.math3.distribution.BinomialDistribution;
 
@@ -62,6 +68,22 @@ public class BinomialModel<U, I, F> extends UserModel<U> {
         this.alpha = alpha;
     }
 
+    /**
+     * Constructor with a bounded cache of user diversity models.
+     *
+     * @param cacheSize maximum number of user diversity models cached
+     * @param recommenderData preference data
+     * @param featureData feature data
+     * @param alpha generality-personalization parameter
+     */
+    public BinomialModel(int cacheSize, PreferenceData<U, I, ?> recommenderData, FeatureData<I, F, ?> featureData, double alpha) {
+        super(cacheSize);
+        this.recommenderData = recommenderData;
+        this.featureData = featureData;
+        this.globalFeatureProbs = getGlobalFeatureProbs();
+        this.alpha = alpha;
+    }
+
     /**
      * Returns the features considered by the model.
      *
@@ -112,10 +134,12 @@ public class BinomialModel<U, I, F> extends UserModel<U> {
 
         private final U user;
         private final Object2DoubleMap<F> featureProbs;
+        private final Map<F, Int2ObjectMap<BinomialTable>> tables;
 
         private UserBinomialModel(U user, double alpha) {
             this.user = user;
             this.featureProbs = getUserFeatureProbs();
+            this.tables = new ConcurrentHashMap<>();
         }
 
         /**
@@ -146,7 +170,7 @@ public class BinomialModel<U, I, F> extends UserModel<U> {
          * @return longing score
          */
         public double longing(F f, int N) {
-            return Math.pow(1 - p(f), N);
+            return getTable(f, N).p0;
         }
 
         /**
@@ -160,10 +184,18 @@ public class BinomialModel<U, I, F> extends UserModel<U> {
          * @return patience score
          */
         public double patience(int k, F f, int N) {
-            double pf = p(f);
-            BinomialDistribution dist = new BinomialDistribution(null, N, pf);
-            double p0 = Math.pow(1 - pf, N);
-            return 1 - (dist.cumulativeProbability(k - 1) - p0) / (1 - p0);
+            return getTable(f, N).patience(k);
+        }
+
+        private BinomialTable getTable(F f, int N) {
+            Int2ObjectMap<BinomialTable> fTables = tables.computeIfAbsent(f,
+                    f1 -> Int2ObjectMaps.synchronize(new Int2ObjectOpenHashMap<>()));
+            BinomialTable table = fTables.get(N);
+            if (table == null) {
+                table = new BinomialTable(p(f), N);
+                fTables.put(N, table);
+            }
+            return table;
         }
 
         private Object2DoubleMap<F> getUserFeatureProbs() {
@@ -196,4 +228,47 @@ public class BinomialModel<U, I, F> extends UserModel<U> {
             return probs;
         }
     }
+
+    /**
+     * Longing and patience scores of a feature for a given recommendation
+     * list size. Patience scores are computed on demand and stored for the
+     * values of k from 0 to N + 1, so that the binomial distribution is
+     * created once and evaluated at most once per value.
+     */
+    private static class BinomialTable {
+
+        private final int N;
+        private final double pf;
+        private final double p0;
+        private final double[] patience;
+        private BinomialDistribution dist;
+
+        public BinomialTable(double pf, int N) {
+            this.N = N;
+            this.pf = pf;
+            this.p0 = Math.pow(1 - pf, N);
+            this.dist = null;
+            this.patience = new double[N + 2];
+            Arrays.fill(patience, Double.NaN);
+        }
+
+        public double patience(int k) {
+            if (k < 0 || k >= patience.length) {
+                return computePatience(k);
+            }
+            double v = patience[k];
+            if (Double.isNaN(v)) {
+                v = computePatience(k);
+                patience[k] = v;
+            }
+            return v;
+        }
+
+        private double computePatience(int k) {
+            if (dist == null) {
+                dist = new BinomialDistribution(null, N, pf);
+            }
+            return 1 - (dist.cumulativeProbability(k - 1) - p0) / (1 - p0);
+        }
+    }
 }
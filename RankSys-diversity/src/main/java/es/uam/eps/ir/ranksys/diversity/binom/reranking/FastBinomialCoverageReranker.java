@@ -0,0 +1,164 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.diversity.binom.reranking;
+
+import es.uam.eps.ir.ranksys.diversity.binom.BinomialModel;
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.fast.feature.FastFeatureData;
+import es.uam.eps.ir.ranksys.fast.index.FastUserIndex;
+import es.uam.eps.ir.ranksys.novdiv.reranking.FastLambdaReranker;
+import java.util.HashSet;
+
+/**
+ * Binomial coverage reranker working on feature indexes. It produces the same
+ * re-rankings as {@link BinomialCoverageReranker}, but the features of the
+ * items are looked up once per recommendation and the longing scores and
+ * coverage state of the user are kept in primitive arrays. Recommendations of
+ * indexes are re-ranked without any mapping to or from ids, so their item
+ * indexes must be those of the feature data.
+ *
+ * S. Vargas, L. Baltrunas, A. Karatzoglou, P. Castells. Coverage, redundancy
+ * and size-awareness in genre diversity for Recommender Systems. RecSys 2014.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <U> type of the users
+ * @param <I> type of the items
+ * @param <F> type of the features
+ */
+public class FastBinomialCoverageReranker<U, I, F> extends FastLambdaReranker<U, I> {
+
+    private final FastFeatureData<I, F, ?> featureData;
+    private final BinomialModel<U, I, F> binomialModel;
+
+    /**
+     * Constructor.
+     *
+     * @param userIndex fast user index
+     * @param featureData feature data, whose item index is that of the
+     * recommendations
+     * @param binomialModel binomial model
+     * @param lambda trade-off between relevance and novelty
+     * @param cutoff number of items to be greedily selected
+     */
+    public FastBinomialCoverageReranker(FastUserIndex<U> userIndex, FastFeatureData<I, F, ?> featureData, BinomialModel<U, I, F> binomialModel, double lambda, int cutoff) {
+        super(userIndex, featureData, lambda, cutoff, true);
+        this.featureData = featureData;
+        this.binomialModel = binomialModel;
+    }
+
+    @Override
+    protected FastBinomialCoverageUserReranker getFastUserReranker(U user, FastRecommendation recommendation, int maxLength) {
+        return new FastBinomialCoverageUserReranker(user, recommendation, maxLength);
+    }
+
+    /**
+     * Returns the indexes of the features of the items of a recommendation,
+     * by position in the recommendation. Items with a negative index have no
+     * features.
+     *
+     * @param featureData feature data
+     * @param iidxs indexes of the items of the recommendation
+     * @return indexes of the features of the items, by position
+     */
+    static int[][] getItemFidxs(FastFeatureData<?, ?, ?> featureData, int[] iidxs) {
+        int[][] itemFidxs = new int[iidxs.length][];
+        for (int pos = 0; pos < iidxs.length; pos++) {
+            itemFidxs[pos] = iidxs[pos] < 0 ? new int[0] : featureData.getIidxFeatures(iidxs[pos])
+                    .mapToInt(fv -> fv.idx)
+                    .toArray();
+        }
+        return itemFidxs;
+    }
+
+    /**
+     * User re-ranker for {@link FastBinomialCoverageReranker}.
+     */
+    public class FastBinomialCoverageUserReranker extends FastLambdaUserReranker {
+
+        private final int[][] itemFidxs;
+        private final boolean[] uncovered;
+        private final double[] longing;
+        private final int numFeatures;
+        private double coverage;
+
+        /**
+         * Constructor.
+         *
+         * @param user user of the recommendation
+         * @param recommendation input recommendation to be re-ranked
+         * @param maxLength number of items to be greedily selected
+         */
+        public FastBinomialCoverageUserReranker(U user, FastRecommendation recommendation, int maxLength) {
+            super(recommendation, maxLength);
+
+            BinomialModel<U, I, F>.UserBinomialModel ubm = binomialModel.getModel(user);
+
+            itemFidxs = getItemFidxs(featureData, iidxs);
+
+            uncovered = new boolean[featureData.numFeatures()];
+            longing = new double[featureData.numFeatures()];
+            ubm.getFeatures().forEach(f -> {
+                int fidx = featureData.feature2fidx(f);
+                if (fidx >= 0) {
+                    uncovered[fidx] = true;
+                    longing[fidx] = ubm.longing(f, cutoff);
+                }
+            });
+            numFeatures = ubm.getFeatures().size();
+
+            coverage = new HashSet<>(ubm.getFeatures()).stream()
+                    .mapToDouble(f -> ubm.longing(f, cutoff))
+                    .reduce((x, y) -> x * y).orElse(1.0);
+            coverage = Math.pow(coverage, 1 / (double) numFeatures);
+        }
+
+        @Override
+        protected double nov(int pos) {
+            int[] fidxs = itemFidxs[pos];
+
+            double iCoverage = 1.0;
+            for (int fidx : fidxs) {
+                if (uncovered[fidx]) {
+                    iCoverage *= longing[fidx];
+                }
+            }
+            iCoverage = Math.pow(iCoverage, 1 / (double) numFeatures);
+            iCoverage = coverage / iCoverage;
+
+            return iCoverage;
+        }
+
+        @Override
+        protected void update(int bestPos) {
+            int[] fidxs = itemFidxs[bestPos];
+
+            double iCoverage = 1.0;
+            for (int fidx : fidxs) {
+                if (uncovered[fidx]) {
+                    uncovered[fidx] = false;
+                    iCoverage *= longing[fidx];
+                }
+            }
+            iCoverage = Math.pow(iCoverage, 1 / (double) numFeatures);
+            coverage /= iCoverage;
+        }
+
+    }
+
+}
@@ -0,0 +1,103 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.diversity.binom.reranking;
+
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.fast.feature.FastFeatureData;
+import es.uam.eps.ir.ranksys.fast.index.FastUserIndex;
+import es.uam.eps.ir.ranksys.diversity.binom.BinomialModel;
+import es.uam.eps.ir.ranksys.novdiv.reranking.FastLambdaReranker;
+
+/**
+ * Binomial diversity reranker working on feature indexes, combining
+ * {@link FastBinomialCoverageReranker} and
+ * {@link FastBinomialNonRedundancyReranker}. It is equivalent to
+ * {@link BinomialDiversityReranker}. Recommendations of indexes are re-ranked
+ * without any mapping to or from ids, so their item indexes must be those of
+ * the feature data.
+ *
+ * S. Vargas, L. Baltrunas, A. Karatzoglou, P. Castells. Coverage, redundancy
+ * and size-awareness in genre diversity for Recommender Systems. RecSys 2014.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ * 
+ * @param <U> type of the users
+ * @param <I> type of the items
+ * @param <F> type of the features
+ */
+public class FastBinomialDiversityReranker<U, I, F> extends FastLambdaReranker<U, I> {
+
+    private final FastBinomialCoverageReranker<U, I, F> coverageReranker;
+    private final FastBinomialNonRedundancyReranker<U, I, F> nonRedundancyReranker;
+    
+    /**
+     * Constructor.
+     *
+     * @param userIndex fast user index
+     * @param featureData feature data, whose item index is that of the
+     * recommendations
+     * @param binomialModel binomial model
+     * @param lambda trade-off between relevance and novelty
+     * @param cutoff number of items to be greedily selected
+     */
+    public FastBinomialDiversityReranker(FastUserIndex<U> userIndex, FastFeatureData<I, F, ?> featureData, BinomialModel<U, I, F> binomialModel, double lambda, int cutoff) {
+        super(userIndex, featureData, lambda, cutoff, true);
+        coverageReranker = new FastBinomialCoverageReranker<>(userIndex, featureData, binomialModel, lambda, cutoff);
+        nonRedundancyReranker = new FastBinomialNonRedundancyReranker<>(userIndex, featureData, binomialModel, lambda, cutoff);
+    }
+
+    @Override
+    protected FastLambdaUserReranker getFastUserReranker(U user, FastRecommendation recommendation, int maxLength) {
+        return new FastBinomialDiversityUserReranker(user, recommendation, maxLength);
+    }
+
+    /**
+     * User re-ranker for {@link FastBinomialDiversityReranker}.
+     */
+    protected class FastBinomialDiversityUserReranker extends FastLambdaUserReranker {
+
+        private final FastBinomialCoverageReranker<U, I, F>.FastBinomialCoverageUserReranker coverageUserReranker;
+        private final FastBinomialNonRedundancyReranker<U, I, F>.FastBinomialNonRedundancyUserReranker nonRedundancyUserReranker;
+        
+        /**
+         * Constructor.
+         *
+         * @param user user of the recommendation
+         * @param recommendation input recommendation to be re-ranked
+         * @param maxLength number of items to be greedily selected
+         */
+        public FastBinomialDiversityUserReranker(U user, FastRecommendation recommendation, int maxLength) {
+            super(recommendation, maxLength);
+            this.coverageUserReranker = coverageReranker.getFastUserReranker(user, recommendation, maxLength);
+            this.nonRedundancyUserReranker = nonRedundancyReranker.getFastUserReranker(user, recommendation, maxLength);
+        }
+
+        @Override
+        protected double nov(int pos) {
+            return coverageUserReranker.nov(pos) * nonRedundancyUserReranker.nov(pos);
+        }
+
+        @Override
+        protected void update(int bestPos) {
+            coverageUserReranker.update(bestPos);
+            nonRedundancyUserReranker.update(bestPos);
+        }
+
+    }
+
+}
@@ -0,0 +1,153 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.diversity.binom.reranking;
+
+import es.uam.eps.ir.ranksys.diversity.binom.BinomialModel;
+import static es.uam.eps.ir.ranksys.diversity.binom.reranking.FastBinomialCoverageReranker.getItemFidxs;
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.fast.feature.FastFeatureData;
+import es.uam.eps.ir.ranksys.fast.index.FastUserIndex;
+import es.uam.eps.ir.ranksys.novdiv.reranking.FastLambdaReranker;
+
+/**
+ * Binomial redundancy reranker working on feature indexes. It is equivalent to
+ * {@link BinomialNonRedundancyReranker}, but the feature counts and patience
+ * scores of the user are kept in primitive arrays and the non-redundancy
+ * product over the features already seen in the re-ranking is updated
+ * incrementally in log space. The scores match those of
+ * {@link BinomialNonRedundancyReranker} up to floating-point rounding.
+ * Recommendations of indexes are re-ranked without any mapping to or from
+ * ids, so their item indexes must be those of the feature data.
+ *
+ * S. Vargas, L. Baltrunas, A. Karatzoglou, P. Castells. Coverage, redundancy
+ * and size-awareness in genre diversity for Recommender Systems. RecSys 2014.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <U> type of the users
+ * @param <I> type of the items
+ * @param <F> type of the features
+ */
+public class FastBinomialNonRedundancyReranker<U, I, F> extends FastLambdaReranker<U, I> {
+
+    private final FastFeatureData<I, F, ?> featureData;
+    private final BinomialModel<U, I, F> binomialModel;
+
+    /**
+     * Constructor.
+     *
+     * @param userIndex fast user index
+     * @param featureData feature data, whose item index is that of the
+     * recommendations
+     * @param binomialModel binomial model
+     * @param lambda trade-off between relevance and novelty
+     * @param cutoff number of items to be greedily selected
+     */
+    public FastBinomialNonRedundancyReranker(FastUserIndex<U> userIndex, FastFeatureData<I, F, ?> featureData, BinomialModel<U, I, F> binomialModel, double lambda, int cutoff) {
+        super(userIndex, featureData, lambda, cutoff, true);
+        this.featureData = featureData;
+        this.binomialModel = binomialModel;
+    }
+
+    @Override
+    protected FastBinomialNonRedundancyUserReranker getFastUserReranker(U user, FastRecommendation recommendation, int maxLength) {
+        return new FastBinomialNonRedundancyUserReranker(user, recommendation, maxLength);
+    }
+
+    /**
+     * User re-ranker for {@link FastBinomialNonRedundancyReranker}.
+     */
+    protected class FastBinomialNonRedundancyUserReranker extends FastLambdaUserReranker {
+
+        private final BinomialModel<U, I, F>.UserBinomialModel ubm;
+        private final int[][] itemFidxs;
+        private final int[] featureCount;
+        private final double[] patienceNow;
+        private final double[] patienceLater;
+        private final LogProduct nonRed;
+        private final LogProduct iNonRed;
+        private int numSeen;
+
+        /**
+         * Constructor.
+         *
+         * @param user user of the recommendation
+         * @param recommendation input recommendation to be re-ranked
+         * @param maxLength number of items to be greedily selected
+         */
+        public FastBinomialNonRedundancyUserReranker(U user, FastRecommendation recommendation, int maxLength) {
+            super(recommendation, maxLength);
+
+            ubm = binomialModel.getModel(user);
+
+            itemFidxs = getItemFidxs(featureData, iidxs);
+
+            featureCount = new int[featureData.numFeatures()];
+            patienceNow = new double[featureData.numFeatures()];
+            patienceLater = new double[featureData.numFeatures()];
+            ubm.getFeatures().forEach(f -> {
+                int fidx = featureData.feature2fidx(f);
+                if (fidx >= 0) {
+                    patienceNow[fidx] = ubm.patience(0, f, cutoff);
+                    patienceLater[fidx] = ubm.patience(1, f, cutoff);
+                }
+            });
+
+            nonRed = new LogProduct();
+            iNonRed = new LogProduct();
+            numSeen = 0;
+        }
+
+        @Override
+        protected double nov(int pos) {
+            int[] fidxs = itemFidxs[pos];
+
+            iNonRed.set(nonRed);
+            int m = numSeen;
+            for (int fidx : fidxs) {
+                if (featureCount[fidx] > 0) {
+                    iNonRed.divide(patienceNow[fidx]);
+                    iNonRed.multiply(patienceLater[fidx]);
+                } else {
+                    m++;
+                }
+            }
+
+            return iNonRed.root(m);
+        }
+
+        @Override
+        protected void update(int bestPos) {
+            int[] fidxs = itemFidxs[bestPos];
+
+            for (int fidx : fidxs) {
+                int c = ++featureCount[fidx];
+                if (c == 1) {
+                    numSeen++;
+                } else {
+                    nonRed.divide(patienceNow[fidx]);
+                }
+                patienceNow[fidx] = patienceLater[fidx];
+                patienceLater[fidx] = ubm.patience(c + 1, featureData.fidx2feature(fidx), cutoff);
+                nonRed.multiply(patienceNow[fidx]);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,135 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.diversity.binom.reranking;
+
+/**
+ * Product of a multiset of factors kept in log space, so that factors can be
+ * added and removed incrementally. Zero, infinite, negative and NaN factors
+ * are tracked apart so that the value of the product follows the same rules
+ * as the floating-point product of the factors.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+class LogProduct {
+
+    private double logSum;
+    private int zeros;
+    private int infs;
+    private int nans;
+    private int negs;
+
+    /**
+     * Constructor of an empty product.
+     */
+    public LogProduct() {
+        clear();
+    }
+
+    /**
+     * Removes all the factors of the product.
+     */
+    public final void clear() {
+        logSum = 0.0;
+        zeros = 0;
+        infs = 0;
+        nans = 0;
+        negs = 0;
+    }
+
+    /**
+     * Copies the factors of another product.
+     *
+     * @param other product to be copied
+     */
+    public void set(LogProduct other) {
+        logSum = other.logSum;
+        zeros = other.zeros;
+        infs = other.infs;
+        nans = other.nans;
+        negs = other.negs;
+    }
+
+    /**
+     * Adds a factor to the product.
+     *
+     * @param x factor
+     */
+    public void multiply(double x) {
+        update(x, 1);
+    }
+
+    /**
+     * Removes a factor previously added to the product.
+     *
+     * @param x factor
+     */
+    public void divide(double x) {
+        update(x, -1);
+    }
+
+    private void update(double x, int sign) {
+        if (Double.isNaN(x)) {
+            nans += sign;
+            return;
+        }
+        if (x < 0) {
+            negs += sign;
+            x = -x;
+        }
+        if (x == 0.0) {
+            zeros += sign;
+        } else if (Double.isInfinite(x)) {
+            infs += sign;
+        } else {
+            logSum += sign * Math.log(x);
+        }
+    }
+
+    /**
+     * Returns the value of the product.
+     *
+     * @return value of the product
+     */
+    public double value() {
+        if (nans > 0 || (zeros > 0 && infs > 0)) {
+            return Double.NaN;
+        }
+        double sign = (negs & 1) == 0 ? 1.0 : -1.0;
+        if (zeros > 0) {
+            return sign * 0.0;
+        }
+        if (infs > 0) {
+            return sign * Double.POSITIVE_INFINITY;
+        }
+        return sign * Math.exp(logSum);
+    }
+
+    /**
+     * Returns the geometric mean of the factors, i.e., the m-th root of the
+     * product.
+     *
+     * @param m number of factors
+     * @return m-th root of the product
+     */
+    public double root(int m) {
+        if (nans > 0 || zeros > 0 || infs > 0 || negs > 0) {
+            return Math.pow(value(), 1 / (double) m);
+        }
+        return Math.exp(logSum / m);
+    }
+}
@@ -21,6 +21,7 @@ import es.uam.eps.ir.ranksys.core.preference.PreferenceData;
 import es.uam.eps.ir.ranksys.core.feature.FeatureData;
 import es.uam.eps.ir.ranksys.core.model.UserModel;
 import es.uam.eps.ir.ranksys.core.model.UserModel.Model;
+import es.uam.eps.ir.ranksys.fast.feature.BitsetFastFeatureData;
 import it.unimi.dsi.fastutil.objects.Object2DoubleOpenHashMap;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -39,6 +40,7 @@ public class IntentModel<U, I, F> extends UserModel<U> {
 
     private final PreferenceData<U, I, ?> totalData;
     private final FeatureData<I, F, ?> featureData;
+    private final BitsetFastFeatureData<I, F> bitsetFeatureData;
 
     /**
      * Constructor that caches user intent-aware models.
@@ -51,6 +53,7 @@ public class IntentModel<U, I, F> extends UserModel<U> {
         super(targetUsers);
         this.totalData = totalData;
         this.featureData = featureData;
+        this.bitsetFeatureData = asBitset(featureData);
     }
 
     /**
@@ -63,6 +66,31 @@ public class IntentModel<U, I, F> extends UserModel<U> {
         super();
         this.totalData = totalData;
         this.featureData = featureData;
+        this.bitsetFeatureData = asBitset(featureData);
+    }
+
+    /**
+     * Constructor that caches user intent-aware models on demand up to a
+     * maximum number of users.
+     *
+     * @param cacheSize maximum number of user intent-aware models cached
+     * @param totalData preference data
+     * @param featureData feature data
+     */
+    public IntentModel(int cacheSize, PreferenceData<U, I, ?> totalData, FeatureData<I, F, ?> featureData) {
+        super(cacheSize);
+        this.totalData = totalData;
+        this.featureData = featureData;
+        this.bitsetFeatureData = asBitset(featureData);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <I, F> BitsetFastFeatureData<I, F> asBitset(FeatureData<I, F, ?> featureData) {
+        if (featureData instanceof BitsetFastFeatureData) {
+            return (BitsetFastFeatureData<I, F>) featureData;
+        } else {
+            return null;
+        }
     }
 
     @Override
@@ -82,6 +110,7 @@ public class IntentModel<U, I, F> extends UserModel<U> {
     public class UserIntentModel implements Model<U> {
 
         private final Object2DoubleOpenHashMap<F> prob;
+        private final long[] mask;
 
         /**
          * Constructor.
@@ -110,6 +139,12 @@ public class IntentModel<U, I, F> extends UserModel<U> {
             });
 
             this.prob = auxProb;
+
+            if (bitsetFeatureData != null) {
+                this.mask = bitsetFeatureData.getMask(prob.keySet().stream().mapToInt(bitsetFeatureData::feature2fidx));
+            } else {
+                this.mask = null;
+            }
         }
 
         /**
@@ -122,12 +157,18 @@ public class IntentModel<U, I, F> extends UserModel<U> {
         }
 
         /**
-         * Returns the features associated with an item.
+         * Returns the features associated with an item. When the feature
+         * data is a {@link BitsetFastFeatureData}, the features of the item
+         * are intersected with a mask of the intents of the model.
          *
          * @param i item
          * @return the features associated with the item
          */
         public Stream<F> getItemIntents(I i) {
+            if (mask != null) {
+                return bitsetFeatureData.getIidxFidxs(bitsetFeatureData.item2iidx(i), mask)
+                        .mapToObj(bitsetFeatureData::fidx2feature);
+            }
             return featureData.getItemFeatures(i).map(fv -> fv.id).filter(getIntents()::contains);
         }
 
@@ -29,9 +29,12 @@ import es.uam.eps.ir.ranksys.metrics.rel.BinaryRelevanceModel;
 import es.uam.eps.ir.ranksys.metrics.rel.IdealRelevanceModel;
 import es.uam.eps.ir.ranksys.metrics.rel.IdealRelevanceModel.UserIdealRelevanceModel;
 import es.uam.eps.ir.ranksys.metrics.rel.RelevanceModel.UserRelevanceModel;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import it.unimi.dsi.fastutil.ints.IntHeapPriorityQueue;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
 /**
  * alpha-nDCG metric.
@@ -53,6 +56,7 @@ public class AlphaNDCG<U, I, F> extends AbstractRecommendationMetric<U, I> {
     private final double alpha;
     private final IdealRelevanceModel<U, I> relModel;
     private final FeatureData<I, F, ?> featureData;
+    private final AlphaNDCGIdealCache<U> idealCache;
     private final AlphaNDCGIdeal idcg;
     private final RankingDiscountModel disc = new LogarithmicDiscountModel();
 
@@ -65,15 +69,54 @@ public class AlphaNDCG<U, I, F> extends AbstractRecommendationMetric<U, I> {
      * @param relModel relevance model
      */
     public AlphaNDCG(int cutoff, double alpha, FeatureData<I, F, ?> featureData, BinaryRelevanceModel<U, I> relModel) {
+        this(cutoff, alpha, featureData, relModel, null);
+    }
+
+    /**
+     * Constructor with a cache of ideal values shared with other alpha-nDCG
+     * metrics using the same feature data and relevance model.
+     *
+     * @param cutoff maximum length of the recommendations lists to evaluate
+     * @param alpha tolerance to redundancy parameter
+     * @param featureData feature data
+     * @param relModel relevance model
+     * @param idealCache shared cache of ideal values, or null for a cache
+     * local to this metric
+     */
+    public AlphaNDCG(int cutoff, double alpha, FeatureData<I, F, ?> featureData, BinaryRelevanceModel<U, I> relModel, AlphaNDCGIdealCache<U> idealCache) {
         super();
         this.cutoff = cutoff;
         this.alpha = alpha;
         this.relModel = relModel;
         this.featureData = featureData;
+        this.idealCache = idealCache;
 
         this.idcg = new AlphaNDCGIdeal();
     }
 
+    /**
+     * Constructor with a bounded cache of the ideal values of the users,
+     * instead of the caching of the relevance model.
+     *
+     * @param cacheSize maximum number of user ideal values cached
+     * @param cutoff maximum length of the recommendations lists to evaluate
+     * @param alpha tolerance to redundancy parameter
+     * @param featureData feature data
+     * @param relModel relevance model
+     * @param idealCache shared cache of ideal values, or null for a cache
+     * local to this metric
+     */
+    public AlphaNDCG(int cacheSize, int cutoff, double alpha, FeatureData<I, F, ?> featureData, BinaryRelevanceModel<U, I> relModel, AlphaNDCGIdealCache<U> idealCache) {
+        super();
+        this.cutoff = cutoff;
+        this.alpha = alpha;
+        this.relModel = relModel;
+        this.featureData = featureData;
+        this.idealCache = idealCache;
+
+        this.idcg = new AlphaNDCGIdeal(cacheSize);
+    }
+
     @Override
     public double evaluate(Recommendation<U, I> recommendation) {
         UserRelevanceModel<U, I> urm = relModel.getModel(recommendation.getUser());
@@ -106,47 +149,126 @@ public class AlphaNDCG<U, I, F> extends AbstractRecommendationMetric<U, I> {
         return ndcg;
     }
 
+    /**
+     * Computes the ideal alpha-DCG of a user by a greedy selection of the
+     * relevant items. The features of the relevant items are looked up once
+     * and stored as arrays of local feature indexes. When the gains can only
+     * decrease with the selections (alpha between 0 and 1), the selection is
+     * lazy: only the candidate with the highest, possibly outdated, gain is
+     * re-evaluated at each rank.
+     */
     private double idcg(UserIdealRelevanceModel<U, I> urm) {
-        double ideal = 0;
+        List<I> candidates = new ArrayList<>(new HashSet<>(urm.getRelevantItems()));
+        int n = candidates.size();
 
-        Object2IntOpenHashMap<F> redundancy = new Object2IntOpenHashMap<>();
-        redundancy.defaultReturnValue(0);
-        Set<I> candidates = new HashSet<>(urm.getRelevantItems());
+        Object2IntOpenHashMap<F> fidxs = new Object2IntOpenHashMap<>();
+        fidxs.defaultReturnValue(-1);
+        int[][] itemFeatures = new int[n][];
+        for (int i = 0; i < n; i++) {
+            itemFeatures[i] = featureData.getItemFeatures(candidates.get(i)).sequential()
+                    .mapToInt(fv -> {
+                        int fidx = fidxs.getInt(fv.id);
+                        if (fidx == -1) {
+                            fidx = fidxs.size();
+                            fidxs.put(fv.id, fidx);
+                        }
+                        return fidx;
+                    })
+                    .toArray();
+        }
+
+        int[] redundancy = new int[fidxs.size()];
+        double[] pows = new double[cutoff + 2];
+        for (int r = 0; r < pows.length; r++) {
+            pows[r] = Math.pow(1 - alpha, r);
+        }
+
+        double[] gains = new double[n];
+        for (int i = 0; i < n; i++) {
+            gains[i] = gain(itemFeatures[i], redundancy, pows);
+        }
+
+        double ideal = 0;
         int rank = 0;
+        if (alpha >= 0.0 && alpha <= 1.0) {
+            int[] ranks = new int[n];
+            IntHeapPriorityQueue heap = new IntHeapPriorityQueue(new AbstractIntComparator() {
 
-        while (rank <= cutoff && !candidates.isEmpty()) {
-            I bi = null;
-            double bg = Double.NEGATIVE_INFINITY;
-            for (I i : candidates) {
-                double gain = featureData.getItemFeatures(i)
-                        .map(fv -> fv.id)
-                        .mapToDouble(f -> {
-                            return Math.pow(1 - alpha, redundancy.getInt(f));
-                        }).sum();
-                if (gain > bg) {
-                    bg = gain;
-                    bi = i;
+                @Override
+                public int compare(int i, int j) {
+                    int c = Double.compare(gains[j], gains[i]);
+                    return c != 0 ? c : Integer.compare(i, j);
                 }
+            });
+            for (int i = 0; i < n; i++) {
+                heap.enqueue(i);
+            }
+
+            while (rank <= cutoff && !heap.isEmpty()) {
+                int i = heap.dequeueInt();
+                if (ranks[i] == rank) {
+                    for (int fidx : itemFeatures[i]) {
+                        redundancy[fidx]++;
+                    }
+                    ideal += gains[i] * disc.disc(rank);
+                    rank++;
+                } else {
+                    gains[i] = gain(itemFeatures[i], redundancy, pows);
+                    ranks[i] = rank;
+                    heap.enqueue(i);
+                }
+            }
+        } else {
+            boolean[] selected = new boolean[n];
+            while (rank <= cutoff && rank < n) {
+                int bi = -1;
+                double bg = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < n; i++) {
+                    if (selected[i]) {
+                        continue;
+                    }
+                    double gain = gain(itemFeatures[i], redundancy, pows);
+                    if (gain > bg || bi == -1) {
+                        bg = gain;
+                        bi = i;
+                    }
+                }
+                selected[bi] = true;
+                for (int fidx : itemFeatures[bi]) {
+                    redundancy[fidx]++;
+                }
+                ideal += bg * disc.disc(rank);
+                rank++;
             }
-            candidates.remove(bi);
-            featureData.getItemFeatures(bi).sequential()
-                    .map(fv -> fv.id)
-                    .forEach(f -> redundancy.addTo(f, 1));
-            ideal += bg * disc.disc(rank);
-            rank++;
         }
 
         return ideal;
     }
 
+    private double gain(int[] itemFeatures, int[] redundancy, double[] pows) {
+        double gain = 0.0;
+        for (int fidx : itemFeatures) {
+            int r = redundancy[fidx];
+            gain += r < pows.length ? pows[r] : Math.pow(1 - alpha, r);
+        }
+        return gain;
+    }
+
     private class AlphaNDCGIdeal extends UserModel<U> {
 
         public AlphaNDCGIdeal() {
             super(relModel);
         }
 
+        public AlphaNDCGIdeal(int cacheSize) {
+            super(cacheSize);
+        }
+
         @Override
         protected UserAlphaNDCGIdeal get(U u) {
+            if (idealCache != null) {
+                return new UserAlphaNDCGIdeal(idealCache.get(u, cutoff, alpha, () -> idcg(relModel.getModel(u))));
+            }
             return new UserAlphaNDCGIdeal(idcg(relModel.getModel(u)));
         }
 
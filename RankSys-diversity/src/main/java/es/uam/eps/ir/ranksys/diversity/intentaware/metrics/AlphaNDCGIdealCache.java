@@ -0,0 +1,115 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.diversity.intentaware.metrics;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Concurrent cache of the ideal alpha-DCG of users, by user, cutoff and
+ * alpha. It can be shared by several {@link AlphaNDCG} metrics evaluating
+ * different recommendations against the same relevance model and feature
+ * data, so that the ideal ranking of each user is computed only once.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <U> type of the users
+ */
+public class AlphaNDCGIdealCache<U> {
+
+    private final ConcurrentHashMap<Key<U>, Double> ideals;
+
+    /**
+     * Constructor.
+     */
+    public AlphaNDCGIdealCache() {
+        this.ideals = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the ideal alpha-DCG of a user, computing and storing it if it
+     * was not in the cache.
+     *
+     * @param user user
+     * @param cutoff cutoff of the metric
+     * @param alpha alpha of the metric
+     * @param ideal computation of the ideal alpha-DCG of the user
+     * @return ideal alpha-DCG of the user
+     */
+    public double get(U user, int cutoff, double alpha, DoubleSupplier ideal) {
+        Key<U> key = new Key<>(user, cutoff, alpha);
+        Double value = ideals.get(key);
+        if (value == null) {
+            value = ideal.getAsDouble();
+            Double prev = ideals.putIfAbsent(key, value);
+            if (prev != null) {
+                value = prev;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of ideal values in the cache.
+     *
+     * @return number of ideal values in the cache
+     */
+    public int size() {
+        return ideals.size();
+    }
+
+    /**
+     * Removes all the values of the cache.
+     */
+    public void clear() {
+        ideals.clear();
+    }
+
+    private static final class Key<U> {
+
+        private final U user;
+        private final int cutoff;
+        private final double alpha;
+
+        public Key(U user, int cutoff, double alpha) {
+            this.user = user;
+            this.cutoff = cutoff;
+            this.alpha = alpha;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(user, cutoff, alpha);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key<?> other = (Key<?>) obj;
+            return cutoff == other.cutoff
+                    && Double.compare(alpha, other.alpha) == 0
+                    && Objects.equals(user, other.user);
+        }
+    }
+}
@@ -118,8 +118,25 @@ public class ERRIA<U, I, F> extends AbstractRecommendationMetric<U, I> {
             super(caching, testData.getUsersWithPreferences());
             this.testData = testData;
             this.threshold = threshold;
+            this.maxPreference = getMaxPreference(testData);
+        }
+
+        /**
+         * Constructor with a bounded cache of user relevance models.
+         *
+         * @param cacheSize maximum number of user relevance models cached
+         * @param testData test preference data
+         * @param threshold relevance threshold
+         */
+        public ERRRelevanceModel(int cacheSize, PreferenceData<U, I, ?> testData, double threshold) {
+            super(cacheSize);
+            this.testData = testData;
+            this.threshold = threshold;
+            this.maxPreference = getMaxPreference(testData);
+        }
 
-            this.maxPreference = testData.getUsersWithPreferences().mapToDouble(u -> {
+        private static <U, I> double getMaxPreference(PreferenceData<U, I, ?> testData) {
+            return testData.getUsersWithPreferences().mapToDouble(u -> {
                 return testData.getUserPreferences(u).mapToDouble(pref -> pref.v)
                         .max().orElse(Double.NEGATIVE_INFINITY);
             }).max().orElse(Double.NEGATIVE_INFINITY);
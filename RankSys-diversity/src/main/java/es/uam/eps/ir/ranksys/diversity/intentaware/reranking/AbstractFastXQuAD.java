@@ -0,0 +1,370 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.diversity.intentaware.reranking;
+
+import es.uam.eps.ir.ranksys.diversity.intentaware.IntentModel;
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.fast.feature.FastFeatureData;
+import es.uam.eps.ir.ranksys.fast.index.FastUserIndex;
+import es.uam.eps.ir.ranksys.novdiv.reranking.FastLambdaReranker;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import static java.lang.Double.isNaN;
+import static java.lang.Math.min;
+import java.util.Arrays;
+
+/**
+ * Incremental engine for xQuAD-like re-rankers. The intents of each item of
+ * the input recommendation are looked up once and stored as arrays of intent
+ * indexes and p(i|f) values, the redundancy of each intent is kept in an
+ * array, and after each selection only the novelty of the items sharing an
+ * intent with the selected one is recomputed. When the components are
+ * normalized, the statistics of the relevance and novelty scores of the
+ * remaining items are updated incrementally instead of recomputed at every
+ * step. The resulting re-rankings are the same as those of the
+ * stream-based re-rankers, save for ties broken by floating-point rounding.
+ * The intents of the items are read by index from the feature data of the
+ * intent-aware model, so that recommendations of indexes are re-ranked
+ * without any mapping to or from ids.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ *
+ * @param <U> type of the users
+ * @param <I> type of the items
+ * @param <F> type of the features
+ */
+public abstract class AbstractFastXQuAD<U, I, F> extends FastLambdaReranker<U, I> {
+
+    /**
+     * Intent-aware model.
+     */
+    protected final IntentModel<U, I, F> intentModel;
+
+    /**
+     * Feature data of the intent-aware model.
+     */
+    protected final FastFeatureData<I, F, ?> featureData;
+
+    /**
+     * Constructor.
+     *
+     * @param userIndex fast user index
+     * @param featureData feature data of the intent-aware model, whose item
+     * index is that of the recommendations
+     * @param intentModel intent-aware model
+     * @param lambda trade-off between novelty and relevance
+     * @param cutoff number of items to be greedily selected
+     * @param norm normalize the linear combination between relevance and
+     * novelty
+     */
+    public AbstractFastXQuAD(FastUserIndex<U> userIndex, FastFeatureData<I, F, ?> featureData, IntentModel<U, I, F> intentModel, double lambda, int cutoff, boolean norm) {
+        super(userIndex, featureData, lambda, cutoff, norm);
+        this.intentModel = intentModel;
+        this.featureData = featureData;
+    }
+
+    @Override
+    protected FastUserXQuAD getFastUserReranker(U user, FastRecommendation recommendation, int maxLength) {
+        return new FastUserXQuAD(user, recommendation, maxLength);
+    }
+
+    /**
+     * Returns the normalization constant of p(i|f) for each intent.
+     *
+     * @param scores scores of the items of the input recommendation, by
+     * position
+     * @param itemIntents indexes of the intents of each item, by position in
+     * the input recommendation
+     * @param numIntents number of intents
+     * @return array of normalization constants by intent index
+     */
+    protected abstract double[] getProbNorms(double[] scores, int[][] itemIntents, int numIntents);
+
+    /**
+     * Returns the probability of an item given an intent.
+     *
+     * @param v score of the item in the input recommendation
+     * @param probNorm normalization constant of the intent
+     * @return p(i|f)
+     */
+    protected abstract double pif(double v, double probNorm);
+
+    /**
+     * Returns the factor by which the redundancy of an intent is multiplied
+     * when an item with that intent is selected.
+     *
+     * @param pif p(i|f) of the selected item
+     * @return redundancy discount factor
+     */
+    protected abstract double discount(double pif);
+
+    /**
+     * User re-ranker for {@link AbstractFastXQuAD}.
+     */
+    protected class FastUserXQuAD extends FastLambdaUserReranker {
+
+        private final int[][] itemIntents;
+        private final double[][] itemPifs;
+        private final int[][] intentItems;
+        private final double[] pf;
+        private final double[] redundancy;
+
+        /**
+         * Constructor.
+         *
+         * @param user user of the recommendation
+         * @param recommendation input recommendation to be re-ranked
+         * @param maxLength maximum length to be re-ranked
+         */
+        public FastUserXQuAD(U user, FastRecommendation recommendation, int maxLength) {
+            super(recommendation, maxLength);
+
+            IntentModel<U, I, F>.UserIntentModel uim = intentModel.getModel(user);
+            int n = iidxs.length;
+
+            Int2DoubleOpenHashMap intentProbs = new Int2DoubleOpenHashMap();
+            uim.getIntents().forEach(f -> {
+                int fidx = featureData.feature2fidx(f);
+                if (fidx >= 0) {
+                    intentProbs.put(fidx, uim.p(f));
+                }
+            });
+
+            Int2IntOpenHashMap intents = new Int2IntOpenHashMap();
+            intents.defaultReturnValue(-1);
+            IntArrayList intentCounts = new IntArrayList();
+            DoubleArrayList intentPfs = new DoubleArrayList();
+            this.itemIntents = new int[n][];
+            for (int pos = 0; pos < n; pos++) {
+                if (iidxs[pos] < 0) {
+                    itemIntents[pos] = new int[0];
+                    continue;
+                }
+                itemIntents[pos] = featureData.getIidxFeatures(iidxs[pos])
+                        .mapToInt(fv -> fv.idx)
+                        .filter(intentProbs::containsKey)
+                        .map(f -> {
+                            int fidx = intents.get(f);
+                            if (fidx == -1) {
+                                fidx = intents.size();
+                                intents.put(f, fidx);
+                                intentCounts.add(0);
+                                intentPfs.add(intentProbs.get(f));
+                            }
+                            intentCounts.set(fidx, intentCounts.getInt(fidx) + 1);
+                            return fidx;
+                        })
+                        .toArray();
+            }
+
+            int numIntents = intents.size();
+            this.pf = intentPfs.toDoubleArray();
+
+            this.intentItems = new int[numIntents][];
+            for (int fidx = 0; fidx < numIntents; fidx++) {
+                intentItems[fidx] = new int[intentCounts.getInt(fidx)];
+            }
+            int[] fill = new int[numIntents];
+            for (int pos = 0; pos < n; pos++) {
+                for (int fidx : itemIntents[pos]) {
+                    intentItems[fidx][fill[fidx]++] = pos;
+                }
+            }
+
+            double[] probNorms = getProbNorms(scores, itemIntents, numIntents);
+            this.itemPifs = new double[n][];
+            for (int pos = 0; pos < n; pos++) {
+                double v = scores[pos];
+                int[] fidxs = itemIntents[pos];
+                itemPifs[pos] = new double[fidxs.length];
+                for (int k = 0; k < fidxs.length; k++) {
+                    itemPifs[pos][k] = pif(v, probNorms[fidxs[k]]);
+                }
+            }
+
+            this.redundancy = new double[numIntents];
+            Arrays.fill(redundancy, 1.0);
+
+            for (int pos = 0; pos < n; pos++) {
+                novs[pos] = computeNov(pos);
+            }
+        }
+
+        private double computeNov(int pos) {
+            int[] fidxs = itemIntents[pos];
+            double[] pifs = itemPifs[pos];
+            double nov = 0.0;
+            for (int k = 0; k < fidxs.length; k++) {
+                nov += pf[fidxs[k]] * pifs[k] * redundancy[fidxs[k]];
+            }
+            return nov;
+        }
+
+        @Override
+        protected double nov(int pos) {
+            return novs[pos];
+        }
+
+        @Override
+        protected void update(int bestPos) {
+            update(bestPos, null, null, null);
+        }
+
+        private void update(int bestPos, boolean[] selected, int[] stamps, MovingStats novStats) {
+            int[] fidxs = itemIntents[bestPos];
+            double[] pifs = itemPifs[bestPos];
+            for (int k = 0; k < fidxs.length; k++) {
+                redundancy[fidxs[k]] *= discount(pifs[k]);
+            }
+
+            for (int fidx : fidxs) {
+                for (int pos : intentItems[fidx]) {
+                    if (selected != null && (selected[pos] || stamps[pos] == bestPos)) {
+                        continue;
+                    }
+                    if (stamps != null) {
+                        stamps[pos] = bestPos;
+                    }
+                    double nov = computeNov(pos);
+                    if (novStats != null) {
+                        novStats.remove(novs[pos]);
+                        novStats.accept(nov);
+                    }
+                    novs[pos] = nov;
+                }
+            }
+        }
+
+        @Override
+        public int[] rerankPermutation() {
+            int n = iidxs.length;
+
+            boolean[] selected = new boolean[n];
+            int[] stamps = new int[n];
+            Arrays.fill(stamps, -1);
+
+            MovingStats relStats = new MovingStats();
+            MovingStats novStats = new MovingStats();
+            if (norm) {
+                for (int pos = 0; pos < n; pos++) {
+                    relStats.accept(scores[pos]);
+                    novStats.accept(novs[pos]);
+                }
+            }
+
+            IntArrayList perm = new IntArrayList();
+            int first = 0;
+            while (first < n && perm.size() < min(maxLength, cutoff)) {
+                double relMean = relStats.getMean();
+                double relStd = relStats.getStandardDeviation();
+                double novMean = novStats.getMean();
+                double novStd = novStats.getStandardDeviation();
+
+                double max = Double.NEGATIVE_INFINITY;
+                int bestPos = first;
+                for (int pos = first; pos < n; pos++) {
+                    if (selected[pos]) {
+                        continue;
+                    }
+                    double value;
+                    if (norm) {
+                        value = (1 - lambda) * (scores[pos] - relMean) / relStd + lambda * (novs[pos] - novMean) / novStd;
+                    } else {
+                        value = (1 - lambda) * scores[pos] + lambda * novs[pos];
+                    }
+                    if (isNaN(value)) {
+                        continue;
+                    }
+                    if (value > max) {
+                        max = value;
+                        bestPos = pos;
+                    }
+                }
+
+                perm.add(bestPos);
+                selected[bestPos] = true;
+                if (norm) {
+                    relStats.remove(scores[bestPos]);
+                    novStats.remove(novs[bestPos]);
+                }
+                while (first < n && selected[first]) {
+                    first++;
+                }
+
+                update(bestPos, selected, stamps, norm ? novStats : null);
+            }
+
+            for (int pos = first; pos < n && perm.size() < min(maxLength, n); pos++) {
+                if (!selected[pos]) {
+                    perm.add(pos);
+                }
+            }
+
+            return perm.toIntArray();
+        }
+
+    }
+
+    /**
+     * Mean and variance of a sample that supports the removal of values.
+     * NaN values are ignored.
+     */
+    private static class MovingStats {
+
+        private long n = 0;
+        private double m = 0.0;
+        private double s = 0.0;
+
+        public void accept(double x) {
+            if (isNaN(x)) {
+                return;
+            }
+            n++;
+            double oldM = m;
+            m = oldM + (x - oldM) / n;
+            s = s + (x - oldM) * (x - m);
+        }
+
+        public void remove(double x) {
+            if (isNaN(x)) {
+                return;
+            }
+            if (n <= 1) {
+                n = 0;
+                m = 0.0;
+                s = 0.0;
+                return;
+            }
+            n--;
+            double oldM = m;
+            m = oldM - (x - oldM) / n;
+            s = Math.max(0.0, s - (x - m) * (x - oldM));
+        }
+
+        public double getMean() {
+            return m;
+        }
+
+        public double getStandardDeviation() {
+            return (n > 1) ? Math.sqrt(s / (n - 1)) : Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.diversity.intentaware.reranking;
+
+import es.uam.eps.ir.ranksys.diversity.intentaware.IntentModel;
+import es.uam.eps.ir.ranksys.fast.feature.FastFeatureData;
+import es.uam.eps.ir.ranksys.fast.index.FastUserIndex;
+
+/**
+ * eXplicit Query Aspect Diversification re-ranker with incremental scoring.
+ * It produces the same re-rankings as {@link XQuAD}.
+ * 
+ * S. Vargas, P. Castells and D. Vallet. Intent-oriented diversity in 
+ * Recommender Systems. SIGIR 2011.
+ * 
+ * R.L.T. Santos, C. Macdonald and I. Ounis. Exploiting query reformulations
+ * for Web search result diversification. WWW 2010.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ * 
+ * @param <U> type of the users
+ * @param <I> type of the items
+ * @param <F> type of the features
+ */
+public class FastXQuAD<U, I, F> extends AbstractFastXQuAD<U, I, F> {
+
+    /**
+     * Constructor.
+     *
+     * @param userIndex fast user index
+     * @param featureData feature data of the intent-aware model, whose item
+     * index is that of the recommendations
+     * @param intentModel intent-aware model
+     * @param lambda trade-off between novelty and relevance
+     * @param cutoff number of items to be greedily selected
+     * @param norm normalize the linear combination between relevance and 
+     * novelty
+     */
+    public FastXQuAD(FastUserIndex<U> userIndex, FastFeatureData<I, F, ?> featureData, IntentModel<U, I, F> intentModel, double lambda, int cutoff, boolean norm) {
+        super(userIndex, featureData, intentModel, lambda, cutoff, norm);
+    }
+
+    @Override
+    protected double[] getProbNorms(double[] scores, int[][] itemIntents, int numIntents) {
+        double[] probNorms = new double[numIntents];
+        for (int pos = 0; pos < scores.length; pos++) {
+            for (int fidx : itemIntents[pos]) {
+                probNorms[fidx] += scores[pos];
+            }
+        }
+        return probNorms;
+    }
+
+    @Override
+    protected double pif(double v, double probNorm) {
+        return v / probNorm;
+    }
+
+    @Override
+    protected double discount(double pif) {
+        return 1 - pif;
+    }
+
+}
@@ -70,6 +70,7 @@ public class RXQuAD<U, I, F> extends LambdaReranker<U, I> {
         private final IntentModel<U, I, F>.UserIntentModel uim;
         private final Object2DoubleOpenHashMap<F> redundancy;
         private final Object2DoubleOpenHashMap<F> probNorm;
+        private final boolean boundedPif;
 
         /**
          * Constructor.
@@ -91,6 +92,12 @@ public class RXQuAD<U, I, F> extends LambdaReranker<U, I> {
                     }
                 });
             });
+
+            this.boundedPif = probNorm.values().stream()
+                    .allMatch(p -> p > 0.0)
+                    && recommendation.getItems().stream()
+                    .allMatch(iv -> iv.v >= 0.0 && uim.getItemIntents(iv.id)
+                            .allMatch(f -> iv.v <= probNorm.getDouble(f)));
         }
 
         private double pif(IdDouble<I> iv, F f) {
@@ -105,6 +112,24 @@ public class RXQuAD<U, I, F> extends LambdaReranker<U, I> {
                     }).sum();
         }
 
+        /**
+         * {@inheritDoc}
+         *
+         * When the normalization value of every intent is positive and the
+         * relevance score of every item is non-negative and not greater than
+         * the normalization values of its intents, as it is the case for
+         * recommendations sorted by decreasing score, p(i|f) is at most 0.5,
+         * so that the redundancy of each intent can only decrease with the
+         * selections as long as alpha is between 0 and 2. Hence, the
+         * objective function is monotonically decreasing when no
+         * normalization is applied. Otherwise, the standard greedy selection
+         * is used.
+         */
+        @Override
+        protected boolean isMonotonicallyDecreasing() {
+            return boundedPif && !norm && lambda >= 0.0 && alpha >= 0.0 && alpha <= 2.0;
+        }
+
         @Override
         protected void update(IdDouble<I> biv) {
             uim.getItemIntents(biv.id).sequential()
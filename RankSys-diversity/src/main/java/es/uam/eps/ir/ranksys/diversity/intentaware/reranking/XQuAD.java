@@ -70,6 +70,7 @@ public class XQuAD<U, I, F> extends LambdaReranker<U, I> {
         private final IntentModel<U, I, F>.UserIntentModel uim;
         private final Object2DoubleOpenHashMap<F> redundancy;
         private final Object2DoubleOpenHashMap<F> probNorm;
+        private final boolean nonNegative;
 
         /**
          * Constructor.
@@ -89,6 +90,12 @@ public class XQuAD<U, I, F> extends LambdaReranker<U, I> {
                     probNorm.addTo(f, iv.v);
                 });
             });
+
+            double minScore = recommendation.getItems().stream()
+                    .mapToDouble(iv -> iv.v)
+                    .min().orElse(0.0);
+            this.nonNegative = minScore >= 0.0 && probNorm.values().stream()
+                    .allMatch(p -> p > 0.0);
         }
 
         private double pif(IdDouble<I> iv, F f) {
@@ -103,6 +110,20 @@ public class XQuAD<U, I, F> extends LambdaReranker<U, I> {
                     }).sum();
         }
 
+        /**
+         * {@inheritDoc}
+         *
+         * For non-negative relevance scores with positive normalization
+         * values, the redundancy of each intent can only decrease with the
+         * selections. Hence, the objective function is monotonically
+         * decreasing when no normalization is applied. Otherwise, the
+         * standard greedy selection is used.
+         */
+        @Override
+        protected boolean isMonotonicallyDecreasing() {
+            return nonNegative && !norm && lambda >= 0.0;
+        }
+
         @Override
         protected void update(IdDouble<I> biv) {
             uim.getItemIntents(biv.id).sequential()
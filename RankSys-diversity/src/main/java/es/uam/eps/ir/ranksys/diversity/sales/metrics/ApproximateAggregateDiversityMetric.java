@@ -0,0 +1,104 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.diversity.sales.metrics;
+
+import es.uam.eps.ir.ranksys.core.IdDouble;
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.ranksys.core.util.HyperLogLog;
+import es.uam.eps.ir.ranksys.metrics.AbstractSystemMetric;
+import es.uam.eps.ir.ranksys.metrics.SystemMetric;
+import es.uam.eps.ir.ranksys.metrics.rel.RelevanceModel;
+import java.util.List;
+
+/**
+ * Approximate aggregate diversity for very large catalogs. It estimates the
+ * number of different items that are recommended at least once in the top
+ * of the recommendation lists, counting only the relevant recommendations,
+ * by means of a HyperLogLog sketch, which requires a fixed amount of memory
+ * and can be merged with those of other instances. Long and integer item ids
+ * are hashed on their full value. When every recommendation list reaches the
+ * cut-off and all the items are considered relevant, it estimates the same
+ * value as {@link AggregateDiversityMetric}.
+ *
+ * G. Adomavicius and Y. Kwon. Improving aggregate recommendation diversity 
+ * using rank-based techniques. TKDE vol. 24 no. 5, 2012.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <U> type of the users
+ * @param <I> type of the items
+ */
+public class ApproximateAggregateDiversityMetric<U, I> extends AbstractSystemMetric<U, I> {
+
+    private final int cutoff;
+    private final RelevanceModel<U, I> relModel;
+    private final HyperLogLog sketch;
+
+    /**
+     * Constructor.
+     *
+     * @param cutoff maximum length of the recommendation lists that is evaluated
+     * @param relModel relevance model
+     * @param precision precision of the sketch, see {@link HyperLogLog}
+     */
+    public ApproximateAggregateDiversityMetric(int cutoff, RelevanceModel<U, I> relModel, int precision) {
+        this.cutoff = cutoff;
+        this.relModel = relModel;
+        this.sketch = new HyperLogLog(precision);
+    }
+
+    @Override
+    public void add(Recommendation<U, I> recommendation) {
+        RelevanceModel.UserRelevanceModel<U, I> urm = relModel.getModel(recommendation.getUser());
+        List<IdDouble<I>> list = recommendation.getItems();
+
+        int rank = Math.min(cutoff, list.size());
+        for (int k = 0; k < rank; k++) {
+            I i = list.get(k).id;
+            if (urm.gain(i) > 0) {
+                add(i);
+            }
+        }
+    }
+
+    private void add(I i) {
+        if (i instanceof Long) {
+            sketch.add(((Long) i).longValue());
+        } else if (i instanceof Integer) {
+            sketch.add(((Integer) i).intValue());
+        } else {
+            sketch.add(i);
+        }
+    }
+
+    @Override
+    public void combine(SystemMetric<U, I> other) {
+        sketch.merge(((ApproximateAggregateDiversityMetric<U, I>) other).sketch);
+    }
+
+    @Override
+    public double evaluate() {
+        return sketch.cardinality();
+    }
+
+    @Override
+    public void reset() {
+        sketch.clear();
+    }
+
+}
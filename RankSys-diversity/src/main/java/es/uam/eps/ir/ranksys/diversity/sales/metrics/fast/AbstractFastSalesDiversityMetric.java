@@ -0,0 +1,182 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.diversity.sales.metrics.fast;
+
+import es.uam.eps.ir.ranksys.core.IdDouble;
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
+import es.uam.eps.ir.ranksys.metrics.AbstractSystemMetric;
+import es.uam.eps.ir.ranksys.metrics.SystemMetric;
+import es.uam.eps.ir.ranksys.metrics.rank.RankingDiscountModel;
+import es.uam.eps.ir.ranksys.metrics.rel.RelevanceModel;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Abstract sales diversity metrics with item-index accumulators. It handles
+ * the counting of how many times an item is recommended in arrays indexed by
+ * the item indexes of a FastItemIndex. Recommendations can be added
+ * concurrently: the accumulators are guarded by a set of locks striped by
+ * item index. Items not in the index are ignored.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <U> type of the users
+ * @param <I> type of the items
+ */
+public abstract class AbstractFastSalesDiversityMetric<U, I> extends AbstractSystemMetric<U, I> {
+
+    private static final int NUM_STRIPES = 64;
+
+    /**
+     * maximum length of the recommendation lists that is evaluated
+     */
+    protected final int cutoff;
+    private final RankingDiscountModel disc;
+    private final RelevanceModel<U, I> rel;
+
+    /**
+     * Item index.
+     */
+    protected final FastItemIndex<I> itemIndex;
+
+    /**
+     * Array of item-count, by item index.
+     */
+    protected final double[] itemCount;
+
+    /**
+     * Array of item-weight, by item index.
+     */
+    protected final double[] itemWeight;
+
+    /**
+     * Norm for free discovery item novelty models.
+     */
+    protected double freeNorm;
+
+    /**
+     * Number of users.
+     */
+    protected int numUsers;
+
+    private final Object[] stripes;
+
+    /**
+     * Constructor
+     *
+     * @param cutoff maximum length of the recommendation lists that is evaluated
+     * @param disc ranking discount model
+     * @param rel relevance model
+     * @param itemIndex item index
+     */
+    public AbstractFastSalesDiversityMetric(int cutoff, RankingDiscountModel disc, RelevanceModel<U, I> rel, FastItemIndex<I> itemIndex) {
+        this.cutoff = cutoff;
+        this.disc = disc;
+        this.rel = rel;
+        this.itemIndex = itemIndex;
+
+        this.itemCount = new double[itemIndex.numItems()];
+        this.itemWeight = new double[itemIndex.numItems()];
+        this.freeNorm = 0;
+        this.numUsers = 0;
+
+        this.stripes = new Object[NUM_STRIPES];
+        for (int s = 0; s < NUM_STRIPES; s++) {
+            stripes[s] = new Object();
+        }
+    }
+
+    @Override
+    public void add(Recommendation<U, I> recommendation) {
+        RelevanceModel.UserRelevanceModel<U, I> urm = rel.getModel(recommendation.getUser());
+        List<IdDouble<I>> list = recommendation.getItems();
+
+        int rank = Math.min(cutoff, list.size());
+        double userNorm = 0.0;
+        for (int k = 0; k < rank; k++) {
+            userNorm += disc.disc(k);
+        }
+
+        for (int k = 0; k < rank; k++) {
+            I i = list.get(k).id;
+            int iidx = itemIndex.item2iidx(i);
+            if (iidx < 0) {
+                continue;
+            }
+            double d = disc.disc(k);
+            double w = d * urm.gain(i) / userNorm;
+            synchronized (stripes[iidx & (NUM_STRIPES - 1)]) {
+                itemCount[iidx] += d;
+                itemWeight[iidx] += w;
+            }
+        }
+
+        synchronized (this) {
+            freeNorm += userNorm;
+            numUsers++;
+        }
+    }
+
+    @Override
+    public void combine(SystemMetric<U, I> other) {
+        AbstractFastSalesDiversityMetric<U, I> otherM = (AbstractFastSalesDiversityMetric<U, I>) other;
+
+        for (int s = 0; s < NUM_STRIPES; s++) {
+            synchronized (stripes[s]) {
+                for (int iidx = s; iidx < itemCount.length; iidx += NUM_STRIPES) {
+                    itemCount[iidx] += otherM.itemCount[iidx];
+                    itemWeight[iidx] += otherM.itemWeight[iidx];
+                }
+            }
+        }
+
+        synchronized (this) {
+            freeNorm += otherM.freeNorm;
+            numUsers += otherM.numUsers;
+        }
+    }
+
+    /**
+     * Returns the sales novelty of an item.
+     *
+     * @param iidx item index
+     * @return the sales novelty of the item
+     */
+    protected abstract double nov(int iidx);
+
+    @Override
+    public double evaluate() {
+        double sum = 0.0;
+        for (int iidx = 0; iidx < itemCount.length; iidx++) {
+            if (itemCount[iidx] > 0) {
+                sum += itemWeight[iidx] * nov(iidx);
+            }
+        }
+        return sum / numUsers;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(itemCount, 0.0);
+        Arrays.fill(itemWeight, 0.0);
+        this.freeNorm = 0;
+        this.numUsers = 0;
+    }
+
+}
@@ -0,0 +1,56 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.diversity.sales.metrics.fast;
+
+import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
+import es.uam.eps.ir.ranksys.metrics.rank.RankingDiscountModel;
+import es.uam.eps.ir.ranksys.metrics.rel.RelevanceModel;
+
+/**
+ * Expected inter user discovery complement. Fast version of
+ * {@link es.uam.eps.ir.ranksys.diversity.sales.metrics.EIUDC}, with
+ * item-index accumulators.
+ *
+ * S. Vargas. Novelty and diversity evaluation and enhancement in Recommender
+ * Systems. PhD Thesis.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <U> type of the users
+ * @param <I> type of the items
+ */
+public class FastEIUDC<U, I> extends AbstractFastSalesDiversityMetric<U, I> {
+
+    /**
+     * Constructor
+     *
+     * @param cutoff maximum length of the recommendation lists that is evaluated
+     * @param disc ranking discount model
+     * @param rel relevance model
+     * @param itemIndex item index
+     */
+    public FastEIUDC(int cutoff, RankingDiscountModel disc, RelevanceModel<U, I> rel, FastItemIndex<I> itemIndex) {
+        super(cutoff, disc, rel, itemIndex);
+    }
+
+    @Override
+    protected double nov(int iidx) {
+        return 1 - itemCount[iidx] / numUsers;
+    }
+
+}
@@ -17,13 +17,13 @@
  */
 package es.uam.eps.ir.ranksys.examples;
 
+import es.uam.eps.ir.ranksys.core.feature.CompactFeatureData;
 import es.uam.eps.ir.ranksys.core.feature.FeatureData;
-import es.uam.eps.ir.ranksys.core.feature.SimpleFeatureData;
 import es.uam.eps.ir.ranksys.core.format.RecommendationFormat;
 import es.uam.eps.ir.ranksys.core.format.SimpleRecommendationFormat;
+import es.uam.eps.ir.ranksys.core.preference.CompactPreferenceData;
 import es.uam.eps.ir.ranksys.core.preference.ConcatPreferenceData;
 import es.uam.eps.ir.ranksys.core.preference.PreferenceData;
-import es.uam.eps.ir.ranksys.core.preference.SimplePreferenceData;
 import es.uam.eps.ir.ranksys.diversity.distance.metrics.EILD;
 import es.uam.eps.ir.ranksys.diversity.intentaware.IntentModel;
 import es.uam.eps.ir.ranksys.diversity.intentaware.metrics.AlphaNDCG;
@@ -71,13 +71,13 @@ public class MetricExample {
         Double threshold = Double.parseDouble(args[4]);
 
         // USER - ITEM - RATING files for train and test
-        PreferenceData<Long, Long, Void> trainData = SimplePreferenceData.load(trainDataPath, lp, lp, ddp, vp);
-        PreferenceData<Long, Long, Void> testData = SimplePreferenceData.load(testDataPath, lp, lp, ddp, vp);
+        PreferenceData<Long, Long, Void> trainData = CompactPreferenceData.load(trainDataPath, lp, lp, ddp, vp);
+        PreferenceData<Long, Long, Void> testData = CompactPreferenceData.load(testDataPath, lp, lp, ddp, vp);
         PreferenceData<Long, Long, Void> totalData = new ConcatPreferenceData<>(trainData, testData);
         // EVALUATED AT CUTOFF 10
         int cutoff = 10;
         // ITEM - FEATURE file
-        FeatureData<Long, String, Double> featureData = SimpleFeatureData.load(featurePath, lp, sp, v -> 1.0);
+        FeatureData<Long, String, Double> featureData = CompactFeatureData.load(featurePath, lp, sp, v -> 1.0);
         // COSINE DISTANCE
         ItemDistanceModel<Long> dist = new CosineFeatureItemDistanceModel<>(featureData);
         // BINARY RELEVANCE
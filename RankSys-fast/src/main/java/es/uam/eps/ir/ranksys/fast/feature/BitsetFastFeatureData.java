@@ -0,0 +1,335 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.fast.feature;
+
+import es.uam.eps.ir.ranksys.core.util.parsing.Parser;
+import es.uam.eps.ir.ranksys.core.util.parsing.TsvTokenizer;
+import es.uam.eps.ir.ranksys.fast.IdxObject;
+import es.uam.eps.ir.ranksys.fast.index.FastFeatureIndex;
+import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of FastFeatureData for binary item features, in which the
+ * features of each item are stored as a bitset of feature indexes. All the
+ * bitsets are packed in a single array of longs, so that catalogs with a
+ * small number of features (up to 64) use a single word per item. Set
+ * operations between items, or between an item and a mask of features, are
+ * computed with bitwise operations and population counts.
+ *
+ * The information about every item-feature pair is 1.0.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <I> type of the items
+ * @param <F> type of the features
+ */
+public class BitsetFastFeatureData<I, F> extends AbstractFastFeatureData<I, F, Double> {
+
+    private static final Double ONE = 1.0;
+
+    private final int words;
+    private final long[] bits;
+    private final int[] itemCounts;
+    private final int[][] fidxItems;
+
+    /**
+     * Constructor.
+     *
+     * @param bits bitsets of the features of the items, packed by item index
+     * in blocks of (numFeatures + 63) / 64 words
+     * @param ii item index
+     * @param fi feature index
+     */
+    protected BitsetFastFeatureData(long[] bits, FastItemIndex<I> ii, FastFeatureIndex<F> fi) {
+        super(ii, fi);
+        this.words = numWords(fi.numFeatures());
+        this.bits = bits;
+
+        int numItems = ii.numItems();
+        int numFeatures = fi.numFeatures();
+        this.itemCounts = new int[numItems];
+        int[] featureCounts = new int[numFeatures];
+        for (int iidx = 0; iidx < numItems; iidx++) {
+            int offset = iidx * words;
+            for (int w = 0; w < words; w++) {
+                long word = bits[offset + w];
+                itemCounts[iidx] += Long.bitCount(word);
+                while (word != 0) {
+                    featureCounts[(w << 6) + Long.numberOfTrailingZeros(word)]++;
+                    word &= word - 1;
+                }
+            }
+        }
+
+        this.fidxItems = new int[numFeatures][];
+        for (int fidx = 0; fidx < numFeatures; fidx++) {
+            if (featureCounts[fidx] > 0) {
+                fidxItems[fidx] = new int[featureCounts[fidx]];
+                featureCounts[fidx] = 0;
+            }
+        }
+        for (int iidx = 0; iidx < numItems; iidx++) {
+            int offset = iidx * words;
+            for (int w = 0; w < words; w++) {
+                long word = bits[offset + w];
+                while (word != 0) {
+                    int fidx = (w << 6) + Long.numberOfTrailingZeros(word);
+                    fidxItems[fidx][featureCounts[fidx]++] = iidx;
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+
+    @Override
+    public Stream<IdxObject<Double>> getIidxFeatures(int iidx) {
+        return getIidxFidxs(iidx).mapToObj(fidx -> new IdxObject<>(fidx, ONE));
+    }
+
+    @Override
+    public Stream<IdxObject<Double>> getFidxItems(int fidx) {
+        if (fidxItems[fidx] == null) {
+            return Stream.empty();
+        }
+        return IntStream.of(fidxItems[fidx]).mapToObj(iidx -> new IdxObject<>(iidx, ONE));
+    }
+
+    @Override
+    public int numItems(int fidx) {
+        return fidxItems[fidx] == null ? 0 : fidxItems[fidx].length;
+    }
+
+    @Override
+    public int numFeatures(int iidx) {
+        return itemCounts[iidx];
+    }
+
+    @Override
+    public IntStream getIidxWithFeatures() {
+        return IntStream.range(0, numItems())
+                .filter(iidx -> itemCounts[iidx] > 0);
+    }
+
+    @Override
+    public IntStream getFidxWithItems() {
+        return IntStream.range(0, numFeatures())
+                .filter(fidx -> fidxItems[fidx] != null);
+    }
+
+    @Override
+    public int numItemsWithFeatures() {
+        return (int) getIidxWithFeatures().count();
+    }
+
+    @Override
+    public int numFeaturesWithItems() {
+        return (int) getFidxWithItems().count();
+    }
+
+    /**
+     * Returns the indexes of the features of an item, in ascending order.
+     *
+     * @param iidx item index
+     * @return indexes of the features of the item
+     */
+    public IntStream getIidxFidxs(int iidx) {
+        return getIidxFidxs(iidx, null);
+    }
+
+    /**
+     * Returns the indexes of the features of an item that are in a mask, in
+     * ascending order.
+     *
+     * @param iidx item index
+     * @param mask mask of features, as returned by {@link #getMask(IntStream)},
+     * or null for no masking
+     * @return indexes of the features of the item in the mask
+     */
+    public IntStream getIidxFidxs(int iidx, long[] mask) {
+        if (iidx < 0) {
+            return IntStream.empty();
+        }
+        int offset = iidx * words;
+        int n = 0;
+        for (int w = 0; w < words; w++) {
+            n += Long.bitCount(mask == null ? bits[offset + w] : bits[offset + w] & mask[w]);
+        }
+        if (n == 0) {
+            return IntStream.empty();
+        }
+
+        int[] fidxs = new int[n];
+        int k = 0;
+        for (int w = 0; w < words; w++) {
+            long word = mask == null ? bits[offset + w] : bits[offset + w] & mask[w];
+            while (word != 0) {
+                fidxs[k++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+
+        return IntStream.of(fidxs);
+    }
+
+    /**
+     * Checks whether an item has a feature.
+     *
+     * @param iidx item index
+     * @param fidx feature index
+     * @return true if the item has the feature, false otherwise
+     */
+    public boolean hasFeature(int iidx, int fidx) {
+        return (bits[iidx * words + (fidx >>> 6)] & (1L << fidx)) != 0;
+    }
+
+    /**
+     * Returns the number of features shared by two items.
+     *
+     * @param iidx index of the first item
+     * @param jidx index of the second item
+     * @return number of features shared by the items
+     */
+    public int intersectionSize(int iidx, int jidx) {
+        int iOffset = iidx * words;
+        int jOffset = jidx * words;
+        int n = 0;
+        for (int w = 0; w < words; w++) {
+            n += Long.bitCount(bits[iOffset + w] & bits[jOffset + w]);
+        }
+        return n;
+    }
+
+    /**
+     * Returns the number of features of an item that are in a mask.
+     *
+     * @param iidx item index
+     * @param mask mask of features, as returned by {@link #getMask(IntStream)}
+     * @return number of features of the item in the mask
+     */
+    public int intersectionSize(int iidx, long[] mask) {
+        int offset = iidx * words;
+        int n = 0;
+        for (int w = 0; w < words; w++) {
+            n += Long.bitCount(bits[offset + w] & mask[w]);
+        }
+        return n;
+    }
+
+    /**
+     * Creates a mask of features to be intersected with the features of the
+     * items.
+     *
+     * @param fidxs indexes of the features in the mask
+     * @return mask of features
+     */
+    public long[] getMask(IntStream fidxs) {
+        long[] mask = new long[words];
+        fidxs.filter(fidx -> fidx >= 0).forEach(fidx -> mask[fidx >>> 6] |= 1L << fidx);
+        return mask;
+    }
+
+    private static int numWords(int numFeatures) {
+        return (numFeatures + 63) >>> 6;
+    }
+
+    /**
+     * Creates a bitset copy of a feature data, ignoring the information of
+     * the item-feature pairs.
+     *
+     * @param <I> type of the items
+     * @param <F> type of the features
+     * @param featureData feature data to be copied
+     * @return a bitset-based feature data
+     */
+    public static <I, F> BitsetFastFeatureData<I, F> copyOf(FastFeatureData<I, F, ?> featureData) {
+        int words = numWords(featureData.numFeatures());
+        long[] bits = new long[featureData.numItems() * words];
+        featureData.getIidxWithFeatures().forEach(iidx -> {
+            featureData.getIidxFeatures(iidx).forEach(fv -> bits[iidx * words + (fv.idx >>> 6)] |= 1L << fv.idx);
+        });
+
+        return new BitsetFastFeatureData<>(bits, featureData, featureData);
+    }
+
+    /**
+     * Load binary feature data from a file.
+     *
+     * Each line is a different item-feature pair, with tab-separated fields
+     * indicating item and feature. Further fields are ignored.
+     *
+     * @param <I> type of the items
+     * @param <F> type of the features
+     * @param path file path
+     * @param iParser item type parser
+     * @param fParser feature type parser
+     * @param iIndex item index
+     * @param fIndex feature index
+     * @return a bitset-based feature data
+     * @throws IOException when path does not exist or IO error
+     */
+    public static <I, F> BitsetFastFeatureData<I, F> load(String path, Parser<I> iParser, Parser<F> fParser, FastItemIndex<I> iIndex, FastFeatureIndex<F> fIndex) throws IOException {
+        try (TsvTokenizer tokenizer = TsvTokenizer.map(path, 3)) {
+            return load(tokenizer, iParser, fParser, iIndex, fIndex);
+        }
+    }
+
+    /**
+     * Load binary feature data from an input stream.
+     *
+     * Each line is a different item-feature pair, with tab-separated fields
+     * indicating item and feature. Further fields are ignored.
+     *
+     * @param <I> type of the items
+     * @param <F> type of the features
+     * @param in input stream
+     * @param iParser item type parser
+     * @param fParser feature type parser
+     * @param iIndex item index
+     * @param fIndex feature index
+     * @return a bitset-based feature data
+     * @throws IOException when IO error
+     */
+    public static <I, F> BitsetFastFeatureData<I, F> load(InputStream in, Parser<I> iParser, Parser<F> fParser, FastItemIndex<I> iIndex, FastFeatureIndex<F> fIndex) throws IOException {
+        try (TsvTokenizer tokenizer = new TsvTokenizer(in, 3)) {
+            return load(tokenizer, iParser, fParser, iIndex, fIndex);
+        }
+    }
+
+    private static <I, F> BitsetFastFeatureData<I, F> load(TsvTokenizer tokenizer, Parser<I> iParser, Parser<F> fParser, FastItemIndex<I> iIndex, FastFeatureIndex<F> fIndex) throws IOException {
+        int words = numWords(fIndex.numFeatures());
+        long[] bits = new long[iIndex.numItems() * words];
+
+        while (tokenizer.nextLine()) {
+            int iidx = iIndex.item2iidx(tokenizer.parse(0, iParser));
+            int fidx = fIndex.feature2fidx(tokenizer.parse(1, fParser));
+
+            if (iidx == -1 || fidx == -1) {
+                continue;
+            }
+
+            bits[iidx * words + (fidx >>> 6)] |= 1L << fidx;
+        }
+
+        return new BitsetFastFeatureData<>(bits, iIndex, fIndex);
+    }
+
+}
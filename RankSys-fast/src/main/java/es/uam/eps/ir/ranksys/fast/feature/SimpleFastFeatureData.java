@@ -17,16 +17,13 @@
  */
 package es.uam.eps.ir.ranksys.fast.feature;
 
-import static es.uam.eps.ir.ranksys.core.util.FastStringSplitter.split;
 import es.uam.eps.ir.ranksys.core.util.parsing.Parser;
+import es.uam.eps.ir.ranksys.core.util.parsing.TsvTokenizer;
 import es.uam.eps.ir.ranksys.fast.IdxObject;
 import es.uam.eps.ir.ranksys.fast.index.FastFeatureIndex;
 import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
-import java.io.BufferedReader;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.IntStream;
@@ -129,7 +126,9 @@ public class SimpleFastFeatureData<I, F, V> extends AbstractFastFeatureData<I, F
      * @throws IOException when path does not exist or IO error
      */
     public static <I, F, V> SimpleFastFeatureData<I, F, V> load(String path, Parser<I> iParser, Parser<F> fParser, Parser<V> vParser, FastItemIndex<I> iIndex, FastFeatureIndex<F> fIndex) throws IOException {
-        return load(new FileInputStream(path), iParser, fParser, vParser, iIndex, fIndex);
+        try (TsvTokenizer tokenizer = TsvTokenizer.map(path, 3)) {
+            return load(tokenizer, iParser, fParser, vParser, iIndex, fIndex);
+        }
     }
 
     /**
@@ -151,6 +150,12 @@ public class SimpleFastFeatureData<I, F, V> extends AbstractFastFeatureData<I, F
      * @throws IOException when IO error
      */
     public static <I, F, V> SimpleFastFeatureData<I, F, V> load(InputStream in, Parser<I> iParser, Parser<F> fParser, Parser<V> vParser, FastItemIndex<I> iIndex, FastFeatureIndex<F> fIndex) throws IOException {
+        try (TsvTokenizer tokenizer = new TsvTokenizer(in, 3)) {
+            return load(tokenizer, iParser, fParser, vParser, iIndex, fIndex);
+        }
+    }
+
+    private static <I, F, V> SimpleFastFeatureData<I, F, V> load(TsvTokenizer tokenizer, Parser<I> iParser, Parser<F> fParser, Parser<V> vParser, FastItemIndex<I> iIndex, FastFeatureIndex<F> fIndex) throws IOException {
 
         List<List<IdxObject<V>>> iidxList = new ArrayList<>();
         for (int iidx=  0; iidx < iIndex.numItems(); iidx++) {
@@ -162,39 +167,36 @@ public class SimpleFastFeatureData<I, F, V> extends AbstractFastFeatureData<I, F
             fidxList.add(null);
         }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
-            reader.lines().forEach(l -> {
-                CharSequence[] tokens = split(l, '\t', 3);
-                I item = iParser.parse(tokens[0]);
-                F feature = fParser.parse(tokens[1]);
-                V value;
-                if (tokens.length == 3) {
-                    value = vParser.parse(tokens[2]);
-                } else {
-                    value = vParser.parse(null);
-                }
-
-                int iidx = iIndex.item2iidx(item);
-                int fidx = fIndex.feature2fidx(feature);
-                
-                if (iidx == -1 || fidx == -1) {
-                    return;
-                }
-
-                List<IdxObject<V>> iList = iidxList.get(iidx);
-                if (iList == null) {
-                    iList = new ArrayList<>();
-                    iidxList.set(iidx, iList);
-                }
-                iList.add(new IdxObject<>(fidx, value));
-
-                List<IdxObject<V>> fList = fidxList.get(fidx);
-                if (fList == null) {
-                    fList = new ArrayList<>();
-                    fidxList.set(fidx, fList);
-                }
-                fList.add(new IdxObject<>(iidx, value));
-            });
+        while (tokenizer.nextLine()) {
+            I item = tokenizer.parse(0, iParser);
+            F feature = tokenizer.parse(1, fParser);
+            V value;
+            if (tokenizer.numFields() == 3) {
+                value = tokenizer.parse(2, vParser);
+            } else {
+                value = vParser.parse(null);
+            }
+
+            int iidx = iIndex.item2iidx(item);
+            int fidx = fIndex.feature2fidx(feature);
+
+            if (iidx == -1 || fidx == -1) {
+                continue;
+            }
+
+            List<IdxObject<V>> iList = iidxList.get(iidx);
+            if (iList == null) {
+                iList = new ArrayList<>();
+                iidxList.set(iidx, iList);
+            }
+            iList.add(new IdxObject<>(fidx, value));
+
+            List<IdxObject<V>> fList = fidxList.get(fidx);
+            if (fList == null) {
+                fList = new ArrayList<>();
+                fidxList.set(fidx, fList);
+            }
+            fList.add(new IdxObject<>(iidx, value));
         }
 
         return new SimpleFastFeatureData<>(iidxList, fidxList, iIndex, fIndex);
@@ -17,14 +17,13 @@
  */
 package es.uam.eps.ir.ranksys.fast.index;
 
-import static es.uam.eps.ir.ranksys.core.util.FastStringSplitter.split;
 import es.uam.eps.ir.ranksys.core.util.parsing.Parser;
+import es.uam.eps.ir.ranksys.core.util.parsing.TsvTokenizer;
 import es.uam.eps.ir.ranksys.fast.utils.IdxIndex;
-import java.io.BufferedReader;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
@@ -91,7 +90,9 @@ public class SimpleFastFeatureIndex<F> implements FastFeatureIndex<F> {
      * @throws IOException when file does not exist or when IO error
      */
     public static <F> SimpleFastFeatureIndex<F> load(String path, Parser<F> fParser) throws IOException {
-        return load(new FileInputStream(path), fParser);
+        try (TsvTokenizer tokenizer = TsvTokenizer.map(path, 2)) {
+            return load(tokenizer, fParser);
+        }
     }
 
     /**
@@ -104,13 +105,21 @@ public class SimpleFastFeatureIndex<F> implements FastFeatureIndex<F> {
      * @throws IOException when IO error
      */
     public static <F> SimpleFastFeatureIndex<F> load(InputStream in, Parser<F> iParser) throws IOException {
-        SimpleFastFeatureIndex<F> featureIndex = new SimpleFastFeatureIndex<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
-            reader.lines()
-                    .map(line -> iParser.parse(split(line, '\t')[0]))
-                    .sorted()
-                    .forEach(f -> featureIndex.add(f));
+        try (TsvTokenizer tokenizer = new TsvTokenizer(in, 2)) {
+            return load(tokenizer, iParser);
         }
+    }
+
+    private static <F> SimpleFastFeatureIndex<F> load(TsvTokenizer tokenizer, Parser<F> fParser) throws IOException {
+        List<F> features = new ArrayList<>();
+        while (tokenizer.nextLine()) {
+            features.add(tokenizer.parse(0, fParser));
+        }
+
+        SimpleFastFeatureIndex<F> featureIndex = new SimpleFastFeatureIndex<>();
+        features.stream()
+                .sorted()
+                .forEach(f -> featureIndex.add(f));
         return featureIndex;
     }
 
@@ -17,14 +17,13 @@
  */
 package es.uam.eps.ir.ranksys.fast.index;
 
-import static es.uam.eps.ir.ranksys.core.util.FastStringSplitter.split;
 import es.uam.eps.ir.ranksys.core.util.parsing.Parser;
+import es.uam.eps.ir.ranksys.core.util.parsing.TsvTokenizer;
 import es.uam.eps.ir.ranksys.fast.utils.IdxIndex;
-import java.io.BufferedReader;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
@@ -91,7 +90,9 @@ public class SimpleFastItemIndex<I> implements FastItemIndex<I> {
      * @throws IOException when file does not exist or when IO error
      */
     public static <I> SimpleFastItemIndex<I> load(String path, Parser<I> iParser) throws IOException {
-        return load(new FileInputStream(path), iParser);
+        try (TsvTokenizer tokenizer = TsvTokenizer.map(path, 2)) {
+            return load(tokenizer, iParser);
+        }
     }
 
     /**
@@ -104,13 +105,35 @@ public class SimpleFastItemIndex<I> implements FastItemIndex<I> {
      * @throws IOException when IO error
      */
     public static <I> SimpleFastItemIndex<I> load(InputStream in, Parser<I> iParser) throws IOException {
+        try (TsvTokenizer tokenizer = new TsvTokenizer(in, 2)) {
+            return load(tokenizer, iParser);
+        }
+    }
+
+    /**
+     * Creates an item index from a stream of items, whose indexes are
+     * assigned in order of appearance. Repeated items are ignored.
+     *
+     * @param <I> type of the items
+     * @param items stream of items
+     * @return a fast item index
+     */
+    public static <I> SimpleFastItemIndex<I> load(Stream<I> items) {
         SimpleFastItemIndex<I> itemIndex = new SimpleFastItemIndex<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
-            reader.lines()
-                    .map(line -> iParser.parse(split(line, '\t')[0]))
-                    .sorted()
-                    .forEach(i -> itemIndex.add(i));
+        items.forEachOrdered(i -> itemIndex.add(i));
+        return itemIndex;
+    }
+
+    private static <I> SimpleFastItemIndex<I> load(TsvTokenizer tokenizer, Parser<I> iParser) throws IOException {
+        List<I> items = new ArrayList<>();
+        while (tokenizer.nextLine()) {
+            items.add(tokenizer.parse(0, iParser));
         }
+
+        SimpleFastItemIndex<I> itemIndex = new SimpleFastItemIndex<>();
+        items.stream()
+                .sorted()
+                .forEach(i -> itemIndex.add(i));
         return itemIndex;
     }
 
@@ -17,14 +17,13 @@
  */
 package es.uam.eps.ir.ranksys.fast.index;
 
-import static es.uam.eps.ir.ranksys.core.util.FastStringSplitter.split;
 import es.uam.eps.ir.ranksys.core.util.parsing.Parser;
+import es.uam.eps.ir.ranksys.core.util.parsing.TsvTokenizer;
 import es.uam.eps.ir.ranksys.fast.utils.IdxIndex;
-import java.io.BufferedReader;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
@@ -87,7 +86,9 @@ public class SimpleFastUserIndex<U> implements FastUserIndex<U> {
      * @throws IOException when file does not exist or when IO error
      */
     public static <U> SimpleFastUserIndex<U> load(String path, Parser<U> uParser) throws IOException {
-        return load(new FileInputStream(path), uParser);
+        try (TsvTokenizer tokenizer = TsvTokenizer.map(path, 2)) {
+            return load(tokenizer, uParser);
+        }
     }
 
     /**
@@ -100,13 +101,35 @@ public class SimpleFastUserIndex<U> implements FastUserIndex<U> {
      * @throws IOException when IO error
      */
     public static <U> SimpleFastUserIndex<U> load(InputStream in, Parser<U> uParser) throws IOException {
+        try (TsvTokenizer tokenizer = new TsvTokenizer(in, 2)) {
+            return load(tokenizer, uParser);
+        }
+    }
+
+    /**
+     * Creates a user index from a stream of users, whose indexes are
+     * assigned in order of appearance. Repeated users are ignored.
+     *
+     * @param <U> type of the users
+     * @param users stream of users
+     * @return a fast user index
+     */
+    public static <U> SimpleFastUserIndex<U> load(Stream<U> users) {
         SimpleFastUserIndex<U> userIndex = new SimpleFastUserIndex<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
-            reader.lines()
-                    .map(line -> uParser.parse(split(line, '\t')[0]))
-                    .sorted()
-                    .forEach(u -> userIndex.add(u));
+        users.forEachOrdered(u -> userIndex.add(u));
+        return userIndex;
+    }
+
+    private static <U> SimpleFastUserIndex<U> load(TsvTokenizer tokenizer, Parser<U> uParser) throws IOException {
+        List<U> users = new ArrayList<>();
+        while (tokenizer.nextLine()) {
+            users.add(tokenizer.parse(0, uParser));
         }
+
+        SimpleFastUserIndex<U> userIndex = new SimpleFastUserIndex<>();
+        users.stream()
+                .sorted()
+                .forEach(u -> userIndex.add(u));
         return userIndex;
     }
 }
@@ -0,0 +1,367 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.fast.preference;
+
+import es.uam.eps.ir.ranksys.core.util.SparseArrays;
+import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
+import es.uam.eps.ir.ranksys.fast.index.FastUserIndex;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of FastPreferenceData backed by compressed sparse row (CSR)
+ * arrays in both orientations: user rows of item indexes and item rows of
+ * user indexes, with the values (and other information, if any) in parallel
+ * arrays.
+ *
+ * Copies of other preference data are made with a single pass over the
+ * preferences of the users, the item rows being obtained by a parallel
+ * counting sort (see {@link SparseArrays}). As both orientations are
+ * stored, {@link #transpose()} exchanges the roles of users and items without
+ * copying any array, which makes this class a materialized alternative to
+ * {@link TransposedPreferenceData}. Similarly, {@link #concat} materializes
+ * the union of two preference data sharing their indexes, such as training
+ * and test subsets. When only the item-major orientation of some preference
+ * data is needed, {@link #transpose(FastPreferenceData)} materializes just
+ * that orientation.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <U> type of the users
+ * @param <I> type of the items
+ * @param <O> type of other information for preferences
+ */
+public class CSRPreferenceData<U, I, O> extends AbstractFastPreferenceData<U, I, O> {
+
+    private final int numPreferences;
+    private final int numUsersWithPreferences;
+    private final int numItemsWithPreferences;
+    private final int[] userPtr;
+    private final int[] userIdxs;
+    private final double[] userVs;
+    private final Object[] userOs;
+    private final int[] itemPtr;
+    private final int[] itemIdxs;
+    private final double[] itemVs;
+    private final Object[] itemOs;
+
+    /**
+     * Constructor.
+     *
+     * @param userPtr offsets of the user rows, of length numUsers() + 1
+     * @param userIdxs item indexes of the user rows
+     * @param userVs values of the user rows
+     * @param userOs other information of the user rows, null if none
+     * @param itemPtr offsets of the item rows, of length numItems() + 1
+     * @param itemIdxs user indexes of the item rows
+     * @param itemVs values of the item rows
+     * @param itemOs other information of the item rows, null if none
+     * @param uIndex user index
+     * @param iIndex item index
+     */
+    protected CSRPreferenceData(int[] userPtr, int[] userIdxs, double[] userVs, Object[] userOs, int[] itemPtr, int[] itemIdxs, double[] itemVs, Object[] itemOs, FastUserIndex<U> uIndex, FastItemIndex<I> iIndex) {
+        super(uIndex, iIndex);
+        this.numPreferences = userIdxs.length;
+        this.userPtr = userPtr;
+        this.userIdxs = userIdxs;
+        this.userVs = userVs;
+        this.userOs = userOs;
+        this.itemPtr = itemPtr;
+        this.itemIdxs = itemIdxs;
+        this.itemVs = itemVs;
+        this.itemOs = itemOs;
+        this.numUsersWithPreferences = (int) getUidxWithPreferences().count();
+        this.numItemsWithPreferences = (int) getIidxWithPreferences().count();
+    }
+
+    /**
+     * Returns a view of the same preferences in which users and items
+     * exchange their roles. No array is copied.
+     *
+     * @return transposed preference data
+     */
+    public CSRPreferenceData<I, U, O> transpose() {
+        TransposedPreferenceData<I, U, O> index = new TransposedPreferenceData<>(this);
+        return new CSRPreferenceData<>(itemPtr, itemIdxs, itemVs, itemOs, userPtr, userIdxs, userVs, userOs, index, index);
+    }
+
+    @Override
+    public int numUsers(int iidx) {
+        return itemPtr[iidx + 1] - itemPtr[iidx];
+    }
+
+    @Override
+    public int numItems(int uidx) {
+        return userPtr[uidx + 1] - userPtr[uidx];
+    }
+
+    @Override
+    public Stream<IdxPref<O>> getUidxPreferences(int uidx) {
+        return getPreferences(userPtr[uidx], userPtr[uidx + 1], userIdxs, userVs, userOs);
+    }
+
+    @Override
+    public Stream<IdxPref<O>> getIidxPreferences(int iidx) {
+        return getPreferences(itemPtr[iidx], itemPtr[iidx + 1], itemIdxs, itemVs, itemOs);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <O> Stream<IdxPref<O>> getPreferences(int from, int to, int[] idxs, double[] vs, Object[] os) {
+        if (os == null) {
+            return IntStream.range(from, to).mapToObj(k -> new IdxPref<>(idxs[k], vs[k], null));
+        } else {
+            return IntStream.range(from, to).mapToObj(k -> new IdxPref<>(idxs[k], vs[k], (O) os[k]));
+        }
+    }
+
+    @Override
+    public int numPreferences() {
+        return numPreferences;
+    }
+
+    @Override
+    public IntStream getUidxWithPreferences() {
+        return IntStream.range(0, userPtr.length - 1)
+                .filter(uidx -> userPtr[uidx + 1] > userPtr[uidx]);
+    }
+
+    @Override
+    public IntStream getIidxWithPreferences() {
+        return IntStream.range(0, itemPtr.length - 1)
+                .filter(iidx -> itemPtr[iidx + 1] > itemPtr[iidx]);
+    }
+
+    @Override
+    public int numUsersWithPreferences() {
+        return numUsersWithPreferences;
+    }
+
+    @Override
+    public int numItemsWithPreferences() {
+        return numItemsWithPreferences;
+    }
+
+    /**
+     * Returns an upper bound of the number of bytes of the arrays of a CSR
+     * copy of some preference data, including the temporary arrays of the
+     * counting sort.
+     *
+     * @param data preference data
+     * @return estimated size of the copy in bytes
+     */
+    public static long estimateBytes(FastPreferenceData<?, ?, ?> data) {
+        long numUsers = data.numUsers();
+        long numItems = data.numItems();
+        long numPreferences = data.numPreferences();
+
+        return 4 * (numUsers + numItems + 2)
+                + 2 * numPreferences * (Integer.BYTES + Double.BYTES + 8)
+                + SparseArrays.transposeBytes(data.numItems());
+    }
+
+    /**
+     * Returns an upper bound of the number of bytes of the arrays of a
+     * transposed CSR copy of some preference data, see
+     * {@link #transpose(FastPreferenceData)}. Only the item-major orientation
+     * is counted.
+     *
+     * @param data preference data
+     * @return estimated size of the transposed copy in bytes
+     */
+    public static long estimateTransposeBytes(FastPreferenceData<?, ?, ?> data) {
+        long numItems = data.numItems();
+        long numPreferences = data.numPreferences();
+
+        return 4 * (2 * numItems + 1)
+                + numPreferences * (Integer.BYTES + Double.BYTES + 8);
+    }
+
+    /**
+     * Copies preference data into CSR arrays. The preference data is kept as
+     * user and item index of the copy.
+     *
+     * @param <U> type of the users
+     * @param <I> type of the items
+     * @param <O> type of other information for preferences
+     * @param data preference data
+     * @return a CSR copy of the preference data
+     */
+    public static <U, I, O> CSRPreferenceData<U, I, O> copy(FastPreferenceData<U, I, O> data) {
+        return copy(data, data, data);
+    }
+
+    /**
+     * Copies preference data into CSR arrays, with the given user and item
+     * indexes, so that the original preference data can be discarded.
+     *
+     * @param <U> type of the users
+     * @param <I> type of the items
+     * @param <O> type of other information for preferences
+     * @param data preference data
+     * @param uIndex user index, equivalent to that of the preference data
+     * @param iIndex item index, equivalent to that of the preference data
+     * @return a CSR copy of the preference data
+     */
+    public static <U, I, O> CSRPreferenceData<U, I, O> copy(FastPreferenceData<U, I, O> data, FastUserIndex<U> uIndex, FastItemIndex<I> iIndex) {
+        return union(data.numUsers(), data.numItems(), Collections.singletonList(data), uIndex, iIndex);
+    }
+
+    /**
+     * Copies the union of two preference data with the same user and item
+     * indexes into CSR arrays. The preferences of a user are those of the
+     * first preference data followed by those of the second one. The first
+     * preference data is kept as user and item index of the copy.
+     *
+     * @param <U> type of the users
+     * @param <I> type of the items
+     * @param <O> type of other information for preferences
+     * @param d1 preference data
+     * @param d2 preference data
+     * @return a CSR copy of the union of the preference data
+     * @throws IllegalArgumentException if the preference data do not have
+     * the same number of users and items
+     */
+    @SuppressWarnings("unchecked")
+    public static <U, I, O> CSRPreferenceData<U, I, O> concat(FastPreferenceData<U, I, O> d1, FastPreferenceData<U, I, O> d2) {
+        if (d1.numUsers() != d2.numUsers() || d1.numItems() != d2.numItems()) {
+            throw new IllegalArgumentException("preference data with different user or item indexes");
+        }
+        return union(d1.numUsers(), d1.numItems(), Arrays.asList(d1, d2), d1, d1);
+    }
+
+    private static <U, I, O> CSRPreferenceData<U, I, O> union(int numUsers, int numItems, List<FastPreferenceData<U, I, O>> sources, FastUserIndex<U> uIndex, FastItemIndex<I> iIndex) {
+        int[] userPtr = new int[numUsers + 1];
+        for (int uidx = 0; uidx < numUsers; uidx++) {
+            int numItemsUidx = 0;
+            for (FastPreferenceData<U, I, O> data : sources) {
+                numItemsUidx += data.numItems(uidx);
+            }
+            userPtr[uidx + 1] = userPtr[uidx] + numItemsUidx;
+        }
+        int numPreferences = userPtr[numUsers];
+
+        boolean hasOther = sources.stream().anyMatch(data -> data.getUidxWithPreferences().parallel()
+                .anyMatch(uidx -> data.getUidxPreferences(uidx).anyMatch(pref -> pref.o != null)));
+
+        int[] userIdxs = new int[numPreferences];
+        double[] userVs = new double[numPreferences];
+        Object[] userOs = hasOther ? new Object[numPreferences] : null;
+        IntStream.range(0, numUsers).parallel().forEach(uidx -> {
+            int[] k = {userPtr[uidx]};
+            for (FastPreferenceData<U, I, O> data : sources) {
+                if (data.numItems(uidx) == 0) {
+                    continue;
+                }
+                data.getUidxPreferences(uidx).forEach(pref -> {
+                    userIdxs[k[0]] = pref.idx;
+                    userVs[k[0]] = pref.v;
+                    if (userOs != null) {
+                        userOs[k[0]] = pref.o;
+                    }
+                    k[0]++;
+                });
+            }
+        });
+
+        int[] itemPtr = new int[numItems + 1];
+        int[] itemIdxs = new int[numPreferences];
+        double[] itemVs = new double[numPreferences];
+        Object[] itemOs = hasOther ? new Object[numPreferences] : null;
+        SparseArrays.transpose(numUsers, numItems, userPtr, userIdxs, userVs, userOs, itemPtr, itemIdxs, itemVs, itemOs);
+
+        return new CSRPreferenceData<>(userPtr, userIdxs, userVs, userOs, itemPtr, itemIdxs, itemVs, itemOs, uIndex, iIndex);
+    }
+
+    /**
+     * Copies the item-major orientation of preference data into CSR arrays
+     * in which users and items exchange their roles. The item rows are
+     * filled by a counting sort in a single pass over the preferences of the
+     * users, whereas the user-major orientation is not copied: it is read
+     * from the original preference data, which has to be kept.
+     *
+     * @param <U> type of the users
+     * @param <I> type of the items
+     * @param <O> type of other information for preferences
+     * @param data preference data
+     * @return a transposed preference data whose user rows are CSR arrays
+     */
+    public static <U, I, O> FastPreferenceData<I, U, O> transpose(FastPreferenceData<U, I, O> data) {
+        int numUsers = data.numUsers();
+        int numItems = data.numItems();
+
+        int[] itemPtr = new int[numItems + 1];
+        for (int iidx = 0; iidx < numItems; iidx++) {
+            itemPtr[iidx + 1] = itemPtr[iidx] + data.numUsers(iidx);
+        }
+        int numPreferences = itemPtr[numItems];
+
+        int[] itemIdxs = new int[numPreferences];
+        double[] itemVs = new double[numPreferences];
+        Object[][] itemOs = new Object[1][];
+        int[] cursor = Arrays.copyOf(itemPtr, numItems);
+        for (int uidx = 0; uidx < numUsers; uidx++) {
+            int u = uidx;
+            data.getUidxPreferences(uidx).forEach(pref -> {
+                int k = cursor[pref.idx]++;
+                itemIdxs[k] = u;
+                itemVs[k] = pref.v;
+                if (pref.o != null) {
+                    if (itemOs[0] == null) {
+                        itemOs[0] = new Object[numPreferences];
+                    }
+                    itemOs[0][k] = pref.o;
+                }
+            });
+        }
+
+        return new TransposedCSRPreferenceData<>(data, itemPtr, itemIdxs, itemVs, itemOs[0]);
+    }
+
+    /**
+     * Transposed preference data whose user rows, i.e., the item rows of the
+     * original preference data, are stored in CSR arrays.
+     */
+    private static class TransposedCSRPreferenceData<I, U, O> extends TransposedPreferenceData<I, U, O> {
+
+        private final int[] ptr;
+        private final int[] idxs;
+        private final double[] vs;
+        private final Object[] os;
+
+        public TransposedCSRPreferenceData(FastPreferenceData<U, I, O> data, int[] ptr, int[] idxs, double[] vs, Object[] os) {
+            super(data);
+            this.ptr = ptr;
+            this.idxs = idxs;
+            this.vs = vs;
+            this.os = os;
+        }
+
+        @Override
+        public int numItems(int uidx) {
+            return ptr[uidx + 1] - ptr[uidx];
+        }
+
+        @Override
+        public Stream<IdxPref<O>> getUidxPreferences(int uidx) {
+            return getPreferences(ptr[uidx], ptr[uidx + 1], idxs, vs, os);
+        }
+    }
+}
@@ -0,0 +1,465 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.fast.preference;
+
+import es.uam.eps.ir.ranksys.core.util.SparseArrays;
+import es.uam.eps.ir.ranksys.core.util.parsing.DoubleParser;
+import es.uam.eps.ir.ranksys.core.util.parsing.Parser;
+import es.uam.eps.ir.ranksys.core.util.parsing.Parsers;
+import es.uam.eps.ir.ranksys.core.util.parsing.TsvTokenizer;
+import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
+import es.uam.eps.ir.ranksys.fast.index.FastUserIndex;
+import es.uam.eps.ir.ranksys.fast.index.SimpleFastItemIndex;
+import es.uam.eps.ir.ranksys.fast.index.SimpleFastUserIndex;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Loader of preference files that builds the user and item indexes from the
+ * preferences themselves, instead of from separate user and item files.
+ *
+ * The files are read once: each of them is split in ranges of lines that are
+ * tokenized in parallel, the ids of every range being interned into local
+ * indexes (without boxing for the Parsers.lp and Parsers.ip parsers). The
+ * local ids are then merged by a parallel sort, so that the indexes are
+ * equivalent to those of SimpleFastUserIndex and SimpleFastItemIndex loaded
+ * from the sorted lists of users and items. Optionally, the preferences of
+ * every file are kept and returned as a {@link CSRPreferenceData} over the
+ * shared indexes.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <U> type of the users
+ * @param <I> type of the items
+ * @param <O> type of other information for preferences
+ */
+public class FastPreferenceDataLoader<U, I, O> {
+
+    private static final int SPLITS_PER_THREAD = 4;
+
+    private final FastUserIndex<U> userIndex;
+    private final FastItemIndex<I> itemIndex;
+    private final List<CSRPreferenceData<U, I, O>> preferenceData;
+
+    private FastPreferenceDataLoader(FastUserIndex<U> userIndex, FastItemIndex<I> itemIndex, List<CSRPreferenceData<U, I, O>> preferenceData) {
+        this.userIndex = userIndex;
+        this.itemIndex = itemIndex;
+        this.preferenceData = preferenceData;
+    }
+
+    /**
+     * Returns the index of the users in the preference files.
+     *
+     * @return user index
+     */
+    public FastUserIndex<U> getUserIndex() {
+        return userIndex;
+    }
+
+    /**
+     * Returns the index of the items in the preference files.
+     *
+     * @return item index
+     */
+    public FastItemIndex<I> getItemIndex() {
+        return itemIndex;
+    }
+
+    /**
+     * Returns the preferences of one of the files.
+     *
+     * @param file position of the file in the loaded paths
+     * @return preference data of the file, with the shared user and item
+     * indexes
+     * @throws IllegalStateException if the preferences were not kept
+     */
+    public FastPreferenceData<U, I, O> getPreferenceData(int file) {
+        if (preferenceData == null) {
+            throw new IllegalStateException("preferences were not kept");
+        }
+        return preferenceData.get(file);
+    }
+
+    /**
+     * Loads preference files.
+     *
+     * Each line is a different preference, with tab-separated fields
+     * indicating user, item, weight and other information.
+     *
+     * @param <U> type of the users
+     * @param <I> type of the items
+     * @param <O> type of other information
+     * @param uParser user type parser
+     * @param iParser item type parser
+     * @param dp double parse
+     * @param vParser other info parser
+     * @param keepPreferences whether the preferences are kept or only the
+     * indexes are built
+     * @param paths paths of the input files
+     * @return loader with the indexes and, if requested, the preferences
+     * @throws IOException when a path does not exists or IO error
+     */
+    @SuppressWarnings("unchecked")
+    public static <U, I, O> FastPreferenceDataLoader<U, I, O> load(Parser<U> uParser, Parser<I> iParser, DoubleParser dp, Parser<O> vParser, boolean keepPreferences, String... paths) throws IOException {
+        int numSplits = ForkJoinPool.getCommonPoolParallelism() * SPLITS_PER_THREAD;
+
+        List<Range> ranges = new ArrayList<>();
+        for (int file = 0; file < paths.length; file++) {
+            Path path = Paths.get(paths[file]);
+            long[] offsets = TsvTokenizer.split(path, numSplits);
+            for (int k = 0; k < numSplits; k++) {
+                if (offsets[k] < offsets[k + 1]) {
+                    ranges.add(new Range(file, path, offsets[k], offsets[k + 1]));
+                }
+            }
+        }
+
+        try {
+            ranges.parallelStream().forEach(range -> range.read(uParser, iParser, dp, vParser, keepPreferences));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+
+        Object[] users = merge(ranges.stream().map(range -> range.users).toArray(Interner[]::new));
+        Object[] items = merge(ranges.stream().map(range -> range.items).toArray(Interner[]::new));
+        FastUserIndex<U> userIndex = SimpleFastUserIndex.load(Arrays.stream(users).map(u -> (U) u));
+        FastItemIndex<I> itemIndex = SimpleFastItemIndex.load(Arrays.stream(items).map(i -> (I) i));
+
+        if (!keepPreferences) {
+            return new FastPreferenceDataLoader<>(userIndex, itemIndex, null);
+        }
+
+        List<CSRPreferenceData<U, I, O>> preferenceData = new ArrayList<>();
+        for (int file = 0; file < paths.length; file++) {
+            int f = file;
+            Range[] fileRanges = ranges.stream().filter(range -> range.file == f).toArray(Range[]::new);
+            preferenceData.add(build(fileRanges, users.length, items.length, userIndex, itemIndex));
+        }
+
+        return new FastPreferenceDataLoader<>(userIndex, itemIndex, preferenceData);
+    }
+
+    private static Object[] merge(Interner[] interners) {
+        if (interners.length == 0) {
+            return new Object[0];
+        } else if (interners[0] instanceof LongInterner) {
+            return LongInterner.merge(interners);
+        } else if (interners[0] instanceof IntInterner) {
+            return IntInterner.merge(interners);
+        } else {
+            return ObjectInterner.merge(interners);
+        }
+    }
+
+    private static <U, I, O> CSRPreferenceData<U, I, O> build(Range[] ranges, int numUsers, int numItems, FastUserIndex<U> userIndex, FastItemIndex<I> itemIndex) {
+        int[] starts = new int[ranges.length + 1];
+        boolean hasOther = false;
+        for (int r = 0; r < ranges.length; r++) {
+            starts[r + 1] = starts[r] + ranges[r].uidxs.size();
+            hasOther |= ranges[r].os != null;
+        }
+        int numPreferences = starts[ranges.length];
+
+        int[] uidxs = new int[numPreferences];
+        int[] iidxs = new int[numPreferences];
+        double[] vs = new double[numPreferences];
+        Object[] os = hasOther ? new Object[numPreferences] : null;
+        IntStream.range(0, ranges.length).parallel().forEach(r -> {
+            Range range = ranges[r];
+            int[] userIdxs = range.users.globalIdxs;
+            int[] itemIdxs = range.items.globalIdxs;
+            int n = range.uidxs.size();
+            for (int k = 0; k < n; k++) {
+                uidxs[starts[r] + k] = userIdxs[range.uidxs.getInt(k)];
+                iidxs[starts[r] + k] = itemIdxs[range.iidxs.getInt(k)];
+            }
+            System.arraycopy(range.vs.elements(), 0, vs, starts[r], n);
+            if (range.os != null) {
+                System.arraycopy(range.os.elements(), 0, os, starts[r], n);
+            }
+        });
+
+        int[] userPtr = new int[numUsers + 1];
+        int[] userIdxs = new int[numPreferences];
+        double[] userVs = new double[numPreferences];
+        Object[] userOs = hasOther ? new Object[numPreferences] : null;
+        SparseArrays.group(numUsers, numPreferences, uidxs, iidxs, vs, os, userPtr, userIdxs, userVs, userOs);
+
+        int[] itemPtr = new int[numItems + 1];
+        int[] itemIdxs = new int[numPreferences];
+        double[] itemVs = new double[numPreferences];
+        Object[] itemOs = hasOther ? new Object[numPreferences] : null;
+        SparseArrays.transpose(numUsers, numItems, userPtr, userIdxs, userVs, userOs, itemPtr, itemIdxs, itemVs, itemOs);
+
+        return new CSRPreferenceData<>(userPtr, userIdxs, userVs, userOs, itemPtr, itemIdxs, itemVs, itemOs, userIndex, itemIndex);
+    }
+
+    private static class Range {
+
+        private final int file;
+        private final Path path;
+        private final long from;
+        private final long to;
+        private Interner users;
+        private Interner items;
+        private IntArrayList uidxs;
+        private IntArrayList iidxs;
+        private DoubleArrayList vs;
+        private ObjectArrayList<Object> os;
+
+        public Range(int file, Path path, long from, long to) {
+            this.file = file;
+            this.path = path;
+            this.from = from;
+            this.to = to;
+        }
+
+        public void read(Parser<?> uParser, Parser<?> iParser, DoubleParser dp, Parser<?> vParser, boolean keepPreferences) {
+            users = Interner.of(uParser);
+            items = Interner.of(iParser);
+            uidxs = new IntArrayList();
+            iidxs = new IntArrayList();
+            vs = new DoubleArrayList();
+
+            try (TsvTokenizer tokenizer = TsvTokenizer.map(path, from, to, 4)) {
+                while (tokenizer.nextLine()) {
+                    int uidx = users.intern(tokenizer, 0);
+                    int iidx = items.intern(tokenizer, 1);
+                    if (!keepPreferences) {
+                        continue;
+                    }
+
+                    double value;
+                    if (tokenizer.numFields() >= 3) {
+                        value = tokenizer.parseDouble(2, dp);
+                    } else {
+                        value = dp.parse(null);
+                    }
+                    Object other;
+                    if (tokenizer.numFields() == 4) {
+                        other = tokenizer.parse(3, vParser);
+                    } else {
+                        other = vParser.parse(null);
+                    }
+
+                    if (other != null && os == null) {
+                        os = new ObjectArrayList<>(uidxs.elements().length);
+                        os.size(uidxs.size());
+                    }
+                    uidxs.add(uidx);
+                    iidxs.add(iidx);
+                    vs.add(value);
+                    if (os != null) {
+                        os.add(other);
+                    }
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    /**
+     * Assigns local indexes to the ids of a range of lines. The static merge
+     * methods of the implementations collect the ids of all the ranges in a
+     * sorted array of distinct ids, and map the local indexes of every range
+     * to positions in this array.
+     */
+    private static abstract class Interner {
+
+        protected int[] globalIdxs;
+
+        public static Interner of(Parser<?> parser) {
+            if (parser == Parsers.lp) {
+                return new LongInterner();
+            } else if (parser == Parsers.ip) {
+                return new IntInterner();
+            } else {
+                return new ObjectInterner(parser);
+            }
+        }
+
+        public abstract int intern(TsvTokenizer tokenizer, int field);
+
+    }
+
+    private static class LongInterner extends Interner {
+
+        private final Long2IntOpenHashMap map = new Long2IntOpenHashMap();
+        private final LongArrayList ids = new LongArrayList();
+
+        public LongInterner() {
+            map.defaultReturnValue(-1);
+        }
+
+        @Override
+        public int intern(TsvTokenizer tokenizer, int field) {
+            long id = tokenizer.getLong(field);
+            int idx = map.get(id);
+            if (idx < 0) {
+                idx = ids.size();
+                map.put(id, idx);
+                ids.add(id);
+            }
+            return idx;
+        }
+
+        public static Object[] merge(Interner[] interners) {
+            long[] ids = new long[Arrays.stream(interners).mapToInt(interner -> ((LongInterner) interner).ids.size()).sum()];
+            int offset = 0;
+            for (Interner interner : interners) {
+                LongArrayList localIds = ((LongInterner) interner).ids;
+                System.arraycopy(localIds.elements(), 0, ids, offset, localIds.size());
+                offset += localIds.size();
+            }
+            Arrays.parallelSort(ids);
+            int n = 0;
+            for (int k = 0; k < ids.length; k++) {
+                if (n == 0 || ids[n - 1] != ids[k]) {
+                    ids[n++] = ids[k];
+                }
+            }
+            int numIds = n;
+
+            Arrays.stream(interners).parallel().forEach(interner -> {
+                LongArrayList localIds = ((LongInterner) interner).ids;
+                interner.globalIdxs = new int[localIds.size()];
+                for (int k = 0; k < localIds.size(); k++) {
+                    interner.globalIdxs[k] = Arrays.binarySearch(ids, 0, numIds, localIds.getLong(k));
+                }
+            });
+
+            return Arrays.stream(ids, 0, numIds).boxed().toArray();
+        }
+    }
+
+    private static class IntInterner extends Interner {
+
+        private final Int2IntOpenHashMap map = new Int2IntOpenHashMap();
+        private final IntArrayList ids = new IntArrayList();
+
+        public IntInterner() {
+            map.defaultReturnValue(-1);
+        }
+
+        @Override
+        public int intern(TsvTokenizer tokenizer, int field) {
+            int id = tokenizer.getInt(field);
+            int idx = map.get(id);
+            if (idx < 0) {
+                idx = ids.size();
+                map.put(id, idx);
+                ids.add(id);
+            }
+            return idx;
+        }
+
+        public static Object[] merge(Interner[] interners) {
+            int[] ids = new int[Arrays.stream(interners).mapToInt(interner -> ((IntInterner) interner).ids.size()).sum()];
+            int offset = 0;
+            for (Interner interner : interners) {
+                IntArrayList localIds = ((IntInterner) interner).ids;
+                System.arraycopy(localIds.elements(), 0, ids, offset, localIds.size());
+                offset += localIds.size();
+            }
+            Arrays.parallelSort(ids);
+            int n = 0;
+            for (int k = 0; k < ids.length; k++) {
+                if (n == 0 || ids[n - 1] != ids[k]) {
+                    ids[n++] = ids[k];
+                }
+            }
+            int numIds = n;
+
+            Arrays.stream(interners).parallel().forEach(interner -> {
+                IntArrayList localIds = ((IntInterner) interner).ids;
+                interner.globalIdxs = new int[localIds.size()];
+                for (int k = 0; k < localIds.size(); k++) {
+                    interner.globalIdxs[k] = Arrays.binarySearch(ids, 0, numIds, localIds.getInt(k));
+                }
+            });
+
+            return Arrays.stream(ids, 0, numIds).boxed().toArray();
+        }
+    }
+
+    private static class ObjectInterner extends Interner {
+
+        private final Parser<?> parser;
+        private final Object2IntOpenHashMap<Object> map = new Object2IntOpenHashMap<>();
+        private final ObjectArrayList<Object> ids = new ObjectArrayList<>();
+
+        public ObjectInterner(Parser<?> parser) {
+            this.parser = parser;
+            map.defaultReturnValue(-1);
+        }
+
+        @Override
+        public int intern(TsvTokenizer tokenizer, int field) {
+            Object id = tokenizer.parse(field, parser);
+            int idx = map.getInt(id);
+            if (idx < 0) {
+                idx = ids.size();
+                map.put(id, idx);
+                ids.add(id);
+            }
+            return idx;
+        }
+
+        @SuppressWarnings("unchecked")
+        public static Object[] merge(Interner[] interners) {
+            Object[] ids = Arrays.stream(interners)
+                    .flatMap(interner -> ((ObjectInterner) interner).ids.stream())
+                    .toArray();
+            Comparator<Object> comparator = (id1, id2) -> ((Comparable<Object>) id1).compareTo(id2);
+            Arrays.parallelSort(ids, comparator);
+            int n = 0;
+            for (int k = 0; k < ids.length; k++) {
+                if (n == 0 || comparator.compare(ids[n - 1], ids[k]) != 0) {
+                    ids[n++] = ids[k];
+                }
+            }
+            Object[] distinct = Arrays.copyOf(ids, n);
+
+            Arrays.stream(interners).parallel().forEach(interner -> {
+                ObjectArrayList<Object> localIds = ((ObjectInterner) interner).ids;
+                interner.globalIdxs = new int[localIds.size()];
+                for (int k = 0; k < localIds.size(); k++) {
+                    interner.globalIdxs[k] = Arrays.binarySearch(distinct, localIds.get(k), comparator);
+                }
+            });
+
+            return distinct;
+        }
+    }
+}
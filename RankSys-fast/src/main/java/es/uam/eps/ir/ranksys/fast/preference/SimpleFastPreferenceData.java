@@ -17,16 +17,13 @@
  */
 package es.uam.eps.ir.ranksys.fast.preference;
 
-import static es.uam.eps.ir.ranksys.core.util.FastStringSplitter.split;
 import es.uam.eps.ir.ranksys.core.util.parsing.DoubleParser;
 import es.uam.eps.ir.ranksys.core.util.parsing.Parser;
+import es.uam.eps.ir.ranksys.core.util.parsing.TsvTokenizer;
 import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
 import es.uam.eps.ir.ranksys.fast.index.FastUserIndex;
-import java.io.BufferedReader;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.IntStream;
@@ -65,11 +62,17 @@ public class SimpleFastPreferenceData<U, I, O> extends AbstractFastPreferenceDat
 
     @Override
     public int numUsers(int iidx) {
+        if (iidxList.get(iidx) == null) {
+            return 0;
+        }
         return iidxList.get(iidx).size();
     }
 
     @Override
     public int numItems(int uidx) {
+        if (uidxList.get(uidx) == null) {
+            return 0;
+        }
         return uidxList.get(uidx).size();
     }
 
@@ -139,7 +142,9 @@ public class SimpleFastPreferenceData<U, I, O> extends AbstractFastPreferenceDat
      * @throws IOException when path does not exists of IO error
      */
     public static <U, I, O> SimpleFastPreferenceData<U, I, O> load(String path, Parser<U> uParser, Parser<I> iParser, DoubleParser dp, Parser<O> vParser, FastUserIndex<U> uIndex, FastItemIndex<I> iIndex) throws IOException {
-        return load(new FileInputStream(path), uParser, iParser, dp, vParser, uIndex, iIndex);
+        try (TsvTokenizer tokenizer = TsvTokenizer.map(path, 4)) {
+            return load(tokenizer, uParser, iParser, dp, vParser, uIndex, iIndex);
+        }
     }
 
     /**
@@ -161,7 +166,13 @@ public class SimpleFastPreferenceData<U, I, O> extends AbstractFastPreferenceDat
      * @throws IOException when path does not exists of IO error
      */
     public static <U, I, O> SimpleFastPreferenceData<U, I, O> load(InputStream in, Parser<U> uParser, Parser<I> iParser, DoubleParser dp, Parser<O> vParser, FastUserIndex<U> uIndex, FastItemIndex<I> iIndex) throws IOException {
-        int[] numPreferences = new int[]{0};
+        try (TsvTokenizer tokenizer = new TsvTokenizer(in, 4)) {
+            return load(tokenizer, uParser, iParser, dp, vParser, uIndex, iIndex);
+        }
+    }
+
+    private static <U, I, O> SimpleFastPreferenceData<U, I, O> load(TsvTokenizer tokenizer, Parser<U> uParser, Parser<I> iParser, DoubleParser dp, Parser<O> vParser, FastUserIndex<U> uIndex, FastItemIndex<I> iIndex) throws IOException {
+        int numPreferences = 0;
 
         List<List<IdxPref<O>>> uidxList = new ArrayList<>();
         for (int uidx = 0; uidx < uIndex.numUsers(); uidx++) {
@@ -173,46 +184,43 @@ public class SimpleFastPreferenceData<U, I, O> extends AbstractFastPreferenceDat
             iidxList.add(null);
         }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
-            reader.lines().forEach(l -> {
-                CharSequence[] tokens = split(l, '\t', 4);
-                U user = uParser.parse(tokens[0]);
-                I item = iParser.parse(tokens[1]);
-                double value;
-                if (tokens.length >= 3) {
-                    value = dp.parse(tokens[2]);
-                } else {
-                    value = dp.parse(null);
-                }
-                O other;
-                if (tokens.length == 4) {
-                    other = vParser.parse(tokens[3]);
-                } else {
-                    other = vParser.parse(null);
-                }
-
-                int uidx = uIndex.user2uidx(user);
-                int iidx = iIndex.item2iidx(item);
-
-                numPreferences[0]++;
-
-                List<IdxPref<O>> uList = uidxList.get(uidx);
-                if (uList == null) {
-                    uList = new ArrayList<>();
-                    uidxList.set(uidx, uList);
-                }
-                uList.add(new IdxPref<>(iidx, value, other));
-
-                List<IdxPref<O>> iList = iidxList.get(iidx);
-                if (iList == null) {
-                    iList = new ArrayList<>();
-                    iidxList.set(iidx, iList);
-                }
-                iList.add(new IdxPref<>(uidx, value, other));
-            });
+        while (tokenizer.nextLine()) {
+            U user = tokenizer.parse(0, uParser);
+            I item = tokenizer.parse(1, iParser);
+            double value;
+            if (tokenizer.numFields() >= 3) {
+                value = tokenizer.parseDouble(2, dp);
+            } else {
+                value = dp.parse(null);
+            }
+            O other;
+            if (tokenizer.numFields() == 4) {
+                other = tokenizer.parse(3, vParser);
+            } else {
+                other = vParser.parse(null);
+            }
+
+            int uidx = uIndex.user2uidx(user);
+            int iidx = iIndex.item2iidx(item);
+
+            numPreferences++;
+
+            List<IdxPref<O>> uList = uidxList.get(uidx);
+            if (uList == null) {
+                uList = new ArrayList<>();
+                uidxList.set(uidx, uList);
+            }
+            uList.add(new IdxPref<>(iidx, value, other));
+
+            List<IdxPref<O>> iList = iidxList.get(iidx);
+            if (iList == null) {
+                iList = new ArrayList<>();
+                iidxList.set(iidx, iList);
+            }
+            iList.add(new IdxPref<>(uidx, value, other));
         }
 
-        return new SimpleFastPreferenceData<>(numPreferences[0], uidxList, iidxList, uIndex, iIndex);
+        return new SimpleFastPreferenceData<>(numPreferences, uidxList, iidxList, uIndex, iIndex);
     }
 
 }
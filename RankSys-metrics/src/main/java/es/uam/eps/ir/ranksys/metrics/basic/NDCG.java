@@ -64,7 +64,7 @@ public class NDCG<U, I> extends AbstractRecommendationMetric<U, I> {
 
     @Override
     public double evaluate(Recommendation<U, I> recommendation) {
-        NDCGRelevanceModel<U, I>.UserNDCGRelevanceModel userRelModel = (NDCGRelevanceModel<U, I>.UserNDCGRelevanceModel) relModel.getModel(recommendation.getUser());
+        NDCGRelevanceModel<U, I>.UserNDCGRelevanceModel userRelModel = relModel.getModel(recommendation.getUser());
 
         double ndcg = 0.0;
         int rank = 0;
@@ -78,30 +78,18 @@ public class NDCG<U, I> extends AbstractRecommendationMetric<U, I> {
             }
         }
         if (ndcg > 0) {
-            ndcg /= idcg(userRelModel);
+            ndcg /= userRelModel.idcg(cutoff);
         }
 
         return ndcg;
     }
 
-    private double idcg(NDCGRelevanceModel.UserNDCGRelevanceModel relModel) {
-        double[] gains = relModel.getGainValues();
-        Arrays.sort(gains);
-
-        double idcg = 0;
-        int n = Math.min(cutoff, gains.length);
-        int m = gains.length;
-
-        for (int rank = 0; rank < n; rank++) {
-            idcg += gains[m - rank - 1] * disc.disc(rank);
-        }
-
-        return idcg;
-    }
-
     /**
      * Relevance model for nDCG, in which the gains of all relevant documents
-     * need to be known for the normalization of the metric.
+     * need to be known for the normalization of the metric. The ideal DCG
+     * values of each user model are computed once for all cutoffs, so that
+     * a cached relevance model can be shared by several nDCG metrics (and
+     * threads) evaluated against the same test subset.
      *
      * @param <U> type of the users
      * @param <I> type of the items
@@ -124,11 +112,50 @@ public class NDCG<U, I> extends AbstractRecommendationMetric<U, I> {
             this.threshold = threshold;
         }
 
+        /**
+         * Constructor with a bounded cache of user relevance models.
+         *
+         * @param cacheSize maximum number of user relevance models cached
+         * @param testData test subset of preferences
+         * @param threshold relevance threshold
+         */
+        public NDCGRelevanceModel(int cacheSize, PreferenceData<U, I, ?> testData, double threshold) {
+            super(cacheSize);
+            this.testData = testData;
+            this.threshold = threshold;
+        }
+
         @Override
         protected UserNDCGRelevanceModel get(U user) {
             return new UserNDCGRelevanceModel(user);
         }
 
+        @Override
+        public UserNDCGRelevanceModel getModel(U user) {
+            return (UserNDCGRelevanceModel) super.getModel(user);
+        }
+
+        /**
+         * Computes the ideal DCG for all the possible cutoffs from the gains
+         * of the relevant items. The input array is not modified.
+         *
+         * @param gains gains of the relevant items
+         * @return array whose k-th position contains the ideal DCG at cutoff k
+         */
+        public static double[] getIdcgs(double[] gains) {
+            RankingDiscountModel disc = new LogarithmicDiscountModel();
+            gains = gains.clone();
+            Arrays.sort(gains);
+
+            int m = gains.length;
+            double[] idcgs = new double[m + 1];
+            for (int rank = 0; rank < m; rank++) {
+                idcgs[rank + 1] = idcgs[rank] + gains[m - rank - 1] * disc.disc(rank);
+            }
+
+            return idcgs;
+        }
+
         /**
          * User relevance model for nDCG.
          *
@@ -136,6 +163,7 @@ public class NDCG<U, I> extends AbstractRecommendationMetric<U, I> {
         public class UserNDCGRelevanceModel implements IdealRelevanceModel.UserIdealRelevanceModel<U, I> {
 
             private final Object2DoubleMap<I> gainMap;
+            private final double[] idcgs;
 
             /**
              * Constructor.
@@ -149,6 +177,8 @@ public class NDCG<U, I> extends AbstractRecommendationMetric<U, I> {
                 testData.getUserPreferences(user)
                         .filter(iv -> iv.v >= threshold)
                         .forEach(iv -> gainMap.put(iv.id, Math.pow(2, iv.v - threshold + 1.0) - 1.0));
+
+                this.idcgs = getIdcgs(gainMap.values().toDoubleArray());
             }
 
             @Override
@@ -174,6 +204,17 @@ public class NDCG<U, I> extends AbstractRecommendationMetric<U, I> {
             public double[] getGainValues() {
                 return gainMap.values().toDoubleArray();
             }
+
+            /**
+             * Returns the ideal DCG, with logarithmic discount, of a
+             * recommendation list of a given length.
+             *
+             * @param cutoff length of the recommendation list
+             * @return ideal DCG at the cutoff
+             */
+            public double idcg(int cutoff) {
+                return idcgs[Math.min(cutoff, idcgs.length - 1)];
+            }
         }
     }
 
@@ -0,0 +1,37 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.metrics.fast;
+
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+
+/**
+ * Fast recommendation metric: assigns a score for each recommendation list,
+ * where users and items are identified by index.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public interface FastRecommendationMetric {
+
+    /**
+     * Returns a score for the recommendation list.
+     *
+     * @param recommendation recommendation list
+     * @return score of the metric to the recommendation
+     */
+    public double evaluate(FastRecommendation recommendation);
+}
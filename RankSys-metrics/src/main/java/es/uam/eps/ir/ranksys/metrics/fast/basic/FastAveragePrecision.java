@@ -0,0 +1,69 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.metrics.fast.basic;
+
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.fast.IdxDouble;
+import es.uam.eps.ir.ranksys.metrics.fast.FastRecommendationMetric;
+import es.uam.eps.ir.ranksys.metrics.fast.rel.FastIdealRelevanceModel;
+import es.uam.eps.ir.ranksys.metrics.fast.rel.FastIdealRelevanceModel.UserFastIdealRelevanceModel;
+import static java.lang.Math.min;
+
+/**
+ * Fast version of AveragePrecision.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public class FastAveragePrecision implements FastRecommendationMetric {
+
+    private final FastIdealRelevanceModel relModel;
+    private final int cutoff;
+
+    /**
+     * Constructor.
+     *
+     * @param cutoff cutoff of the metric
+     * @param relModel relevance model
+     */
+    public FastAveragePrecision(int cutoff, FastIdealRelevanceModel relModel) {
+        this.relModel = relModel;
+        this.cutoff = cutoff;
+    }
+
+    @Override
+    public double evaluate(FastRecommendation recommendation) {
+        UserFastIdealRelevanceModel userRelModel = relModel.getModel(recommendation.getUidx());
+
+        double ap = 0;
+        int relCount = 0;
+        int rank = 0;
+
+        for (IdxDouble iv : recommendation.getIidxs()) {
+            rank++;
+            if (userRelModel.isRelevant(iv.idx)) {
+                relCount++;
+                ap += relCount / (double) rank;
+            }
+            if (rank == cutoff) {
+                break;
+            }
+        }
+
+        return ap / (double) min(cutoff, userRelModel.numRelevant());
+    }
+}
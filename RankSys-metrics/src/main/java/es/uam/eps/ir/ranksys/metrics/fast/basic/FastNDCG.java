@@ -0,0 +1,177 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.metrics.fast.basic;
+
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.fast.IdxDouble;
+import es.uam.eps.ir.ranksys.fast.preference.FastPreferenceData;
+import es.uam.eps.ir.ranksys.metrics.fast.FastRecommendationMetric;
+import es.uam.eps.ir.ranksys.metrics.fast.rel.FastIdealRelevanceModel;
+import es.uam.eps.ir.ranksys.metrics.rank.LogarithmicDiscountModel;
+import es.uam.eps.ir.ranksys.metrics.rank.RankingDiscountModel;
+import es.uam.eps.ir.ranksys.metrics.basic.NDCG.NDCGRelevanceModel;
+import static java.util.Arrays.binarySearch;
+
+/**
+ * Fast version of NDCG, the Normalized Discounted Cumulative Gain metric.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public class FastNDCG implements FastRecommendationMetric {
+
+    private final FastNDCGRelevanceModel relModel;
+    private final int cutoff;
+    private final RankingDiscountModel disc;
+
+    /**
+     * Constructor.
+     *
+     * @param cutoff maximum length of evaluated recommendation lists
+     * @param relModel relevance model
+     */
+    public FastNDCG(int cutoff, FastNDCGRelevanceModel relModel) {
+        this.relModel = relModel;
+        this.cutoff = cutoff;
+        this.disc = new LogarithmicDiscountModel();
+    }
+
+    @Override
+    public double evaluate(FastRecommendation recommendation) {
+        FastNDCGRelevanceModel.UserFastNDCGRelevanceModel userRelModel = relModel.getModel(recommendation.getUidx());
+
+        double ndcg = 0.0;
+        int rank = 0;
+
+        for (IdxDouble iv : recommendation.getIidxs()) {
+            ndcg += userRelModel.gain(iv.idx) * disc.disc(rank);
+
+            rank++;
+            if (rank >= cutoff) {
+                break;
+            }
+        }
+        if (ndcg > 0) {
+            ndcg /= userRelModel.idcg(cutoff);
+        }
+
+        return ndcg;
+    }
+
+    /**
+     * Fast relevance model for nDCG, in which the gains of all relevant
+     * documents need to be known for the normalization of the metric. As in
+     * {@link NDCGRelevanceModel}, the ideal DCG values are precomputed for
+     * all cutoffs.
+     */
+    public static class FastNDCGRelevanceModel extends FastIdealRelevanceModel {
+
+        private final FastPreferenceData<?, ?, ?> testData;
+        private final double threshold;
+
+        /**
+         * Constructor.
+         *
+         * @param caching are the user relevance models being cached?
+         * @param testData test subset of preferences
+         * @param threshold relevance threshold
+         */
+        public FastNDCGRelevanceModel(boolean caching, FastPreferenceData<?, ?, ?> testData, double threshold) {
+            super(caching, testData);
+            this.testData = testData;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected UserFastNDCGRelevanceModel get(int uidx) {
+            return new UserFastNDCGRelevanceModel(uidx);
+        }
+
+        @Override
+        public UserFastNDCGRelevanceModel getModel(int uidx) {
+            return (UserFastNDCGRelevanceModel) super.getModel(uidx);
+        }
+
+        /**
+         * User relevance model for nDCG.
+         */
+        public class UserFastNDCGRelevanceModel implements UserFastIdealRelevanceModel {
+
+            private final int[] iidxs;
+            private final double[] gains;
+            private final double[] idcgs;
+
+            /**
+             * Constructor.
+             *
+             * @param uidx index of the user whose relevance model is computed
+             */
+            public UserFastNDCGRelevanceModel(int uidx) {
+                IdxDouble[] prefs = testData.getUidxPreferences(uidx)
+                        .filter(iv -> iv.v >= threshold)
+                        .map(iv -> new IdxDouble(iv.idx, Math.pow(2, iv.v - threshold + 1.0) - 1.0))
+                        .sorted((iv1, iv2) -> Integer.compare(iv1.idx, iv2.idx))
+                        .toArray(IdxDouble[]::new);
+
+                this.iidxs = new int[prefs.length];
+                this.gains = new double[prefs.length];
+                for (int i = 0; i < prefs.length; i++) {
+                    iidxs[i] = prefs[i].idx;
+                    gains[i] = prefs[i].v;
+                }
+
+                this.idcgs = NDCGRelevanceModel.getIdcgs(gains);
+            }
+
+            @Override
+            public int[] getRelevantIidxs() {
+                return iidxs;
+            }
+
+            @Override
+            public boolean isRelevant(int iidx) {
+                return binarySearch(iidxs, iidx) >= 0;
+            }
+
+            @Override
+            public double gain(int iidx) {
+                int pos = binarySearch(iidxs, iidx);
+                return pos >= 0 ? gains[pos] : 0.0;
+            }
+
+            /**
+             * Get the vector of gains of the relevant items.
+             *
+             * @return array of positive relevance gains
+             */
+            public double[] getGainValues() {
+                return gains.clone();
+            }
+
+            /**
+             * Returns the ideal DCG, with logarithmic discount, of a
+             * recommendation list of a given length.
+             *
+             * @param cutoff length of the recommendation list
+             * @return ideal DCG at the cutoff
+             */
+            public double idcg(int cutoff) {
+                return idcgs[Math.min(cutoff, idcgs.length - 1)];
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.metrics.fast.basic;
+
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.fast.IdxDouble;
+import es.uam.eps.ir.ranksys.metrics.fast.FastRecommendationMetric;
+import es.uam.eps.ir.ranksys.metrics.fast.rel.FastBinaryRelevanceModel;
+import es.uam.eps.ir.ranksys.metrics.fast.rel.FastRelevanceModel;
+import es.uam.eps.ir.ranksys.metrics.fast.rel.FastRelevanceModel.UserFastRelevanceModel;
+
+/**
+ * Fast version of Precision: proportion of relevant items in a recommendation
+ * list.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public class FastPrecision implements FastRecommendationMetric {
+
+    private final FastRelevanceModel relModel;
+    private final int cutoff;
+
+    /**
+     * Constructor.
+     *
+     * @param cutoff maximum length of recommended lists
+     * @param relModel relevance model
+     */
+    public FastPrecision(int cutoff, FastBinaryRelevanceModel relModel) {
+        this.relModel = relModel;
+        this.cutoff = cutoff;
+    }
+
+    @Override
+    public double evaluate(FastRecommendation recommendation) {
+        UserFastRelevanceModel userRelModel = relModel.getModel(recommendation.getUidx());
+
+        int relCount = 0;
+        int rank = 0;
+        for (IdxDouble iv : recommendation.getIidxs()) {
+            if (rank >= cutoff) {
+                break;
+            }
+            if (userRelModel.isRelevant(iv.idx)) {
+                relCount++;
+            }
+            rank++;
+        }
+
+        return relCount / (double) cutoff;
+    }
+}
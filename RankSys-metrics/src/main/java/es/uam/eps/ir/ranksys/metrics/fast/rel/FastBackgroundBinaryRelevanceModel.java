@@ -0,0 +1,87 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.metrics.fast.rel;
+
+import es.uam.eps.ir.ranksys.fast.IdxDouble;
+import es.uam.eps.ir.ranksys.fast.preference.FastPreferenceData;
+import static java.util.Arrays.binarySearch;
+
+/**
+ * Fast version of BackgroundBinaryRelevanceModel. The judged items of each
+ * user are stored as a sorted array of item indexes with parallel gains.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public class FastBackgroundBinaryRelevanceModel extends FastRelevanceModel {
+
+    private final FastPreferenceData<?, ?, ?> testData;
+    private final double threshold;
+    private final double background;
+
+    /**
+     * Constructor.
+     *
+     * @param caching are the user relevance models being cached?
+     * @param testData test subset of preferences
+     * @param threshold relevance threshold
+     * @param background gain of unseen items in the test subset
+     */
+    public FastBackgroundBinaryRelevanceModel(boolean caching, FastPreferenceData<?, ?, ?> testData, double threshold, double background) {
+        super(caching, testData);
+        this.testData = testData;
+        this.threshold = threshold;
+        this.background = background;
+    }
+
+    @Override
+    protected UserFastRelevanceModel get(int uidx) {
+        return new UserFastBackgroundRelevanceModel(uidx);
+    }
+
+    private class UserFastBackgroundRelevanceModel implements UserFastRelevanceModel {
+
+        private final int[] iidxs;
+        private final double[] gains;
+
+        public UserFastBackgroundRelevanceModel(int uidx) {
+            IdxDouble[] prefs = testData.getUidxPreferences(uidx)
+                    .map(iv -> new IdxDouble(iv.idx, iv.v >= threshold ? 1.0 : 0.0))
+                    .sorted((iv1, iv2) -> Integer.compare(iv1.idx, iv2.idx))
+                    .toArray(IdxDouble[]::new);
+
+            this.iidxs = new int[prefs.length];
+            this.gains = new double[prefs.length];
+            for (int i = 0; i < prefs.length; i++) {
+                iidxs[i] = prefs[i].idx;
+                gains[i] = prefs[i].v;
+            }
+        }
+
+        @Override
+        public boolean isRelevant(int iidx) {
+            return gain(iidx) > 0.0;
+        }
+
+        @Override
+        public double gain(int iidx) {
+            int pos = binarySearch(iidxs, iidx);
+            return pos >= 0 ? gains[pos] : background;
+        }
+
+    }
+}
@@ -0,0 +1,80 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.metrics.fast.rel;
+
+import es.uam.eps.ir.ranksys.fast.preference.FastPreferenceData;
+import static java.util.Arrays.binarySearch;
+
+/**
+ * Fast version of BinaryRelevanceModel. The relevant items of each user are
+ * stored as a sorted array of item indexes.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public class FastBinaryRelevanceModel extends FastIdealRelevanceModel {
+
+    private final FastPreferenceData<?, ?, ?> testData;
+    private final double threshold;
+
+    /**
+     * Constructor.
+     *
+     * @param caching are the user relevance models being cached?
+     * @param testData test subset of the preferences
+     * @param threshold relevance threshold
+     */
+    public FastBinaryRelevanceModel(boolean caching, FastPreferenceData<?, ?, ?> testData, double threshold) {
+        super(caching, testData);
+        this.testData = testData;
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected UserFastIdealRelevanceModel get(int uidx) {
+        return new UserFastBinaryRelevanceModel(uidx);
+    }
+
+    private class UserFastBinaryRelevanceModel implements UserFastIdealRelevanceModel {
+
+        private final int[] relevantIidxs;
+
+        public UserFastBinaryRelevanceModel(int uidx) {
+            this.relevantIidxs = testData.getUidxPreferences(uidx)
+                    .filter(iv -> iv.v >= threshold)
+                    .mapToInt(iv -> iv.idx)
+                    .sorted().distinct()
+                    .toArray();
+        }
+
+        @Override
+        public int[] getRelevantIidxs() {
+            return relevantIidxs;
+        }
+
+        @Override
+        public boolean isRelevant(int iidx) {
+            return binarySearch(relevantIidxs, iidx) >= 0;
+        }
+
+        @Override
+        public double gain(int iidx) {
+            return isRelevant(iidx) ? 1.0 : 0.0;
+        }
+
+    }
+}
@@ -0,0 +1,69 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.metrics.fast.rel;
+
+import es.uam.eps.ir.ranksys.fast.preference.FastPreferenceData;
+
+/**
+ * Fast version of IdealRelevanceModel, in which there is full, a-priori
+ * knowledge of the relevance of all the items in the collection.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public abstract class FastIdealRelevanceModel extends FastRelevanceModel {
+
+    /**
+     * Constructor.
+     *
+     * @param caching are the user relevance models cached?
+     * @param testData test subset of preferences
+     */
+    public FastIdealRelevanceModel(boolean caching, FastPreferenceData<?, ?, ?> testData) {
+        super(caching, testData);
+    }
+
+    @Override
+    protected abstract UserFastIdealRelevanceModel get(int uidx);
+
+    @Override
+    public UserFastIdealRelevanceModel getModel(int uidx) {
+        return (UserFastIdealRelevanceModel) super.getModel(uidx);
+    }
+
+    /**
+     * User relevance model for FastIdealRelevanceModel.
+     */
+    public interface UserFastIdealRelevanceModel extends UserFastRelevanceModel {
+
+        /**
+         * Obtains the indexes of all the items relevant to the user.
+         *
+         * @return sorted array of indexes of the items relevant to the user
+         */
+        public int[] getRelevantIidxs();
+
+        /**
+         * Returns the number of items relevant to the user.
+         *
+         * @return number of items relevant to the user
+         */
+        public default int numRelevant() {
+            return getRelevantIidxs().length;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.metrics.fast.rel;
+
+import es.uam.eps.ir.ranksys.core.util.Lazy;
+import es.uam.eps.ir.ranksys.fast.preference.FastPreferenceData;
+
+/**
+ * Fast version of RelevanceModel, where users and items are identified by
+ * their indexes in a FastPreferenceData.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public abstract class FastRelevanceModel {
+
+    private final boolean caching;
+    private final Lazy<UserFastRelevanceModel[]> lazyUserModels;
+
+    /**
+     * Constructor.
+     *
+     * @param caching are the user relevance models cached?
+     * @param testData test subset of preferences, whose users with preferences
+     * are the ones whose models are cached
+     */
+    public FastRelevanceModel(boolean caching, FastPreferenceData<?, ?, ?> testData) {
+        this.caching = caching;
+        if (caching) {
+            this.lazyUserModels = new Lazy<>(() -> {
+                UserFastRelevanceModel[] models = new UserFastRelevanceModel[testData.numUsers()];
+                testData.getUidxWithPreferences().parallel()
+                        .forEach(uidx -> models[uidx] = get(uidx));
+                return models;
+            });
+        } else {
+            this.lazyUserModels = null;
+        }
+    }
+
+    /**
+     * Start the caching of the users.
+     */
+    public void initialize() {
+        if (caching) {
+            lazyUserModels.get();
+        }
+    }
+
+    /**
+     * Calculates the relevance model of a user.
+     *
+     * @param uidx user index
+     * @return relevance model of the user
+     */
+    protected abstract UserFastRelevanceModel get(int uidx);
+
+    /**
+     * Returns the relevance model of a user.
+     *
+     * @param uidx user index
+     * @return relevance model of the user
+     */
+    public UserFastRelevanceModel getModel(int uidx) {
+        if (caching) {
+            UserFastRelevanceModel[] models = lazyUserModels.get();
+            if (uidx < 0 || uidx >= models.length || models[uidx] == null) {
+                return get(uidx);
+            }
+            return models[uidx];
+        } else {
+            return get(uidx);
+        }
+    }
+
+    /**
+     * User-specific relevance models by item index.
+     */
+    public interface UserFastRelevanceModel {
+
+        /**
+         * Determines whether an item is relevant to the user or not
+         *
+         * @param iidx index of the item to be judged as relevant
+         * @return true if the item is relevant, false otherwise
+         */
+        public boolean isRelevant(int iidx);
+
+        /**
+         * Gain obtained by recommending the item. Should be typically
+         * positive if the item is relevant, and 0 otherwise.
+         *
+         * @param iidx index of the item whose gain is calculated
+         * @return numerical gain
+         */
+        public double gain(int iidx);
+    }
+}
@@ -52,6 +52,21 @@ public class BackgroundBinaryRelevanceModel<U, I> extends RelevanceModel<U, I> {
         this.background = background;
     }
 
+    /**
+     * Constructor with a bounded cache of user relevance models.
+     *
+     * @param cacheSize maximum number of user relevance models cached
+     * @param testData test subset of preferences
+     * @param threshold relevance threshold
+     * @param background gain of unseen items in the test subset
+     */
+    public BackgroundBinaryRelevanceModel(int cacheSize, PreferenceData<U, I, ?> testData, double threshold, double background) {
+        super(cacheSize);
+        this.testData = testData;
+        this.threshold = threshold;
+        this.background = background;
+    }
+
     @Override
     protected UserRelevanceModel<U, I> get(U user) {
         return new UserSmo4RelevanceModel(user);
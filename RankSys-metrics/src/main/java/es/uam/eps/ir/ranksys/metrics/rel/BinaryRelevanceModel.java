@@ -49,6 +49,19 @@ public class BinaryRelevanceModel<U, I> extends IdealRelevanceModel<U, I> {
         this.threshold = threshold;
     }
 
+    /**
+     * Constructor with a bounded cache of user relevance models.
+     *
+     * @param cacheSize maximum number of user relevance models cached
+     * @param testData test subset of the preferences
+     * @param threshold relevance threshold
+     */
+    public BinaryRelevanceModel(int cacheSize, PreferenceData<U, I, ?> testData, double threshold) {
+        super(cacheSize);
+        this.testData = testData;
+        this.threshold = threshold;
+    }
+
     @Override
     protected UserIdealRelevanceModel<U, I> get(U user) {
         return new UserBinaryRelevanceModel(user);
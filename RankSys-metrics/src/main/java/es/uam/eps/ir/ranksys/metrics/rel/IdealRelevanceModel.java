@@ -43,6 +43,16 @@ public abstract class IdealRelevanceModel<U, I> extends RelevanceModel<U, I> {
         super(caching, users);
     }
 
+    /**
+     * Bounded caching constructor: user relevance models are cached on demand
+     * up to a maximum number of users.
+     *
+     * @param cacheSize maximum number of user relevance models cached
+     */
+    public IdealRelevanceModel(int cacheSize) {
+        super(cacheSize);
+    }
+
     /**
      * No caching constructor.
      */
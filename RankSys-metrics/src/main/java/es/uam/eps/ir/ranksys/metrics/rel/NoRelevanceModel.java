@@ -40,6 +40,17 @@ public class NoRelevanceModel<U, I> extends RelevanceModel<U, I> {
         super();
     }
 
+    /**
+     * Constructor with a bounded cache of user relevance models. Nothing is
+     * cached by this model, but the size of the cache is passed on to the
+     * models that copy the caching of this one.
+     *
+     * @param cacheSize maximum number of user relevance models cached
+     */
+    public NoRelevanceModel(int cacheSize) {
+        super(cacheSize);
+    }
+
     @Override
     protected UserRelevanceModel<U, I> get(U user) {
         return rel;
@@ -43,6 +43,16 @@ public abstract class RelevanceModel<U, I> extends UserModel<U> {
         super(caching, users);
     }
 
+    /**
+     * Bounded caching constructor: user relevance models are cached on demand
+     * up to a maximum number of users.
+     *
+     * @param cacheSize maximum number of user relevance models cached
+     */
+    public RelevanceModel(int cacheSize) {
+        super(cacheSize);
+    }
+
     /**
      * No caching constructor.
      */
@@ -19,7 +19,10 @@ package es.uam.eps.ir.ranksys.mf.als;
 
 import cern.colt.function.DoubleFunction;
 import cern.colt.matrix.impl.DenseDoubleMatrix2D;
+import es.uam.eps.ir.ranksys.core.util.instrument.Instruments;
+import es.uam.eps.ir.ranksys.fast.preference.CSRPreferenceData;
 import es.uam.eps.ir.ranksys.fast.preference.FastPreferenceData;
+import es.uam.eps.ir.ranksys.fast.preference.TransposedPreferenceData;
 import es.uam.eps.ir.ranksys.mf.Factorization;
 import es.uam.eps.ir.ranksys.mf.Factorizer;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
@@ -32,6 +35,12 @@ import java.util.stream.IntStream;
 /**
  * Generic alternating least-squares factorizer.
  *
+ * The item-major orientation of the preference data used in the item matrix
+ * steps is materialized once per factorization in CSR arrays, see
+ * {@link CSRPreferenceData#transpose(FastPreferenceData)}, unless the copy
+ * does not fit in the available memory, in which case a
+ * {@link TransposedPreferenceData} view is used instead.
+ *
  * @author Saúl Vargas (saul.vargas@uam.es)
  * 
  * @param <U> type of the users
@@ -39,6 +48,23 @@ import java.util.stream.IntStream;
  */
 public abstract class ALSFactorizer<U, I> extends Factorizer<U, I> {
 
+    /**
+     * Name of the histogram of the time of the item matrix steps, in
+     * nanoseconds.
+     */
+    public static final String ITEM_STEP = "als.item_step";
+
+    /**
+     * Name of the histogram of the time of the user matrix steps, in
+     * nanoseconds.
+     */
+    public static final String USER_STEP = "als.user_step";
+
+    /**
+     * Name of the histogram of the time of the iterations, in nanoseconds.
+     */
+    public static final String ITERATION = "als.iteration";
+
     private final int numIter;
 
     /**
@@ -77,20 +103,42 @@ public abstract class ALSFactorizer<U, I> extends Factorizer<U, I> {
         IntStream.range(0, p.rows()).filter(uidx -> !uidxs.contains(uidx)).forEach(uidx -> p.viewRow(uidx).assign(0.0));
         IntSet iidxs = new IntOpenHashSet(data.getIidxWithPreferences().toArray());
         IntStream.range(0, q.rows()).filter(iidx -> !iidxs.contains(iidx)).forEach(iidx -> q.viewRow(iidx).assign(0.0));
+
+        FastPreferenceData<I, U, ?> transposedData = transpose(data);
         
         for (int t = 1; t <= numIter; t++) {
             long time0 = System.nanoTime();
 
-            set_minQ(q, p, data);
+            set_minQ(q, p, data, transposedData);
+            Instruments.stop(ITEM_STEP, time0);
+
+            long time01 = Instruments.start();
             set_minP(p, q, data);
+            Instruments.stop(USER_STEP, time01);
 
             int iter = t;
             long time1 = System.nanoTime() - time0;
+            Instruments.record(ITERATION, time1);
             
             Logger.getLogger(ALSFactorizer.class.getName()).log(Level.INFO, () -> String.format("iteration %3d %.2fs %.6f", iter, time1 / 1_000_000_000.0, error(factorization, data)));
         }
     }
 
+    private static <U, I, O> FastPreferenceData<I, U, O> transpose(FastPreferenceData<U, I, O> data) {
+        if (data instanceof CSRPreferenceData) {
+            return ((CSRPreferenceData<U, I, O>) data).transpose();
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        long available = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        if (CSRPreferenceData.estimateTransposeBytes(data) > available / 2) {
+            Logger.getLogger(ALSFactorizer.class.getName()).log(Level.INFO, "not enough memory to transpose the preference data, using a view");
+            return new TransposedPreferenceData<>(data);
+        }
+
+        return CSRPreferenceData.transpose(data);
+    }
+
     /**
      * Squared loss of two matrices.
      *
@@ -118,4 +166,20 @@ public abstract class ALSFactorizer<U, I> extends Factorizer<U, I> {
      * @param data preference data
      */
     protected abstract void set_minQ(DenseDoubleMatrix2D q, DenseDoubleMatrix2D p, FastPreferenceData<U, I, ?> data);
+
+    /**
+     * Item matrix least-squares step with the preference data in item-major
+     * orientation, which is computed once per factorization. By default, it
+     * ignores the transposed data and calls
+     * {@link #set_minQ(DenseDoubleMatrix2D, DenseDoubleMatrix2D, FastPreferenceData)}.
+     *
+     * @param q item matrix
+     * @param p user matrix
+     * @param data preference data
+     * @param transposedData preference data where users and items change
+     * roles
+     */
+    protected void set_minQ(DenseDoubleMatrix2D q, DenseDoubleMatrix2D p, FastPreferenceData<U, I, ?> data, FastPreferenceData<I, U, ?> transposedData) {
+        set_minQ(q, p, data);
+    }
 }
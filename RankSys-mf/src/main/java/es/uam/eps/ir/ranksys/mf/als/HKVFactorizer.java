@@ -102,6 +102,11 @@ public class HKVFactorizer<U, I> extends ALSFactorizer<U, I> {
         set_min(q, p, confidence, lambdaQ, new TransposedPreferenceData<>(data));
     }
 
+    @Override
+    protected void set_minQ(final DenseDoubleMatrix2D q, final DenseDoubleMatrix2D p, FastPreferenceData<U, I, ?> data, FastPreferenceData<I, U, ?> transposedData) {
+        set_min(q, p, confidence, lambdaQ, transposedData);
+    }
+
     private static <U, I, O> void set_min(final DenseDoubleMatrix2D p, final DenseDoubleMatrix2D q, DoubleUnaryOperator confidence, double lambda, FastPreferenceData<U, I, O> data) {
         final int K = p.columns();
 
@@ -105,6 +105,11 @@ public class PZTFactorizer<U, I> extends ALSFactorizer<U, I> {
         set_min(q, p, confidence, lambdaQ, new TransposedPreferenceData<>(data));
     }
 
+    @Override
+    protected void set_minQ(final DenseDoubleMatrix2D q, final DenseDoubleMatrix2D p, FastPreferenceData<U, I, ?> data, FastPreferenceData<I, U, ?> transposedData) {
+        set_min(q, p, confidence, lambdaQ, transposedData);
+    }
+
     private static <U, I, O> void set_min(final DenseDoubleMatrix2D p, final DenseDoubleMatrix2D q, DoubleUnaryOperator confidence, double lambda, FastPreferenceData<U, I, O> data) {
         DoubleMatrix2D gt = getGt(p, q, lambda);
 
@@ -24,6 +24,7 @@ import static cern.jet.math.Functions.identity;
 import static cern.jet.math.Functions.mult;
 import static cern.jet.math.Functions.plus;
 import es.uam.eps.ir.ranksys.fast.preference.AbstractFastPreferenceData;
+import es.uam.eps.ir.ranksys.core.util.instrument.Instruments;
 import es.uam.eps.ir.ranksys.fast.preference.FastPreferenceData;
 import es.uam.eps.ir.ranksys.fast.preference.IdxPref;
 import es.uam.eps.ir.ranksys.mf.Factorization;
@@ -55,6 +56,23 @@ import java.util.stream.Stream;
  */
 public class PLSAFactorizer<U, I> extends Factorizer<U, I> {
 
+    /**
+     * Name of the histogram of the time of the expectation steps, in
+     * nanoseconds.
+     */
+    public static final String EXPECTATION_STEP = "plsa.expectation_step";
+
+    /**
+     * Name of the histogram of the time of the maximization steps, in
+     * nanoseconds.
+     */
+    public static final String MAXIMIZATION_STEP = "plsa.maximization_step";
+
+    /**
+     * Name of the histogram of the time of the iterations, in nanoseconds.
+     */
+    public static final String ITERATION = "plsa.iteration";
+
     private final int numIter;
 
     /**
@@ -112,10 +130,15 @@ public class PLSAFactorizer<U, I> extends Factorizer<U, I> {
             long time0 = System.nanoTime();
 
             expectation(pu_z, piz, plsaData);
+            Instruments.stop(EXPECTATION_STEP, time0);
+
+            long time01 = Instruments.start();
             maximization(pu_z, piz, plsaData);
+            Instruments.stop(MAXIMIZATION_STEP, time01);
 
             int iter = t;
             long time1 = System.nanoTime() - time0;
+            Instruments.record(ITERATION, time1);
 
             Logger.getLogger(ALSFactorizer.class.getName()).log(Level.INFO, () -> String.format("iteration %3d %.2fs %.6f", iter, time1 / 1_000_000_000.0, error(factorization, data)));
         }
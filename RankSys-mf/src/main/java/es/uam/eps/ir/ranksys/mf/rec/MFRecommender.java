@@ -18,17 +18,22 @@
 package es.uam.eps.ir.ranksys.mf.rec;
 
 import cern.colt.matrix.DoubleMatrix1D;
+import cern.colt.matrix.impl.DenseDoubleMatrix2D;
 import es.uam.eps.ir.ranksys.fast.IdxDouble;
 import es.uam.eps.ir.ranksys.fast.FastRecommendation;
 import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
 import es.uam.eps.ir.ranksys.fast.index.FastUserIndex;
 import es.uam.eps.ir.ranksys.fast.utils.topn.IntDoubleTopN;
 import es.uam.eps.ir.ranksys.rec.fast.AbstractFastRecommender;
+import es.uam.eps.ir.ranksys.rec.fast.FastItemFilter;
 import es.uam.eps.ir.ranksys.mf.Factorization;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Matrix factorization recommender. Scores are calculated as the inner product
@@ -70,9 +75,19 @@ public class MFRecommender<U, I> extends AbstractFastRecommender<U, I> {
         IntDoubleTopN topN = new IntDoubleTopN(maxLength);
 
         DoubleMatrix1D r = factorization.getItemMatrix().zMult(pu, null);
-        for (int iidx = 0; iidx < r.size(); iidx++) {
-            if (filter.test(iidx)) {
-                topN.add(iidx, r.getQuick(iidx));
+        if (filter instanceof FastItemFilter) {
+            double[] scores = r.toArray();
+            ((FastItemFilter) filter).filter(scores);
+            for (int iidx = 0; iidx < scores.length; iidx++) {
+                if (!Double.isNaN(scores[iidx])) {
+                    topN.add(iidx, scores[iidx]);
+                }
+            }
+        } else {
+            for (int iidx = 0; iidx < r.size(); iidx++) {
+                if (filter.test(iidx)) {
+                    topN.add(iidx, r.getQuick(iidx));
+                }
             }
         }
 
@@ -84,4 +99,46 @@ public class MFRecommender<U, I> extends AbstractFastRecommender<U, I> {
 
         return new FastRecommendation(uidx, items);
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Only the inner products of the user vector and the vectors of the
+     * candidate items are calculated.
+     */
+    @Override
+    public FastRecommendation getRecommendation(int uidx, IntStream candidates) {
+        DoubleMatrix1D pu;
+
+        pu = factorization.getUserVector(uidx2user(uidx));
+        if (pu == null) {
+            return new FastRecommendation(uidx, new ArrayList<>());
+        }
+
+        IntSet candidateSet = new IntOpenHashSet();
+        candidates
+                .filter(iidx -> iidx >= 0 && iidx < factorization.numItems())
+                .forEach(iidx -> candidateSet.add(iidx));
+
+        IntDoubleTopN topN = new IntDoubleTopN(candidateSet.size());
+
+        DenseDoubleMatrix2D q = factorization.getItemMatrix();
+        int K = q.columns();
+        double[] u = pu.toArray();
+        for (int iidx : candidateSet) {
+            double s = 0.0;
+            for (int k = 0; k < K; k++) {
+                s += u[k] * q.getQuick(iidx, k);
+            }
+            topN.add(iidx, s);
+        }
+
+        topN.sort();
+
+        List<IdxDouble> items = topN.reverseStream()
+                .map(e -> new IdxDouble(e))
+                .collect(Collectors.toList());
+
+        return new FastRecommendation(uidx, items);
+    }
 }
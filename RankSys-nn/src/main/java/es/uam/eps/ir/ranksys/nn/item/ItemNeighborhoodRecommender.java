@@ -22,6 +22,7 @@ import es.uam.eps.ir.ranksys.rec.fast.FastRankingRecommender;
 import es.uam.eps.ir.ranksys.nn.item.neighborhood.ItemNeighborhood;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
 import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import static java.lang.Math.pow;
 
 /**
@@ -86,4 +87,27 @@ public class ItemNeighborhoodRecommender<U, I> extends FastRankingRecommender<U,
         return scoresMap;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The neighborhoods of the items of the user are traversed as in
+     * getScoresMap(int), but only the scores of the candidates are
+     * accumulated.
+     */
+    @Override
+    protected Int2DoubleMap getScoresMap(int uidx, IntSet candidates) {
+        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap(candidates.size());
+        scoresMap.defaultReturnValue(0.0);
+        data.getUidxPreferences(uidx).forEach(jp -> {
+            neighborhood.getNeighbors(jp.idx).forEach(is -> {
+                if (candidates.contains(is.idx)) {
+                    double w = pow(is.v, q);
+                    scoresMap.addTo(is.idx, w * jp.v);
+                }
+            });
+        });
+
+        return scoresMap;
+    }
+
 }
@@ -17,6 +17,7 @@
  */
 package es.uam.eps.ir.ranksys.nn.neighborhood;
 
+import es.uam.eps.ir.ranksys.core.util.instrument.Instruments;
 import es.uam.eps.ir.ranksys.fast.IdxDouble;
 import es.uam.eps.ir.ranksys.fast.IdxObject;
 import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
@@ -32,6 +33,17 @@ import static java.util.stream.Stream.empty;
  */
 public class CachedNeighborhood implements Neighborhood {
 
+    /**
+     * Name of the histogram of the time to calculate a neighborhood, in
+     * nanoseconds.
+     */
+    public static final String BUILD_TIME = "neighborhood.build_time";
+
+    /**
+     * Name of the histogram of the sizes of the calculated neighborhoods.
+     */
+    public static final String SIZE = "neighborhood.size";
+
     private final IntArrayList[] idxla;
     private final DoubleArrayList[] simla;
 
@@ -47,6 +59,7 @@ public class CachedNeighborhood implements Neighborhood {
         this.simla = new DoubleArrayList[n];
 
         range(0, n).parallel().forEach(idx -> {
+            long time0 = Instruments.start();
             IntArrayList idxl = new IntArrayList();
             DoubleArrayList siml = new DoubleArrayList();
             neighborhood.getNeighbors(idx).forEach(is -> {
@@ -55,6 +68,8 @@ public class CachedNeighborhood implements Neighborhood {
             });
             idxla[idx] = idxl;
             simla[idx] = siml;
+            Instruments.stop(BUILD_TIME, time0);
+            Instruments.record(SIZE, idxl.size());
         });
     }
 
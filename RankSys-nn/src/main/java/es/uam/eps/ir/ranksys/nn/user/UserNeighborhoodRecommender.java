@@ -22,6 +22,7 @@ import es.uam.eps.ir.ranksys.rec.fast.FastRankingRecommender;
 import es.uam.eps.ir.ranksys.nn.user.neighborhood.UserNeighborhood;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
 import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import static java.lang.Math.pow;
 
 /**
@@ -86,4 +87,54 @@ public class UserNeighborhoodRecommender<U, I> extends FastRankingRecommender<U,
 
         return scoresMap;
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Scores are accumulated either by traversing the preferences of the
+     * neighbors, keeping only those of candidate items, or by traversing the
+     * preferences of the candidates, keeping only those of neighbors,
+     * whichever requires visiting fewer preferences.
+     */
+    @Override
+    protected Int2DoubleMap getScoresMap(int uidx, IntSet candidates) {
+        Int2DoubleOpenHashMap weights = new Int2DoubleOpenHashMap();
+        neighborhood.getNeighbors(uidx).forEach(vs -> weights.put(vs.idx, pow(vs.v, q)));
+
+        long neighborsCost = 0;
+        for (int vidx : weights.keySet()) {
+            neighborsCost += data.numItems(vidx);
+        }
+        long candidatesCost = 0;
+        for (int iidx : candidates) {
+            if (iidx >= 0 && iidx < data.numItems()) {
+                candidatesCost += data.numUsers(iidx);
+            }
+        }
+
+        Int2DoubleOpenHashMap scoresMap = new Int2DoubleOpenHashMap(candidates.size());
+        scoresMap.defaultReturnValue(0.0);
+        if (candidatesCost < neighborsCost) {
+            for (int iidx : candidates) {
+                if (iidx >= 0 && iidx < data.numItems()) {
+                    data.getIidxPreferences(iidx).forEach(vp -> {
+                        if (weights.containsKey(vp.idx)) {
+                            scoresMap.addTo(iidx, weights.get(vp.idx) * vp.v);
+                        }
+                    });
+                }
+            }
+        } else {
+            weights.int2DoubleEntrySet().forEach(e -> {
+                double w = e.getDoubleValue();
+                data.getUidxPreferences(e.getIntKey()).forEach(iv -> {
+                    if (candidates.contains(iv.idx)) {
+                        scoresMap.addTo(iv.idx, w * iv.v);
+                    }
+                });
+            });
+        }
+
+        return scoresMap;
+    }
 }
@@ -0,0 +1,88 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.novdiv.distance;
+
+import es.uam.eps.ir.ranksys.fast.feature.BitsetFastFeatureData;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Feature-based item distance model for binary features stored as bitsets.
+ * Inner products and square norms of the binary feature vectors are
+ * population counts of the bitsets of the items.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <I> type of the items
+ * @param <F> type of the features
+ */
+public abstract class BitsetFeatureItemDistanceModel<I, F> implements ItemDistanceModel<I> {
+
+    private final BitsetFastFeatureData<I, F> featureData;
+
+    /**
+     * Constructor.
+     *
+     * @param featureData bitset feature data
+     */
+    public BitsetFeatureItemDistanceModel(BitsetFastFeatureData<I, F> featureData) {
+        this.featureData = featureData;
+    }
+
+    @Override
+    public ToDoubleFunction<I> dist(I i) {
+        int iidx = featureData.item2iidx(i);
+        return j -> dist(iidx, featureData.item2iidx(j));
+    }
+
+    @Override
+    public double dist(I i, I j) {
+        return dist(featureData.item2iidx(i), featureData.item2iidx(j));
+    }
+
+    /**
+     * Returns the distance between a pair of items identified by index.
+     *
+     * @param iidx index of the first item
+     * @param jidx index of the second item
+     * @return distance between the items, NaN if any of them has no features
+     */
+    public double dist(int iidx, int jidx) {
+        if (iidx < 0 || jidx < 0) {
+            return Double.NaN;
+        }
+        int normA = featureData.numFeatures(iidx);
+        int normB = featureData.numFeatures(jidx);
+        if (normA == 0 || normB == 0) {
+            return Double.NaN;
+        }
+
+        return dist(featureData.intersectionSize(iidx, jidx), normA, normB);
+    }
+
+    /**
+     * Distance as a function of the size of the intersection of the feature
+     * sets of two items and the size of these sets.
+     *
+     * @param inter number of features shared by the items
+     * @param normA number of features of the first item
+     * @param normB number of features of the second item
+     * @return distance value
+     */
+    protected abstract double dist(int inter, int normA, int normB);
+
+}
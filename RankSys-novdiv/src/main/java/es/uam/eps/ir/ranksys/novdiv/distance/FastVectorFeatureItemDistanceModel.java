@@ -0,0 +1,178 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.novdiv.distance;
+
+import es.uam.eps.ir.ranksys.core.util.LongDoubleCache;
+import es.uam.eps.ir.ranksys.fast.feature.FastFeatureData;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Feature-based item distance model that considers the features of items as
+ * vectors, backed by a fast feature data. The feature vector of each item is
+ * encoded once as parallel arrays of sorted feature indexes and values, along
+ * with its square norm, so that inner products are computed by a merge-join
+ * of the arrays. Optionally, the distances of the most recently used item
+ * pairs are kept in a bounded cache of primitive keys and values.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <I> type of the items
+ * @param <F> type of the features
+ */
+public abstract class FastVectorFeatureItemDistanceModel<I, F> implements ItemDistanceModel<I> {
+
+    private final FastFeatureData<I, F, Double> featureData;
+    private final int[][] fidxs;
+    private final double[][] values;
+    private final double[] norms2;
+    private final LongDoubleCache cache;
+
+    /**
+     * Constructor without cache of item pairs.
+     *
+     * @param featureData feature data
+     */
+    public FastVectorFeatureItemDistanceModel(FastFeatureData<I, F, Double> featureData) {
+        this(featureData, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param featureData feature data
+     * @param cacheSize maximum number of item pairs whose distance is cached,
+     * 0 for no caching
+     */
+    public FastVectorFeatureItemDistanceModel(FastFeatureData<I, F, Double> featureData, int cacheSize) {
+        this.featureData = featureData;
+
+        int numItems = featureData.numItems();
+        this.fidxs = new int[numItems][];
+        this.values = new double[numItems][];
+        this.norms2 = new double[numItems];
+        featureData.getAllIidx().parallel().forEach(iidx -> {
+            IntArrayList fs = new IntArrayList();
+            DoubleArrayList vs = new DoubleArrayList();
+            featureData.getIidxFeatures(iidx)
+                    .sorted((fv1, fv2) -> Integer.compare(fv1.idx, fv2.idx))
+                    .forEachOrdered(fv -> {
+                        fs.add(fv.idx);
+                        vs.add((double) fv.v);
+                    });
+
+            double norm2 = 0.0;
+            for (int k = 0; k < vs.size(); k++) {
+                norm2 += vs.getDouble(k) * vs.getDouble(k);
+            }
+
+            fidxs[iidx] = fs.toIntArray();
+            values[iidx] = vs.toDoubleArray();
+            norms2[iidx] = norm2;
+        });
+
+        this.cache = cacheSize > 0 ? new LongDoubleCache(cacheSize) : null;
+    }
+
+    @Override
+    public ToDoubleFunction<I> dist(I i) {
+        int iidx = featureData.item2iidx(i);
+        return j -> dist(iidx, featureData.item2iidx(j));
+    }
+
+    @Override
+    public double dist(I i, I j) {
+        return dist(featureData.item2iidx(i), featureData.item2iidx(j));
+    }
+
+    /**
+     * Returns the distance between a pair of items identified by index.
+     *
+     * @param iidx index of the first item
+     * @param jidx index of the second item
+     * @return distance between the items, NaN if any of them has no features
+     */
+    public double dist(int iidx, int jidx) {
+        if (iidx < 0 || jidx < 0 || norms2[iidx] == 0 || norms2[jidx] == 0) {
+            return Double.NaN;
+        }
+        if (cache == null) {
+            return computeDist(iidx, jidx);
+        }
+
+        long key = iidx < jidx ? ((long) iidx << 32) | jidx : ((long) jidx << 32) | iidx;
+        return cache.get(key, k -> computeDist(iidx, jidx));
+    }
+
+    private double computeDist(int iidx, int jidx) {
+        int[] fi = fidxs[iidx];
+        int[] fj = fidxs[jidx];
+        double[] vi = values[iidx];
+        double[] vj = values[jidx];
+
+        double prod = 0.0;
+        int a = 0;
+        int b = 0;
+        while (a < fi.length && b < fj.length) {
+            if (fi[a] < fj[b]) {
+                a++;
+            } else if (fi[a] > fj[b]) {
+                b++;
+            } else {
+                prod += vi[a] * vj[b];
+                a++;
+                b++;
+            }
+        }
+
+        return dist(prod, norms2[iidx], norms2[jidx]);
+    }
+
+    /**
+     * Returns the number of requests that found the distance of the pair in
+     * the cache.
+     *
+     * @return number of cache hits
+     */
+    public long getCacheHits() {
+        return cache == null ? 0 : cache.hitCount();
+    }
+
+    /**
+     * Returns the number of requests that had to compute the distance of the
+     * pair.
+     *
+     * @return number of cache misses
+     */
+    public long getCacheMisses() {
+        return cache == null ? 0 : cache.missCount();
+    }
+
+    /**
+     * Distance as a function of the inner product between feature vectors
+     * and the square of the norms of these vectors.
+     *
+     * @param prod inner product of two vectors
+     * @param norm2A square norm of the first vector
+     * @param norm2B square norm of the second vector
+     * @return distance value
+     */
+    protected abstract double dist(double prod, double norm2A, double norm2B);
+
+}
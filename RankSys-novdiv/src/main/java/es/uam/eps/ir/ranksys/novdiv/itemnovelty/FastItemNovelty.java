@@ -0,0 +1,149 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.novdiv.itemnovelty;
+
+import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Non-personalized item novelty model whose values are stored in an array
+ * indexed by the item indexes of a FastItemIndex. Besides the id-based
+ * {@link UserItemNoveltyModel}, novelty values can be queried directly by
+ * item index. The table can be saved to a binary stream and loaded back, so
+ * that it is computed once per training snapshot.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <U> type of the users
+ * @param <I> type of the items
+ */
+public class FastItemNovelty<U, I> extends ItemNovelty<U, I> {
+
+    /**
+     * Item index.
+     */
+    protected final FastItemIndex<I> itemIndex;
+
+    /**
+     * Novelty of the items, by item index.
+     */
+    protected final double[] novelties;
+
+    /**
+     * Novelty of the items not in the index.
+     */
+    protected final double defaultNovelty;
+
+    private final UserItemNoveltyModel<U, I> nov;
+
+    /**
+     * Constructor.
+     *
+     * @param itemIndex item index
+     * @param novelties novelty of the items, by item index
+     * @param defaultNovelty novelty of the items not in the index
+     */
+    public FastItemNovelty(FastItemIndex<I> itemIndex, double[] novelties, double defaultNovelty) {
+        super();
+        this.itemIndex = itemIndex;
+        this.novelties = novelties;
+        this.defaultNovelty = defaultNovelty;
+        this.nov = i -> novelty(itemIndex.item2iidx(i));
+    }
+
+    /**
+     * Constructor that shares the table of another model.
+     *
+     * @param other model whose table is shared
+     */
+    protected FastItemNovelty(FastItemNovelty<U, I> other) {
+        this(other.itemIndex, other.novelties, other.defaultNovelty);
+    }
+
+    /**
+     * Returns the novelty of an item.
+     *
+     * @param iidx item index
+     * @return novelty of the item
+     */
+    public double novelty(int iidx) {
+        if (iidx < 0 || iidx >= novelties.length) {
+            return defaultNovelty;
+        }
+        return novelties[iidx];
+    }
+
+    @Override
+    protected UserItemNoveltyModel<U, I> get(U u) {
+        return nov;
+    }
+
+    @Override
+    public UserItemNoveltyModel<U, I> getModel(U u) {
+        return nov;
+    }
+
+    /**
+     * Saves the table of novelty values to a binary stream.
+     *
+     * @param out output stream
+     * @throws IOException when IO error
+     */
+    public void save(OutputStream out) throws IOException {
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out));
+        dos.writeInt(novelties.length);
+        dos.writeDouble(defaultNovelty);
+        for (double v : novelties) {
+            dos.writeDouble(v);
+        }
+        dos.flush();
+    }
+
+    /**
+     * Loads a table of novelty values from a binary stream written by
+     * {@link #save(OutputStream)}.
+     *
+     * @param <U> type of the users
+     * @param <I> type of the items
+     * @param in input stream
+     * @param itemIndex item index of the saved table
+     * @return item novelty model
+     * @throws IOException when IO error or when the table does not match the
+     * item index
+     */
+    public static <U, I> FastItemNovelty<U, I> load(InputStream in, FastItemIndex<I> itemIndex) throws IOException {
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(in));
+        int numItems = dis.readInt();
+        if (numItems != itemIndex.numItems()) {
+            throw new IOException("table of " + numItems + " items does not match an index of " + itemIndex.numItems() + " items");
+        }
+        double defaultNovelty = dis.readDouble();
+        double[] novelties = new double[numItems];
+        for (int iidx = 0; iidx < numItems; iidx++) {
+            novelties[iidx] = dis.readDouble();
+        }
+
+        return new FastItemNovelty<>(itemIndex, novelties, defaultNovelty);
+    }
+}
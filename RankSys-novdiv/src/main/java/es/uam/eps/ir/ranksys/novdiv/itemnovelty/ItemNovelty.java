@@ -47,6 +47,16 @@ public abstract class ItemNovelty<U, I> extends UserModel<U> {
         super(caching, users);
     }
 
+    /**
+     * Constructor in which item novelty models are cached on demand up to a
+     * maximum number of users.
+     *
+     * @param cacheSize maximum number of user item novelty models cached
+     */
+    public ItemNovelty(int cacheSize) {
+        super(cacheSize);
+    }
+
     /**
      * Constructor in which no caching is done.
      */
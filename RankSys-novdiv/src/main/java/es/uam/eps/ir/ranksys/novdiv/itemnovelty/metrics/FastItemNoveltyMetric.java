@@ -0,0 +1,84 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.novdiv.itemnovelty.metrics;
+
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.fast.IdxDouble;
+import es.uam.eps.ir.ranksys.metrics.fast.FastRecommendationMetric;
+import es.uam.eps.ir.ranksys.metrics.fast.rel.FastRelevanceModel;
+import es.uam.eps.ir.ranksys.metrics.fast.rel.FastRelevanceModel.UserFastRelevanceModel;
+import es.uam.eps.ir.ranksys.metrics.rank.RankingDiscountModel;
+import es.uam.eps.ir.ranksys.novdiv.itemnovelty.FastItemNovelty;
+
+/**
+ * Fast version of {@link ItemNoveltyMetric}, where items are identified by
+ * index and their novelty is read from a {@link FastItemNovelty} table.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public abstract class FastItemNoveltyMetric implements FastRecommendationMetric {
+
+    private final int cutoff;
+
+    /**
+     * item novelty model
+     */
+    protected final FastItemNovelty<?, ?> novelty;
+    private final FastRelevanceModel relModel;
+    private final RankingDiscountModel disc;
+
+    /**
+     * Constructor.
+     *
+     * @param cutoff maximum size of the recommendation list that is evaluated
+     * @param novelty novelty model
+     * @param relevanceModel relevance model
+     * @param disc ranking discount model
+     */
+    public FastItemNoveltyMetric(int cutoff, FastItemNovelty<?, ?> novelty, FastRelevanceModel relevanceModel, RankingDiscountModel disc) {
+        this.cutoff = cutoff;
+        this.novelty = novelty;
+        this.relModel = relevanceModel;
+        this.disc = disc;
+    }
+
+    @Override
+    public double evaluate(FastRecommendation recommendation) {
+        UserFastRelevanceModel userRelModel = relModel.getModel(recommendation.getUidx());
+
+        double nov = 0.0;
+        double norm = 0.0;
+
+        int rank = 0;
+        for (IdxDouble iv : recommendation.getIidxs()) {
+            nov += disc.disc(rank) * userRelModel.gain(iv.idx) * novelty.novelty(iv.idx);
+            norm += disc.disc(rank);
+            rank++;
+            if (rank >= cutoff) {
+                break;
+            }
+        }
+        if (norm > 0.0) {
+            nov /= norm;
+        }
+
+        return nov;
+    }
+
+}
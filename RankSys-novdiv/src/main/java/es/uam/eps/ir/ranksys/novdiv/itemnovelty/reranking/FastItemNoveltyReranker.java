@@ -0,0 +1,141 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.novdiv.itemnovelty.reranking;
+
+import es.uam.eps.ir.ranksys.core.IdDouble;
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.ranksys.core.util.Stats;
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.fast.IdxDouble;
+import es.uam.eps.ir.ranksys.fast.utils.topn.IntDoubleTopN;
+import es.uam.eps.ir.ranksys.novdiv.itemnovelty.FastItemNovelty;
+import es.uam.eps.ir.ranksys.novdiv.itemnovelty.ItemNovelty.UserItemNoveltyModel;
+import es.uam.eps.ir.ranksys.novdiv.reranking.FastPermutationReranker;
+import java.util.List;
+
+/**
+ * Fast version of {@link ItemNoveltyReranker}. The novelty of the items is
+ * read from a {@link FastItemNovelty} table into arrays aligned with the
+ * input recommendation, instead of being stored in a map of item ids.
+ * Recommendations of indexes are re-ranked without any mapping to or from
+ * ids.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ *
+ * @param <U> type of the users
+ * @param <I> type of the items
+ */
+public class FastItemNoveltyReranker<U, I> extends FastPermutationReranker<U, I> {
+
+    private final double lambda;
+    private final FastItemNovelty<U, I> novelty;
+    private final boolean norm;
+
+    /**
+     * Constructor.
+     *
+     * @param lambda trade-off between relevance and novelty
+     * @param novelty item novelty model
+     * @param norm normalize the relevance and novelty scores
+     */
+    public FastItemNoveltyReranker(double lambda, FastItemNovelty<U, I> novelty, boolean norm) {
+        this.lambda = lambda;
+        this.novelty = novelty;
+        this.norm = norm;
+    }
+
+    @Override
+    public int[] rerankPermutation(Recommendation<U, I> recommendation, int maxLength) {
+        List<IdDouble<I>> list = recommendation.getItems();
+        int M = list.size();
+        int N = maxLength == 0 ? M : maxLength;
+
+        if (lambda == 0.0) {
+            return getBasePerm(Math.min(N, M));
+        }
+
+        UserItemNoveltyModel<U, I> uinm = novelty.getModel(recommendation.getUser());
+        double[] rels = new double[M];
+        double[] novs = new double[M];
+        for (int i = 0; i < M; i++) {
+            IdDouble<I> iv = list.get(i);
+            rels[i] = iv.v;
+            novs[i] = uinm.novelty(iv.id);
+        }
+
+        return rerankPermutation(rels, novs, N);
+    }
+
+    @Override
+    public int[] rerankPermutation(FastRecommendation recommendation, int maxLength) {
+        List<IdxDouble> list = recommendation.getIidxs();
+        int M = list.size();
+        int N = maxLength == 0 ? M : maxLength;
+
+        if (lambda == 0.0) {
+            return getBasePerm(Math.min(N, M));
+        }
+
+        double[] rels = new double[M];
+        double[] novs = new double[M];
+        for (int i = 0; i < M; i++) {
+            IdxDouble iv = list.get(i);
+            rels[i] = iv.v;
+            novs[i] = novelty.novelty(iv.idx);
+        }
+
+        return rerankPermutation(rels, novs, N);
+    }
+
+    private int[] rerankPermutation(double[] rels, double[] novs, int N) {
+        int M = rels.length;
+
+        Stats relStats = new Stats();
+        Stats novStats = new Stats();
+        for (int i = 0; i < M; i++) {
+            relStats.accept(rels[i]);
+            novStats.accept(novs[i]);
+        }
+
+        IntDoubleTopN topN = new IntDoubleTopN(N);
+        for (int i = 0; i < M; i++) {
+            topN.add(M - i, (1 - lambda) * norm(rels[i], relStats) + lambda * norm(novs[i], novStats));
+        }
+        topN.sort();
+
+        return topN.reverseStream()
+                .mapToInt(e -> M - e.getIntKey())
+                .toArray();
+    }
+
+    /**
+     * Returns the normalized value of a relevance or novelty score.
+     *
+     * @param score the relevance or novelty score
+     * @param stats the relevance or novelty statistics
+     * @return the normalized score
+     */
+    protected double norm(double score, Stats stats) {
+        if (norm) {
+            return (score - stats.getMean()) / stats.getStandardDeviation();
+        } else {
+            return score;
+        }
+    }
+}
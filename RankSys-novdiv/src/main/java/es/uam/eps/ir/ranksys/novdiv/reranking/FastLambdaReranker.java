@@ -0,0 +1,225 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.novdiv.reranking;
+
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.ranksys.core.util.Stats;
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.fast.IdxDouble;
+import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
+import es.uam.eps.ir.ranksys.fast.index.FastUserIndex;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import static java.lang.Math.min;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Linear combination re-ranker whose novelty component is evaluated on item
+ * indexes. The greedy selection of {@link LambdaReranker} is done by a nested
+ * {@link FastLambdaUserReranker} over the arrays of indexes and scores of a
+ * fast recommendation, so that recommendations of indexes are re-ranked
+ * without any mapping to or from ids. Recommendations of ids are converted
+ * to indexes before the re-ranking.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ *
+ * @param <U> type of the users
+ * @param <I> type of the items
+ */
+public abstract class FastLambdaReranker<U, I> extends LambdaReranker<U, I> implements FastReranker<U, I> {
+
+    /**
+     * Fast user index.
+     */
+    protected final FastUserIndex<U> userIndex;
+
+    /**
+     * Fast item index.
+     */
+    protected final FastItemIndex<I> itemIndex;
+
+    /**
+     * Constructor.
+     *
+     * @param userIndex fast user index
+     * @param itemIndex fast item index
+     * @param lambda trade-off parameter of the linear combination
+     * @param cutoff how many items are re-ranked by the greedy selection.
+     * @param norm decides whether apply a normalization of the values of the
+     * component at each selection step
+     */
+    public FastLambdaReranker(FastUserIndex<U> userIndex, FastItemIndex<I> itemIndex, double lambda, int cutoff, boolean norm) {
+        super(lambda, cutoff, norm);
+        this.userIndex = userIndex;
+        this.itemIndex = itemIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The recommendation is converted to indexes and re-ranked by
+     * {@link #getFastUserReranker(java.lang.Object, es.uam.eps.ir.ranksys.fast.FastRecommendation, int)}.
+     * Items not in the item index get index -1.
+     */
+    @Override
+    public int[] rerankPermutation(Recommendation<U, I> recommendation, int maxLength) {
+        if (lambda == 0.0) {
+            return getBasePerm(min(maxLength, recommendation.getItems().size()));
+        }
+
+        List<IdxDouble> iidxs = recommendation.getItems().stream()
+                .map(iv -> new IdxDouble(itemIndex.item2iidx(iv.id), iv.v))
+                .collect(Collectors.toList());
+        FastRecommendation frec = new FastRecommendation(userIndex.user2uidx(recommendation.getUser()), iidxs);
+
+        return getFastUserReranker(recommendation.getUser(), frec, maxLength).rerankPermutation();
+    }
+
+    /**
+     * Returns the permutation that is applied to the input fast
+     * recommendation to generate the re-ranked recommendation.
+     *
+     * @param recommendation input recommendation
+     * @param maxLength maximum length of the permutation
+     * @return permutation that encodes the re-ranking
+     */
+    public int[] rerankPermutation(FastRecommendation recommendation, int maxLength) {
+        if (lambda == 0.0) {
+            return getBasePerm(min(maxLength, recommendation.getIidxs().size()));
+        }
+
+        U user = userIndex.uidx2user(recommendation.getUidx());
+
+        return getFastUserReranker(user, recommendation, maxLength).rerankPermutation();
+    }
+
+    @Override
+    public FastRecommendation rerankRecommendation(FastRecommendation recommendation, int maxLength) {
+        int[] perm = rerankPermutation(recommendation, maxLength);
+
+        return FastPermutationReranker.permuteRecommendation(recommendation, perm);
+    }
+
+    /**
+     * Not supported, recommendations are re-ranked by the user re-rankers
+     * returned by
+     * {@link #getFastUserReranker(java.lang.Object, es.uam.eps.ir.ranksys.fast.FastRecommendation, int)}.
+     *
+     * @param recommendation input recommendation
+     * @param maxLength maximum length of the re-ranked recommendation
+     * @return nothing
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    protected GreedyUserReranker<U, I> getUserReranker(Recommendation<U, I> recommendation, int maxLength) {
+        throw new UnsupportedOperationException("re-ranking by item indexes");
+    }
+
+    /**
+     * Returns the re-ranker of a single fast recommendation.
+     *
+     * @param user user of the recommendation
+     * @param recommendation input recommendation
+     * @param maxLength maximum length of the re-ranked recommendation
+     * @return user re-ranker
+     */
+    protected abstract FastLambdaUserReranker getFastUserReranker(U user, FastRecommendation recommendation, int maxLength);
+
+    /**
+     * User re-ranker for {@link FastLambdaReranker}.
+     */
+    protected abstract class FastLambdaUserReranker extends FastGreedyUserReranker {
+
+        /**
+         * Statistics about relevance scores.
+         */
+        protected Stats relStats;
+
+        /**
+         * Statistics about novelty scores.
+         */
+        protected Stats novStats;
+
+        /**
+         * Novelty of each item of the input recommendation, by position.
+         * The greedy selection only fills it when the components are
+         * normalized.
+         */
+        protected final double[] novs;
+
+        /**
+         * Constructor.
+         *
+         * @param recommendation input recommendation
+         * @param maxLength maximum length of the re-ranked recommendation
+         */
+        public FastLambdaUserReranker(FastRecommendation recommendation, int maxLength) {
+            super(recommendation, maxLength);
+            this.novs = new double[iidxs.length];
+        }
+
+        /**
+         * Returns the normalized value of a relevance or novelty
+         * score.
+         *
+         * @param score the relevance or novelty score
+         * @param stats the relevance or novelty statistics
+         * @return the normalized score
+         */
+        protected double norm(double score, Stats stats) {
+            if (norm) {
+                return (score - stats.getMean()) / stats.getStandardDeviation();
+            } else {
+                return score;
+            }
+        }
+
+        @Override
+        protected int selectItem(IntSortedSet remainingI) {
+            if (!norm) {
+                return super.selectItem(remainingI);
+            }
+            relStats = new Stats();
+            novStats = new Stats();
+            remainingI.forEach(pos -> {
+                novs[pos] = nov(pos);
+                relStats.accept(scores[pos]);
+                novStats.accept(novs[pos]);
+            });
+            return super.selectItem(remainingI);
+        }
+
+        @Override
+        protected double value(int pos) {
+            if (!norm) {
+                return (1 - lambda) * scores[pos] + lambda * nov(pos);
+            }
+            return (1 - lambda) * norm(scores[pos], relStats) + lambda * norm(novs[pos], novStats);
+        }
+
+        /**
+         * Returns the novelty score of an item.
+         *
+         * @param pos position of the item in the input recommendation
+         * @return the novelty of the item
+         */
+        protected abstract double nov(int pos);
+
+    }
+}
@@ -0,0 +1,70 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.novdiv.reranking;
+
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.fast.IdxDouble;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Abstract re-ranker whose output is a permutation of the input
+ * recommendation, that can be computed either from a recommendation of ids
+ * or from a fast recommendation of indexes.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <U> type of the users
+ * @param <I> type of the items
+ */
+public abstract class FastPermutationReranker<U, I> extends PermutationReranker<U, I> implements FastReranker<U, I> {
+
+    /**
+     * Returns the permutation that is applied to the input fast
+     * recommendation to generate the re-ranked recommendation.
+     *
+     * @param recommendation input recommendation
+     * @param maxLength maximum length of the permutation
+     * @return permutation that encodes the re-ranking
+     */
+    public abstract int[] rerankPermutation(FastRecommendation recommendation, int maxLength);
+
+    @Override
+    public FastRecommendation rerankRecommendation(FastRecommendation recommendation, int maxLength) {
+        int[] perm = rerankPermutation(recommendation, maxLength);
+
+        return permuteRecommendation(recommendation, perm);
+    }
+
+    /**
+     * Applies a permutation to re-rank a fast recommendation.
+     *
+     * @param recommendation input recommendation
+     * @param perm permutation
+     * @return re-ranked recommendation according to the permutation
+     */
+    public static FastRecommendation permuteRecommendation(FastRecommendation recommendation, int[] perm) {
+        List<IdxDouble> from = recommendation.getIidxs();
+        List<IdxDouble> to = new ArrayList<>(perm.length);
+        for (int i = 0; i < perm.length; i++) {
+            to.add(new IdxDouble(from.get(perm[i]).idx, (double) (perm.length - i)));
+        }
+
+        return new FastRecommendation(recommendation.getUidx(), to);
+    }
+}
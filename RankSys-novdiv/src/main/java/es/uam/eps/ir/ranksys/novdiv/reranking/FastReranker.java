@@ -0,0 +1,41 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.novdiv.reranking;
+
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+
+/**
+ * Fast re-ranker. Re-ranks recommendations whose users and items are
+ * identified by index, so that no mapping to or from ids is required.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <U> type of the users
+ * @param <I> type of the items
+ */
+public interface FastReranker<U, I> extends Reranker<U, I> {
+
+    /**
+     * Re-ranks a fast recommendation.
+     *
+     * @param recommendation recommendation to be re-ranked
+     * @param maxLength maximum length of the re-ranking
+     * @return a recommendation that is a re-ranking of the input one
+     */
+    public FastRecommendation rerankRecommendation(FastRecommendation recommendation, int maxLength);
+}
@@ -19,7 +19,11 @@ package es.uam.eps.ir.ranksys.novdiv.reranking;
 
 import es.uam.eps.ir.ranksys.core.IdDouble;
 import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.fast.IdxDouble;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntHeapPriorityQueue;
 import it.unimi.dsi.fastutil.ints.IntLinkedOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntList;
 import it.unimi.dsi.fastutil.ints.IntSortedSet;
@@ -31,7 +35,10 @@ import java.util.stream.IntStream;
 /**
  * Greedy re-ranking. Greedily selects items from an input recommendation
  * according to a selection criterion that is updated after a selection. It
- * requires a nested {@link GreedyUserReranker}.
+ * requires a nested {@link GreedyUserReranker}, whose selection criterion is
+ * evaluated on item ids. Re-rankers whose selection criterion can be
+ * evaluated on item indexes use a nested {@link FastGreedyUserReranker}
+ * instead, see {@link FastLambdaReranker}.
  *
  * @author Saúl Vargas (saul.vargas@uam.es)
  * @author Pablo Castells (pablo.castells@uam.es)
@@ -105,6 +112,9 @@ public abstract class GreedyReranker<U, I> extends PermutationReranker<U, I> {
          * @return permutation to obtain the re-ranking
          */
         public int[] rerankPermutation() {
+            if (isMonotonicallyDecreasing()) {
+                return lazyRerankPermutation();
+            }
 
             List<IdDouble<I>> list = recommendation.getItems();
 
@@ -128,6 +138,85 @@ public abstract class GreedyReranker<U, I> extends PermutationReranker<U, I> {
             return perm.toIntArray();
         }
 
+        /**
+         * Returns the permutation to obtain the re-ranking by lazy greedy
+         * selection. The candidates are kept in a max-heap ordered by
+         * their last computed value, which is an upper bound of their
+         * current value when the objective function is monotonically
+         * decreasing. Only the candidate at the top of the heap is
+         * re-evaluated at each step, and it is selected if its value is
+         * up-to-date. The resulting permutation is the same as the one of
+         * {@link #rerankPermutation()}.
+         *
+         * @return permutation to obtain the re-ranking
+         */
+        protected int[] lazyRerankPermutation() {
+
+            List<IdDouble<I>> list = recommendation.getItems();
+            int n = list.size();
+
+            double[] bounds = new double[n];
+            int[] steps = new int[n];
+            boolean[] selected = new boolean[n];
+            IntHeapPriorityQueue heap = new IntHeapPriorityQueue(new AbstractIntComparator() {
+
+                @Override
+                public int compare(int i, int j) {
+                    int c = Double.compare(bounds[j], bounds[i]);
+                    return c != 0 ? c : Integer.compare(i, j);
+                }
+            });
+
+            for (int i = 0; i < n; i++) {
+                bounds[i] = lazyValue(list.get(i));
+                heap.enqueue(i);
+            }
+
+            IntList perm = new IntArrayList();
+            int step = 0;
+            while (!heap.isEmpty() && perm.size() < min(maxLength, cutoff)) {
+                int i = heap.dequeueInt();
+                if (steps[i] == step) {
+                    perm.add(i);
+                    selected[i] = true;
+                    step++;
+
+                    update(list.get(i));
+                } else {
+                    bounds[i] = lazyValue(list.get(i));
+                    steps[i] = step;
+                    heap.enqueue(i);
+                }
+            }
+
+            for (int i = 0; i < n && perm.size() < min(maxLength, n); i++) {
+                if (!selected[i]) {
+                    perm.add(i);
+                }
+            }
+
+            return perm.toIntArray();
+        }
+
+        private double lazyValue(IdDouble<I> itemValue) {
+            double value = value(itemValue);
+            return isNaN(value) ? Double.NEGATIVE_INFINITY : value;
+        }
+
+        /**
+         * Determines whether the value of the objective function of every
+         * item can only decrease (or stay the same) after each selection,
+         * as it is the case of submodular objectives. If so, the greedy
+         * selection is performed by the more efficient
+         * {@link #lazyRerankPermutation()}. By default, false.
+         *
+         * @return true if the objective function is monotonically decreasing
+         * with the selections, false otherwise
+         */
+        protected boolean isMonotonicallyDecreasing() {
+            return false;
+        }
+
         /**
          * Selects the next element of the permutation that maximizes the 
          * objective function.
@@ -172,4 +261,196 @@ public abstract class GreedyReranker<U, I> extends PermutationReranker<U, I> {
         protected abstract void update(IdDouble<I> bestItemValue);
     }
 
+    /**
+     * Re-ranker of a single fast recommendation. The greedy selection is the
+     * same as that of {@link GreedyUserReranker}, but the items of the input
+     * recommendation are kept in arrays of indexes and scores, and the
+     * objective function is evaluated on positions of these arrays.
+     */
+    protected abstract class FastGreedyUserReranker {
+
+        /**
+         * input recommendation
+         */
+        protected final FastRecommendation recommendation;
+
+        /**
+         * indexes of the items of the input recommendation
+         */
+        protected final int[] iidxs;
+
+        /**
+         * scores of the items of the input recommendation
+         */
+        protected final double[] scores;
+
+        /**
+         * maximum length of the re-ranked recommendation
+         */
+        protected final int maxLength;
+
+        /**
+         * Constructor
+         *
+         * @param recommendation input recommendation
+         * @param maxLength maximum length of the re-ranked recommendation
+         */
+        public FastGreedyUserReranker(FastRecommendation recommendation, int maxLength) {
+            this.recommendation = recommendation;
+            this.maxLength = maxLength;
+
+            List<IdxDouble> list = recommendation.getIidxs();
+            this.iidxs = new int[list.size()];
+            this.scores = new double[list.size()];
+            for (int pos = 0; pos < list.size(); pos++) {
+                iidxs[pos] = list.get(pos).idx;
+                scores[pos] = list.get(pos).v;
+            }
+        }
+
+        /**
+         * Returns the permutation to obtain the re-ranking
+         *
+         * @return permutation to obtain the re-ranking
+         */
+        public int[] rerankPermutation() {
+            if (isMonotonicallyDecreasing()) {
+                return lazyRerankPermutation();
+            }
+
+            int n = iidxs.length;
+
+            IntList perm = new IntArrayList();
+            IntLinkedOpenHashSet remainingI = new IntLinkedOpenHashSet();
+            IntStream.range(0, n).forEach(i -> remainingI.add(i));
+
+            while (!remainingI.isEmpty() && perm.size() < min(maxLength, cutoff)) {
+                int bestI = selectItem(remainingI);
+
+                perm.add(bestI);
+                remainingI.remove(bestI);
+
+                update(bestI);
+            }
+
+            while (perm.size() < min(maxLength, n)) {
+                perm.add(remainingI.removeFirstInt());
+            }
+
+            return perm.toIntArray();
+        }
+
+        /**
+         * Returns the permutation to obtain the re-ranking by lazy greedy
+         * selection, as in {@link GreedyUserReranker#lazyRerankPermutation()}.
+         *
+         * @return permutation to obtain the re-ranking
+         */
+        protected int[] lazyRerankPermutation() {
+            int n = iidxs.length;
+
+            double[] bounds = new double[n];
+            int[] steps = new int[n];
+            boolean[] selected = new boolean[n];
+            IntHeapPriorityQueue heap = new IntHeapPriorityQueue(new AbstractIntComparator() {
+
+                @Override
+                public int compare(int i, int j) {
+                    int c = Double.compare(bounds[j], bounds[i]);
+                    return c != 0 ? c : Integer.compare(i, j);
+                }
+            });
+
+            for (int i = 0; i < n; i++) {
+                bounds[i] = lazyValue(i);
+                heap.enqueue(i);
+            }
+
+            IntList perm = new IntArrayList();
+            int step = 0;
+            while (!heap.isEmpty() && perm.size() < min(maxLength, cutoff)) {
+                int i = heap.dequeueInt();
+                if (steps[i] == step) {
+                    perm.add(i);
+                    selected[i] = true;
+                    step++;
+
+                    update(i);
+                } else {
+                    bounds[i] = lazyValue(i);
+                    steps[i] = step;
+                    heap.enqueue(i);
+                }
+            }
+
+            for (int i = 0; i < n && perm.size() < min(maxLength, n); i++) {
+                if (!selected[i]) {
+                    perm.add(i);
+                }
+            }
+
+            return perm.toIntArray();
+        }
+
+        private double lazyValue(int pos) {
+            double value = value(pos);
+            return isNaN(value) ? Double.NEGATIVE_INFINITY : value;
+        }
+
+        /**
+         * Determines whether the value of the objective function of every
+         * item can only decrease (or stay the same) after each selection, see
+         * {@link GreedyUserReranker#isMonotonicallyDecreasing()}. By default,
+         * false.
+         *
+         * @return true if the objective function is monotonically decreasing
+         * with the selections, false otherwise
+         */
+        protected boolean isMonotonicallyDecreasing() {
+            return false;
+        }
+
+        /**
+         * Selects the next element of the permutation that maximizes the
+         * objective function.
+         *
+         * @param remainingI positions of the original recommendation that have
+         * not been selected yet.
+         * @return the next element of the permutation that maximizes the
+         * objective function.
+         */
+        protected int selectItem(IntSortedSet remainingI) {
+            double[] max = new double[]{Double.NEGATIVE_INFINITY};
+            int[] bestI = new int[]{remainingI.firstInt()};
+            remainingI.forEach(i -> {
+                double value = value(i);
+                if (isNaN(value)) {
+                    return;
+                }
+                if (value > max[0] || (value == max[0] && i < bestI[0])) {
+                    max[0] = value;
+                    bestI[0] = i;
+                }
+            });
+
+            return bestI[0];
+        }
+
+        /**
+         * Objective function that drives the greedy selection.
+         *
+         * @param pos position of the item in the input recommendation
+         * @return value of the function for the item
+         */
+        protected abstract double value(int pos);
+
+        /**
+         * Updates the value of the objective function after a selection.
+         *
+         * @param bestPos position in the input recommendation of the item
+         * that has been selected to be added to the re-ranking
+         */
+        protected abstract void update(int bestPos);
+    }
+
 }
@@ -43,7 +43,11 @@ public abstract class LambdaReranker<U, I> extends GreedyReranker<U, I> {
      * Trade-off parameter of the linear combination.
      */
     protected final double lambda;
-    private final boolean norm;
+
+    /**
+     * Decides whether the components are normalized at each selection step.
+     */
+    protected final boolean norm;
 
     /**
      * Constructor.
@@ -87,7 +91,8 @@ public abstract class LambdaReranker<U, I> extends GreedyReranker<U, I> {
         protected Stats novStats;
 
         /**
-         * Map of the novelty of each item.
+         * Map of the novelty of each item. Only computed when the components
+         * are normalized.
          */
         protected Object2DoubleMap<I> novMap;
 
@@ -119,6 +124,9 @@ public abstract class LambdaReranker<U, I> extends GreedyReranker<U, I> {
         
         @Override
         protected int selectItem(IntSortedSet remainingI, List<IdDouble<I>> list) {
+            if (!norm) {
+                return super.selectItem(remainingI, list);
+            }
             novMap = new Object2DoubleOpenHashMap<>();
             relStats = new Stats();
             novStats = new Stats();
@@ -134,6 +142,9 @@ public abstract class LambdaReranker<U, I> extends GreedyReranker<U, I> {
 
         @Override
         protected double value(IdDouble<I> iv) {
+            if (!norm) {
+                return (1 - lambda) * iv.v + lambda * nov(iv);
+            }
             return (1 - lambda) * norm(iv.v, relStats) + lambda * norm(novMap.getDouble(iv.id), novStats);
         }
 
@@ -18,6 +18,7 @@
 package es.uam.eps.ir.ranksys.novdiv.reranking;
 
 import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
 import static java.lang.Math.min;
 
 /**
@@ -28,11 +29,16 @@ import static java.lang.Math.min;
  * @param <U> type of the users
  * @param <I> type of the items
  */
-public class NullReranker<U, I> extends PermutationReranker<U, I> {
+public class NullReranker<U, I> extends FastPermutationReranker<U, I> {
 
     @Override
     public int[] rerankPermutation(Recommendation<U, I> recommendation, int maxLength) {
         return getBasePerm(min(maxLength, recommendation.getItems().size()));
     }
 
+    @Override
+    public int[] rerankPermutation(FastRecommendation recommendation, int maxLength) {
+        return getBasePerm(min(maxLength, recommendation.getIidxs().size()));
+    }
+
 }
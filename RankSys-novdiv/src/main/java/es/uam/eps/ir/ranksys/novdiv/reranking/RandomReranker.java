@@ -18,6 +18,7 @@
 package es.uam.eps.ir.ranksys.novdiv.reranking;
 
 import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
 import static java.lang.Math.min;
 import java.util.Random;
 
@@ -30,12 +31,19 @@ import java.util.Random;
  * @param <U> type of the users
  * @param <I> type of the items
  */
-public class RandomReranker<U, I> extends PermutationReranker<U, I> {
+public class RandomReranker<U, I> extends FastPermutationReranker<U, I> {
 
     @Override
     public int[] rerankPermutation(Recommendation<U, I> recommendation, int maxLength) {
-        int n = min(maxLength, recommendation.getItems().size());
+        return randomPermutation(min(maxLength, recommendation.getItems().size()));
+    }
+
+    @Override
+    public int[] rerankPermutation(FastRecommendation recommendation, int maxLength) {
+        return randomPermutation(min(maxLength, recommendation.getIidxs().size()));
+    }
 
+    private static int[] randomPermutation(int n) {
         int[] perm = getBasePerm(n);
 
         Random rnd = new Random();
@@ -19,6 +19,7 @@ package es.uam.eps.ir.ranksys.novdiv.reranking;
 
 import es.uam.eps.ir.ranksys.core.IdDouble;
 import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.ranksys.core.util.instrument.Instruments;
 import es.uam.eps.ir.ranksys.fast.FastRecommendation;
 import es.uam.eps.ir.ranksys.fast.IdxDouble;
 import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
@@ -40,6 +41,17 @@ import java.util.stream.Collectors;
  */
 public class RerankingRecommender<U, I> extends AbstractFastRecommender<U, I> {
 
+    /**
+     * Name of the histogram of the time to re-rank a recommendation, in
+     * nanoseconds.
+     */
+    public static final String RERANKING_TIME = "reranking.time";
+
+    /**
+     * Name of the histogram of the lengths of the re-ranked recommendations.
+     */
+    public static final String RERANKING_LENGTH = "reranking.length";
+
     private final FastRecommender<U, I> recommender;
     private final Reranker<U, I> reranker;
 
@@ -59,19 +71,54 @@ public class RerankingRecommender<U, I> extends AbstractFastRecommender<U, I> {
 
     @Override
     public Recommendation<U, I> getRecommendation(U u, int maxLength, Predicate<I> filter) {
-        return reranker.rerankRecommendation(recommender.getRecommendation(u, 0, filter), maxLength);
+        Recommendation<U, I> rec = recommender.getRecommendation(u, 0, filter);
+
+        long time0 = Instruments.start();
+        rec = reranker.rerankRecommendation(rec, maxLength);
+        Instruments.stop(RERANKING_TIME, time0);
+        Instruments.record(RERANKING_LENGTH, rec.getItems().size());
+
+        return rec;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Fast re-rankers, such as the greedy re-rankers extending
+     * {@link FastLambdaReranker}, work directly on the indexes of the input
+     * recommendation. Other permutation re-rankers require a conversion of
+     * the input recommendation to ids, but their permutation is applied to
+     * the input indexes. Otherwise, the input and output recommendations are
+     * converted to and from ids.
+     */
     @Override
     public FastRecommendation getRecommendation(int uidx, int maxLength, IntPredicate filter) {
         FastRecommendation frec = recommender.getRecommendation(uidx, 0, filter);
-        
+
+        long time0 = Instruments.start();
+        frec = rerankRecommendation(uidx, frec, maxLength);
+        Instruments.stop(RERANKING_TIME, time0);
+        Instruments.record(RERANKING_LENGTH, frec.getIidxs().size());
+
+        return frec;
+    }
+
+    private FastRecommendation rerankRecommendation(int uidx, FastRecommendation frec, int maxLength) {
+        if (reranker instanceof FastReranker) {
+            return ((FastReranker<U, I>) reranker).rerankRecommendation(frec, maxLength);
+        }
+
         U user = uidx2user(uidx);
         List<IdDouble<I>> items = frec.getIidxs().stream()
                 .map(iv -> new IdDouble<>(iidx2item(iv.idx), iv.v))
                 .collect(Collectors.toList());
         Recommendation<U, I> rec = new Recommendation<>(user, items);
-        
+
+        if (reranker instanceof PermutationReranker) {
+            int[] perm = ((PermutationReranker<U, I>) reranker).rerankPermutation(rec, maxLength);
+            return FastPermutationReranker.permuteRecommendation(frec, perm);
+        }
+
         rec = reranker.rerankRecommendation(rec, maxLength);
         
         List<IdxDouble> iidxs = rec.getItems().stream()
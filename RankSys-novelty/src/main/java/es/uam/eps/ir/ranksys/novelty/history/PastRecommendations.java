@@ -0,0 +1,360 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.novelty.history;
+
+import es.uam.eps.ir.ranksys.core.IdDouble;
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.ranksys.core.format.RecommendationFormat;
+import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
+import es.uam.eps.ir.ranksys.fast.index.FastUserIndex;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compact store of past recommendations, that answers in logarithmic time
+ * the rank of an item in the last recommendation of a user. Users and items
+ * are mapped to indexes and, for each user, the indexes of the recommended
+ * items are kept sorted together with the rank of their first occurrence.
+ * The arrays can be saved to a binary file and memory-mapped from it, so that
+ * long recommendation histories do not need to be loaded in the heap.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ *
+ * @param <U> type of the users
+ * @param <I> type of the items
+ */
+public class PastRecommendations<U, I> {
+
+    private final FastUserIndex<U> userIndex;
+    private final FastItemIndex<I> itemIndex;
+    private final IntBuffer offsets;
+    private final IntBuffer iidxs;
+    private final IntBuffer ranks;
+
+    private PastRecommendations(FastUserIndex<U> userIndex, FastItemIndex<I> itemIndex, IntBuffer offsets, IntBuffer iidxs, IntBuffer ranks) {
+        this.userIndex = userIndex;
+        this.itemIndex = itemIndex;
+        this.offsets = offsets;
+        this.iidxs = iidxs;
+        this.ranks = ranks;
+    }
+
+    /**
+     * Returns the user index of the store.
+     *
+     * @return user index
+     */
+    public FastUserIndex<U> getUserIndex() {
+        return userIndex;
+    }
+
+    /**
+     * Returns the item index of the store.
+     *
+     * @return item index
+     */
+    public FastItemIndex<I> getItemIndex() {
+        return itemIndex;
+    }
+
+    /**
+     * Checks whether there is a past recommendation for a user.
+     *
+     * @param uidx user index
+     * @return true if the user has a non-empty past recommendation
+     */
+    public boolean hasRecommendation(int uidx) {
+        if (uidx < 0 || uidx >= userIndex.numUsers()) {
+            return false;
+        }
+        return offsets.get(uidx + 1) > offsets.get(uidx);
+    }
+
+    /**
+     * Returns the rank of an item in the past recommendation of a user.
+     *
+     * @param uidx user index
+     * @param iidx item index
+     * @return rank, starting from 0, of the first occurrence of the item in the
+     * past recommendation of the user, or -1 if the item was not recommended
+     */
+    public int getRank(int uidx, int iidx) {
+        if (uidx < 0 || uidx >= userIndex.numUsers() || iidx < 0) {
+            return -1;
+        }
+
+        int low = offsets.get(uidx);
+        int high = offsets.get(uidx + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midIidx = iidxs.get(mid);
+            if (midIidx < iidx) {
+                low = mid + 1;
+            } else if (midIidx > iidx) {
+                high = mid - 1;
+            } else {
+                return ranks.get(mid);
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the rank of an item in the past recommendation of a user.
+     *
+     * @param u user
+     * @param i item
+     * @return rank, starting from 0, of the first occurrence of the item in the
+     * past recommendation of the user, or -1 if the item was not recommended
+     */
+    public int getRank(U u, I i) {
+        return getRank(userIndex.user2uidx(u), itemIndex.item2iidx(i));
+    }
+
+    /**
+     * Saves the store to a binary stream that can be loaded with
+     * {@link #load(InputStream, FastUserIndex, FastItemIndex)} or mapped
+     * with {@link #map(Path, FastUserIndex, FastItemIndex)}.
+     *
+     * @param out output stream
+     * @throws IOException when IO error
+     */
+    public void save(OutputStream out) throws IOException {
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out));
+        int numUsers = userIndex.numUsers();
+        int numEntries = offsets.get(numUsers);
+        dos.writeInt(numUsers);
+        dos.writeInt(numEntries);
+        for (int k = 0; k <= numUsers; k++) {
+            dos.writeInt(offsets.get(k));
+        }
+        for (int k = 0; k < numEntries; k++) {
+            dos.writeInt(iidxs.get(k));
+        }
+        for (int k = 0; k < numEntries; k++) {
+            dos.writeInt(ranks.get(k));
+        }
+        dos.flush();
+    }
+
+    /**
+     * Saves the store to a binary file.
+     *
+     * @param path file path
+     * @throws IOException when IO error
+     */
+    public void save(Path path) throws IOException {
+        try (OutputStream out = new FileOutputStream(path.toFile())) {
+            save(out);
+        }
+    }
+
+    /**
+     * Creates a store from a stream of recommendations. Users and items not
+     * in the indexes are ignored and, if a user has several recommendations,
+     * the last one is kept.
+     *
+     * @param <U> type of the users
+     * @param <I> type of the items
+     * @param recommendations past recommendations
+     * @param userIndex user index
+     * @param itemIndex item index
+     * @return store of past recommendations
+     */
+    public static <U, I> PastRecommendations<U, I> create(Stream<Recommendation<U, I>> recommendations, FastUserIndex<U> userIndex, FastItemIndex<I> itemIndex) {
+        long[][] userEntries = new long[userIndex.numUsers()][];
+        recommendations.forEach(recommendation -> {
+            int uidx = userIndex.user2uidx(recommendation.getUser());
+            if (uidx < 0) {
+                return;
+            }
+
+            List<IdDouble<I>> items = recommendation.getItems();
+            long[] entries = new long[items.size()];
+            int n = 0;
+            for (int rank = 0; rank < items.size(); rank++) {
+                int iidx = itemIndex.item2iidx(items.get(rank).id);
+                if (iidx >= 0) {
+                    entries[n++] = ((long) iidx << 32) | rank;
+                }
+            }
+            Arrays.sort(entries, 0, n);
+
+            int m = 0;
+            for (int k = 0; k < n; k++) {
+                if (m == 0 || (entries[k] >>> 32) != (entries[m - 1] >>> 32)) {
+                    entries[m++] = entries[k];
+                }
+            }
+            userEntries[uidx] = Arrays.copyOf(entries, m);
+        });
+
+        int numUsers = userIndex.numUsers();
+        int[] offsets = new int[numUsers + 1];
+        for (int uidx = 0; uidx < numUsers; uidx++) {
+            offsets[uidx + 1] = offsets[uidx] + (userEntries[uidx] == null ? 0 : userEntries[uidx].length);
+        }
+        int[] iidxs = new int[offsets[numUsers]];
+        int[] ranks = new int[offsets[numUsers]];
+        for (int uidx = 0; uidx < numUsers; uidx++) {
+            if (userEntries[uidx] == null) {
+                continue;
+            }
+            int k = offsets[uidx];
+            for (long entry : userEntries[uidx]) {
+                iidxs[k] = (int) (entry >>> 32);
+                ranks[k] = (int) entry;
+                k++;
+            }
+            userEntries[uidx] = null;
+        }
+
+        return new PastRecommendations<>(userIndex, itemIndex, IntBuffer.wrap(offsets), IntBuffer.wrap(iidxs), IntBuffer.wrap(ranks));
+    }
+
+    /**
+     * Creates a store from a file of recommendations.
+     *
+     * @param <U> type of the users
+     * @param <I> type of the items
+     * @param path path of the recommendation file
+     * @param format format of the recommendation file
+     * @param userIndex user index
+     * @param itemIndex item index
+     * @return store of past recommendations
+     * @throws IOException when IO error
+     */
+    public static <U, I> PastRecommendations<U, I> create(String path, RecommendationFormat<U, I> format, FastUserIndex<U> userIndex, FastItemIndex<I> itemIndex) throws IOException {
+        return create(format.getReader(path).readAll(), userIndex, itemIndex);
+    }
+
+    /**
+     * Loads in the heap a store saved with {@link #save(OutputStream)}.
+     *
+     * @param <U> type of the users
+     * @param <I> type of the items
+     * @param in input stream
+     * @param userIndex user index of the saved store
+     * @param itemIndex item index of the saved store
+     * @return store of past recommendations
+     * @throws IOException when IO error or when the store does not match the
+     * user index
+     */
+    public static <U, I> PastRecommendations<U, I> load(InputStream in, FastUserIndex<U> userIndex, FastItemIndex<I> itemIndex) throws IOException {
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(in));
+        int numUsers = dis.readInt();
+        int numEntries = dis.readInt();
+        checkNumUsers(numUsers, userIndex);
+
+        int[] offsets = readInts(dis, numUsers + 1);
+        int[] iidxs = readInts(dis, numEntries);
+        int[] ranks = readInts(dis, numEntries);
+
+        return new PastRecommendations<>(userIndex, itemIndex, IntBuffer.wrap(offsets), IntBuffer.wrap(iidxs), IntBuffer.wrap(ranks));
+    }
+
+    /**
+     * Loads in the heap a store saved with {@link #save(Path)}.
+     *
+     * @param <U> type of the users
+     * @param <I> type of the items
+     * @param path file path
+     * @param userIndex user index of the saved store
+     * @param itemIndex item index of the saved store
+     * @return store of past recommendations
+     * @throws IOException when IO error or when the store does not match the
+     * user index
+     */
+    public static <U, I> PastRecommendations<U, I> load(Path path, FastUserIndex<U> userIndex, FastItemIndex<I> itemIndex) throws IOException {
+        try (InputStream in = new FileInputStream(path.toFile())) {
+            return load(in, userIndex, itemIndex);
+        }
+    }
+
+    /**
+     * Maps into memory a store saved with {@link #save(Path)}, without
+     * loading its arrays in the heap. The mapping remains valid after the
+     * file channel is closed.
+     *
+     * @param <U> type of the users
+     * @param <I> type of the items
+     * @param path file path
+     * @param userIndex user index of the saved store
+     * @param itemIndex item index of the saved store
+     * @return store of past recommendations
+     * @throws IOException when IO error or when the store does not match the
+     * user index
+     */
+    public static <U, I> PastRecommendations<U, I> map(Path path, FastUserIndex<U> userIndex, FastItemIndex<I> itemIndex) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(8);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("truncated header");
+                }
+            }
+            header.flip();
+            int numUsers = header.getInt();
+            int numEntries = header.getInt();
+            checkNumUsers(numUsers, userIndex);
+
+            long position = 8;
+            IntBuffer offsets = map(channel, position, numUsers + 1);
+            position += 4L * (numUsers + 1);
+            IntBuffer iidxs = map(channel, position, numEntries);
+            position += 4L * numEntries;
+            IntBuffer ranks = map(channel, position, numEntries);
+
+            return new PastRecommendations<>(userIndex, itemIndex, offsets, iidxs, ranks);
+        }
+    }
+
+    private static IntBuffer map(FileChannel channel, long position, int length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * length).asIntBuffer();
+    }
+
+    private static int[] readInts(DataInputStream dis, int length) throws IOException {
+        int[] a = new int[length];
+        for (int k = 0; k < length; k++) {
+            a[k] = dis.readInt();
+        }
+        return a;
+    }
+
+    private static void checkNumUsers(int numUsers, FastUserIndex<?> userIndex) throws IOException {
+        if (numUsers != userIndex.numUsers()) {
+            throw new IOException("store of " + numUsers + " users does not match an index of " + userIndex.numUsers() + " users");
+        }
+    }
+}
@@ -17,11 +17,12 @@
  */
 package es.uam.eps.ir.ranksys.novelty.inverted.neighborhood;
 
+import es.uam.eps.ir.ranksys.core.util.instrument.Instruments;
 import es.uam.eps.ir.ranksys.fast.IdxDouble;
-import es.uam.eps.ir.ranksys.fast.IdxObject;
 import es.uam.eps.ir.ranksys.nn.neighborhood.Neighborhood;
-import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
-import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.Arrays;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.IntPredicate;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -32,12 +33,28 @@ import java.util.stream.Stream;
  * S. Vargas and P. Castells. Improving sales diversity by recommending
  * users to items.
  *
+ * The inverted neighborhoods are stored in compressed sparse row form: the
+ * neighbors of all users/items are kept in two flat arrays of indexes and
+ * similarities, and an array of offsets delimits the neighbors of each one.
+ * The inversion is done in parallel in two passes: the forward neighborhoods
+ * are calculated while counting the in-degree of each user/item, and then
+ * scattered into their positions after a prefix sum of the counts. Each
+ * inverted neighborhood is finally sorted by index, so that the result does
+ * not depend on the order in which the forward neighborhoods are scattered.
+ *
  * @author Saúl Vargas (saul.vargas@uam.es)
  */
 public class InvertedNeighborhood implements Neighborhood {
 
-    private final IntArrayList[] idxla;
-    private final DoubleArrayList[] simla;
+    /**
+     * Name of the histogram of the time to invert all the neighborhoods, in
+     * nanoseconds.
+     */
+    public static final String BUILD_TIME = "neighborhood.inverted.build_time";
+
+    private final int[] offsets;
+    private final int[] idxs;
+    private final double[] sims;
 
     /**
      * Constructor.
@@ -48,32 +65,80 @@ public class InvertedNeighborhood implements Neighborhood {
      * neighborhood
      */
     public InvertedNeighborhood(int n, Neighborhood neighborhood, IntPredicate filter) {
-        this.idxla = new IntArrayList[n];
-        this.simla = new DoubleArrayList[n];
+        long time0 = Instruments.start();
+
+        boolean[] inverted = new boolean[n];
+        IntStream.range(0, n).parallel().forEach(idx -> inverted[idx] = filter.test(idx));
 
-        IntStream.range(0, n).parallel().filter(filter).forEach(idx -> {
-            this.idxla[idx] = new IntArrayList();
-            this.simla[idx] = new DoubleArrayList();
+        int[][] forwardIdxs = new int[n][];
+        double[][] forwardSims = new double[n][];
+        AtomicIntegerArray counts = new AtomicIntegerArray(n);
+        IntStream.range(0, n).parallel().forEach(idx -> {
+            IdxDouble[] neighbors = neighborhood.getNeighbors(idx)
+                    .filter(is -> inverted[is.idx])
+                    .toArray(IdxDouble[]::new);
+            int[] nidxs = new int[neighbors.length];
+            double[] nsims = new double[neighbors.length];
+            for (int k = 0; k < neighbors.length; k++) {
+                nidxs[k] = neighbors[k].idx;
+                nsims[k] = neighbors[k].v;
+                counts.incrementAndGet(nidxs[k]);
+            }
+            forwardIdxs[idx] = nidxs;
+            forwardSims[idx] = nsims;
         });
 
-        IntStream.range(0, n).parallel().mapToObj(idx -> {
-            return new IdxObject<>(idx, neighborhood.getNeighbors(idx));
-        }).forEachOrdered(in -> {
-            int idx = in.idx;
-            in.v.forEach(is -> {
-                if (this.idxla[is.idx] != null) {
-                    this.idxla[is.idx].add(idx);
-                    this.simla[is.idx].add(is.v);
+        this.offsets = new int[n + 1];
+        for (int idx = 0; idx < n; idx++) {
+            offsets[idx + 1] = offsets[idx] + counts.get(idx);
+        }
+        this.idxs = new int[offsets[n]];
+        this.sims = new double[offsets[n]];
+
+        AtomicIntegerArray cursors = new AtomicIntegerArray(offsets);
+        IntStream.range(0, n).parallel().forEach(idx -> {
+            int[] nidxs = forwardIdxs[idx];
+            double[] nsims = forwardSims[idx];
+            for (int k = 0; k < nidxs.length; k++) {
+                int pos = cursors.getAndIncrement(nidxs[k]);
+                idxs[pos] = idx;
+                sims[pos] = nsims[k];
+            }
+            forwardIdxs[idx] = null;
+            forwardSims[idx] = null;
+        });
+
+        IntStream.range(0, n).parallel().filter(idx -> !isSorted(offsets[idx], offsets[idx + 1])).forEach(idx -> {
+            Arrays.quickSort(offsets[idx], offsets[idx + 1], new AbstractIntComparator() {
+                @Override
+                public int compare(int k1, int k2) {
+                    return Integer.compare(idxs[k1], idxs[k2]);
                 }
+            }, (k1, k2) -> {
+                int i = idxs[k1];
+                idxs[k1] = idxs[k2];
+                idxs[k2] = i;
+                double s = sims[k1];
+                sims[k1] = sims[k2];
+                sims[k2] = s;
             });
         });
+
+        Instruments.stop(BUILD_TIME, time0);
+    }
+
+    private boolean isSorted(int from, int to) {
+        for (int k = from + 1; k < to; k++) {
+            if (idxs[k - 1] > idxs[k]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public Stream<IdxDouble> getNeighbors(int idx) {
-        IntArrayList idxl = idxla[idx];
-        DoubleArrayList siml = simla[idx];
-        return IntStream.range(0, idxl.size()).mapToObj(i -> new IdxDouble(idxl.getInt(i), siml.getDouble(i)));
+        return IntStream.range(offsets[idx], offsets[idx + 1]).mapToObj(k -> new IdxDouble(idxs[k], sims[k]));
     }
 
 }
@@ -0,0 +1,84 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.novelty.longtail;
+
+import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
+import es.uam.eps.ir.ranksys.fast.preference.FastPreferenceData;
+import es.uam.eps.ir.ranksys.novdiv.itemnovelty.FastItemNovelty;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Fast popularity complement item novelty model, whose novelty values are
+ * stored in an array indexed by item index.
+ *
+ * S. Vargas. Novelty and diversity evaluation and enhancement in Recommender
+ * Systems. PhD Thesis.
+ * 
+ * S. Vargas and P. Castells. Rank and relevance in novelty and diversity for
+ * Recommender Systems. RecSys 2011.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ * 
+ * @param <U> type of the users
+ * @param <I> type of the items
+ */
+public class FastPCItemNovelty<U, I> extends FastItemNovelty<U, I> {
+
+    /**
+     * Constructor
+     *
+     * @param recommenderData preference data
+     */
+    public FastPCItemNovelty(FastPreferenceData<U, I, ?> recommenderData) {
+        super(recommenderData, getNovelties(recommenderData), 1.0);
+    }
+
+    private FastPCItemNovelty(FastItemNovelty<U, I> other) {
+        super(other);
+    }
+
+    private static double[] getNovelties(FastPreferenceData<?, ?, ?> recommenderData) {
+        double[] novelties = new double[recommenderData.numItems()];
+        Arrays.fill(novelties, 1.0);
+        int numUsers = recommenderData.numUsersWithPreferences();
+        recommenderData.getIidxWithPreferences().forEach(iidx -> {
+            novelties[iidx] = 1 - recommenderData.numUsers(iidx) / (double) numUsers;
+        });
+
+        return novelties;
+    }
+
+    /**
+     * Loads a popularity complement table saved with
+     * {@link #save(java.io.OutputStream)}.
+     *
+     * @param <U> type of the users
+     * @param <I> type of the items
+     * @param in input stream
+     * @param itemIndex item index of the saved table
+     * @return popularity complement item novelty model
+     * @throws IOException when IO error or when the table does not match the
+     * item index
+     */
+    public static <U, I> FastPCItemNovelty<U, I> load(InputStream in, FastItemIndex<I> itemIndex) throws IOException {
+        return new FastPCItemNovelty<>(FastItemNovelty.<U, I>load(in, itemIndex));
+    }
+}
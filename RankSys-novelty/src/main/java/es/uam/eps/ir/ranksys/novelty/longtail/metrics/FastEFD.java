@@ -0,0 +1,51 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.novelty.longtail.metrics;
+
+import es.uam.eps.ir.ranksys.metrics.fast.rel.FastRelevanceModel;
+import es.uam.eps.ir.ranksys.metrics.rank.RankingDiscountModel;
+import es.uam.eps.ir.ranksys.novdiv.itemnovelty.metrics.FastItemNoveltyMetric;
+import es.uam.eps.ir.ranksys.novelty.longtail.FastFDItemNovelty;
+
+/**
+ * Fast version of {@link EFD}, where items are identified by index.
+ *
+ * S. Vargas. Novelty and diversity evaluation and enhancement in Recommender
+ * Systems. PhD Thesis.
+ * 
+ * S. Vargas and P. Castells. Rank and relevance in novelty and diversity for
+ * Recommender Systems. RecSys 2011.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ * @author Pablo Castells (pablo.castells@uam.es)
+ */
+public class FastEFD extends FastItemNoveltyMetric {
+
+    /**
+     * Constructor.
+     *
+     * @param cutoff maximum size of the recommendation list that is evaluated
+     * @param novelty novelty model
+     * @param relModel relevance model
+     * @param disc ranking discount model
+     */
+    public FastEFD(int cutoff, FastFDItemNovelty<?, ?> novelty, FastRelevanceModel relModel, RankingDiscountModel disc) {
+        super(cutoff, novelty, relModel, disc);
+    }
+
+}
@@ -20,6 +20,7 @@ package es.uam.eps.ir.ranksys.novelty.sales;
 import es.uam.eps.ir.ranksys.metrics.rank.RankingDiscountModel;
 import es.uam.eps.ir.ranksys.novdiv.itemnovelty.ItemNovelty;
 import es.uam.eps.ir.ranksys.novdiv.itemnovelty.ItemNovelty.UserItemNoveltyModel;
+import es.uam.eps.ir.ranksys.novelty.history.PastRecommendations;
 import java.util.List;
 import java.util.function.Function;
 
@@ -39,6 +40,7 @@ public class ISDCItemNovelty<U, I> extends ItemNovelty<U, I> {
 
     private final int nSystems;
     private final Function<U, List<List<I>>> otherUserRecommendations;
+    private final List<PastRecommendations<U, I>> otherRecommendationStores;
     private final RankingDiscountModel disc;
 
     /**
@@ -52,11 +54,65 @@ public class ISDCItemNovelty<U, I> extends ItemNovelty<U, I> {
         super(false, null);
         this.nSystems = nSystems;
         this.otherUserRecommendations = otherUserRecommendations;
+        this.otherRecommendationStores = null;
+        this.disc = disc;
+    }
+
+    /**
+     * Constructor with a bounded cache of user item novelty models.
+     *
+     * @param cacheSize maximum number of user item novelty models cached
+     * @param nSystems number of compared systems
+     * @param otherUserRecommendations other systems recommendations
+     * @param disc ranking discount model
+     */
+    public ISDCItemNovelty(int cacheSize, int nSystems, Function<U, List<List<I>>> otherUserRecommendations, RankingDiscountModel disc) {
+        super(cacheSize);
+        this.nSystems = nSystems;
+        this.otherUserRecommendations = otherUserRecommendations;
+        this.otherRecommendationStores = null;
+        this.disc = disc;
+    }
+
+    /**
+     * Constructor in which the ranks of the items in the recommendations of
+     * the other systems are looked up in indexed stores, one per system.
+     *
+     * @param nSystems number of compared systems
+     * @param otherRecommendations stores of the other systems recommendations
+     * @param disc ranking discount model
+     */
+    public ISDCItemNovelty(int nSystems, List<PastRecommendations<U, I>> otherRecommendations, RankingDiscountModel disc) {
+        super(false, null);
+        this.nSystems = nSystems;
+        this.otherUserRecommendations = null;
+        this.otherRecommendationStores = otherRecommendations;
+        this.disc = disc;
+    }
+
+    /**
+     * Constructor in which the ranks of the items in the recommendations of
+     * the other systems are looked up in indexed stores, one per system, with
+     * a bounded cache of user item novelty models.
+     *
+     * @param cacheSize maximum number of user item novelty models cached
+     * @param nSystems number of compared systems
+     * @param otherRecommendations stores of the other systems recommendations
+     * @param disc ranking discount model
+     */
+    public ISDCItemNovelty(int cacheSize, int nSystems, List<PastRecommendations<U, I>> otherRecommendations, RankingDiscountModel disc) {
+        super(cacheSize);
+        this.nSystems = nSystems;
+        this.otherUserRecommendations = null;
+        this.otherRecommendationStores = otherRecommendations;
         this.disc = disc;
     }
 
     @Override
     protected UserItemNoveltyModel<U, I> get(U u) {
+        if (otherRecommendationStores != null) {
+            return new UserIndexedISDCItemNoveltyModel(u);
+        }
         return new UserISDCItemNoveltyModel(otherUserRecommendations.apply(u));
     }
 
@@ -90,4 +146,34 @@ public class ISDCItemNovelty<U, I> extends ItemNovelty<U, I> {
 
     }
 
+    private class UserIndexedISDCItemNoveltyModel implements UserItemNoveltyModel<U, I> {
+
+        private final int[] uidxs;
+
+        public UserIndexedISDCItemNoveltyModel(U u) {
+            this.uidxs = otherRecommendationStores.stream()
+                    .mapToInt(store -> store.getUserIndex().user2uidx(u))
+                    .toArray();
+        }
+
+        @Override
+        public double novelty(I i) {
+            double nov = 0.0;
+            for (int s = 0; s < uidxs.length; s++) {
+                PastRecommendations<U, I> store = otherRecommendationStores.get(s);
+                int k = store.getRank(uidxs[s], store.getItemIndex().item2iidx(i));
+
+                if (k == -1) {
+                    nov += 1.0;
+                } else {
+                    nov += 1 - disc.disc(k);
+                }
+            }
+            nov /= nSystems;
+
+            return nov;
+        }
+
+    }
+
 }
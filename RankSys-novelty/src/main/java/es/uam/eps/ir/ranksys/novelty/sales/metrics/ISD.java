@@ -19,6 +19,7 @@ package es.uam.eps.ir.ranksys.novelty.sales.metrics;
 
 import es.uam.eps.ir.ranksys.metrics.rank.NoDiscountModel;
 import es.uam.eps.ir.ranksys.metrics.rel.NoRelevanceModel;
+import es.uam.eps.ir.ranksys.novelty.history.PastRecommendations;
 import es.uam.eps.ir.ranksys.novelty.sales.ISDCItemNovelty;
 import java.util.List;
 import java.util.function.Function;
@@ -47,5 +48,16 @@ public class ISD<U, I> extends EISDC<U, I> {
     public ISD(int cutoff, int nSystems, Function<U, List<List<I>>> otherUserRecommendations) {
         super(cutoff, new ISDCItemNovelty<>(nSystems, otherUserRecommendations, new NoDiscountModel()), new NoRelevanceModel<>(), new NoDiscountModel());
     }
+
+    /**
+     * Constructor with indexed stores of the other systems recommendations.
+     *
+     * @param cutoff maximum size of the recommendation list that is evaluated
+     * @param nSystems number of compared systems
+     * @param otherRecommendations stores of the other systems recommendations
+     */
+    public ISD(int cutoff, int nSystems, List<PastRecommendations<U, I>> otherRecommendations) {
+        super(cutoff, new ISDCItemNovelty<>(nSystems, otherRecommendations, new NoDiscountModel()), new NoRelevanceModel<>(), new NoDiscountModel());
+    }
     
 }
@@ -19,6 +19,7 @@ package es.uam.eps.ir.ranksys.novelty.temporal;
 
 import es.uam.eps.ir.ranksys.novdiv.itemnovelty.ItemNovelty;
 import es.uam.eps.ir.ranksys.metrics.rank.RankingDiscountModel;
+import es.uam.eps.ir.ranksys.novelty.history.PastRecommendations;
 import java.util.List;
 import java.util.function.Function;
 
@@ -40,6 +41,7 @@ import java.util.function.Function;
 public class TDItemNovelty<U, I> extends ItemNovelty<U, I> {
 
     private final Function<U, List<I>> pastRecommendations;
+    private final PastRecommendations<U, I> pastRecommendationStore;
     private final RankingDiscountModel disc;
 
     /**
@@ -51,11 +53,65 @@ public class TDItemNovelty<U, I> extends ItemNovelty<U, I> {
     public TDItemNovelty(Function<U, List<I>> pastRecommendations, RankingDiscountModel disc) {
         super();
         this.pastRecommendations = pastRecommendations;
+        this.pastRecommendationStore = null;
+        this.disc = disc;
+    }
+
+    /**
+     * Constructor with a bounded cache of user item novelty models.
+     *
+     * @param cacheSize maximum number of user item novelty models cached
+     * @param pastRecommendations previous recommendations
+     * @param disc ranking discount model
+     */
+    public TDItemNovelty(int cacheSize, Function<U, List<I>> pastRecommendations, RankingDiscountModel disc) {
+        super(cacheSize);
+        this.pastRecommendations = pastRecommendations;
+        this.pastRecommendationStore = null;
+        this.disc = disc;
+    }
+
+    /**
+     * Constructor in which the ranks of the items in the previous
+     * recommendations are looked up in an indexed store.
+     *
+     * @param pastRecommendations store of previous recommendations
+     * @param disc ranking discount model
+     */
+    public TDItemNovelty(PastRecommendations<U, I> pastRecommendations, RankingDiscountModel disc) {
+        super();
+        this.pastRecommendations = null;
+        this.pastRecommendationStore = pastRecommendations;
+        this.disc = disc;
+    }
+
+    /**
+     * Constructor in which the ranks of the items in the previous
+     * recommendations are looked up in an indexed store, with a bounded
+     * cache of user item novelty models.
+     *
+     * @param cacheSize maximum number of user item novelty models cached
+     * @param pastRecommendations store of previous recommendations
+     * @param disc ranking discount model
+     */
+    public TDItemNovelty(int cacheSize, PastRecommendations<U, I> pastRecommendations, RankingDiscountModel disc) {
+        super(cacheSize);
+        this.pastRecommendations = null;
+        this.pastRecommendationStore = pastRecommendations;
         this.disc = disc;
     }
 
     @Override
     protected UserItemNoveltyModel<U, I> get(U u) {
+        if (pastRecommendationStore != null) {
+            int uidx = pastRecommendationStore.getUserIndex().user2uidx(u);
+            if (uidx < 0) {
+                return null;
+            } else {
+                return new UserIndexedTimeItemNoveltyModel(uidx);
+            }
+        }
+
         List<I> lastRecommendation = pastRecommendations.apply(u);
         if (lastRecommendation == null) {
             return null;
@@ -85,4 +141,25 @@ public class TDItemNovelty<U, I> extends ItemNovelty<U, I> {
 
     }
 
+    private class UserIndexedTimeItemNoveltyModel implements UserItemNoveltyModel<U, I> {
+
+        private final int uidx;
+
+        public UserIndexedTimeItemNoveltyModel(int uidx) {
+            this.uidx = uidx;
+        }
+
+        @Override
+        public double novelty(I i) {
+            int k = pastRecommendationStore.getRank(uidx, pastRecommendationStore.getItemIndex().item2iidx(i));
+
+            if (k == -1) {
+                return 1.0;
+            } else {
+                return 1 - disc.disc(k);
+            }
+        }
+
+    }
+
 }
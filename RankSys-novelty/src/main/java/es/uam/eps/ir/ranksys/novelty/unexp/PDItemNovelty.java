@@ -55,6 +55,19 @@ public class PDItemNovelty<U, I> extends ItemNovelty<U, I> {
         this.dist = dist;
     }
 
+    /**
+     * Constructor with a bounded cache of profile distance models.
+     *
+     * @param cacheSize maximum number of user models cached
+     * @param recommenderData preference data
+     * @param dist item distance model
+     */
+    public PDItemNovelty(int cacheSize, PreferenceData<U, I, ?> recommenderData, ItemDistanceModel<I> dist) {
+        super(cacheSize);
+        this.recommenderData = recommenderData;
+        this.dist = dist;
+    }
+
     @Override
     protected UserItemNoveltyModel<U, I> get(U u) {
         return new UserPDItemNovelty(u);
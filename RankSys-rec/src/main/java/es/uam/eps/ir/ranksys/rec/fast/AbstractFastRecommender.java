@@ -29,6 +29,7 @@ import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Abstract (fast) recommender. It implements the free and candidate-based 
@@ -109,6 +110,19 @@ public abstract class AbstractFastRecommender<U, I> extends AbstractRecommender<
     @Override
     public abstract FastRecommendation getRecommendation(int uidx, int maxLength, IntPredicate filter);
 
+    /**
+     * {@inheritDoc}
+     *
+     * The candidates are mapped to item indexes, discarding those not in the
+     * item index, and ranked with the candidates method by index.
+     */
+    @Override
+    public Recommendation<U, I> getRecommendation(U u, Stream<I> candidates) {
+        FastRecommendation rec = getRecommendation(user2uidx(u), candidates.mapToInt(i -> item2iidx(i)).filter(iidx -> iidx >= 0));
+
+        return new Recommendation<>(uidx2user(rec.getUidx()), rec.getIidxs().stream().map(iv -> new IdDouble<>(iidx2item(iv.idx), iv.v)).collect(Collectors.toList()));
+    }
+
     @Override
     public FastRecommendation getRecommendation(int uidx, IntStream candidates) {
         IntSet set = new IntOpenHashSet();
@@ -0,0 +1,47 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.rec.fast;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Item filter by index that, in addition to testing items one by one, can be
+ * applied in bulk to a dense array of item scores. Recommenders that
+ * calculate the scores of all the items in an array use the bulk version,
+ * which for filters that only exclude a few items is much cheaper than
+ * testing every item of the catalog.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+public interface FastItemFilter extends IntPredicate {
+
+    /**
+     * Applies the filter to a dense array of scores indexed by item index,
+     * replacing with NaN the scores of the items that do not pass the filter.
+     * Recommenders using this method discard items with NaN scores.
+     *
+     * @param scores array of item scores
+     */
+    public default void filter(double[] scores) {
+        for (int iidx = 0; iidx < scores.length; iidx++) {
+            if (!test(iidx)) {
+                scores[iidx] = Double.NaN;
+            }
+        }
+    }
+}
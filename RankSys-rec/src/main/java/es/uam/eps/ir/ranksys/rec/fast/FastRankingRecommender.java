@@ -17,16 +17,21 @@
  */
 package es.uam.eps.ir.ranksys.rec.fast;
 
+import es.uam.eps.ir.ranksys.core.util.instrument.Instruments;
 import es.uam.eps.ir.ranksys.fast.utils.topn.IntDoubleTopN;
 import es.uam.eps.ir.ranksys.fast.IdxDouble;
 import es.uam.eps.ir.ranksys.fast.FastRecommendation;
 import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
 import es.uam.eps.ir.ranksys.fast.index.FastUserIndex;
 import it.unimi.dsi.fastutil.ints.Int2DoubleMap;
+import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Recommender for top-n recommendations. It selects and orders the items whose
@@ -39,6 +44,11 @@ import java.util.stream.Collectors;
  */
 public abstract class FastRankingRecommender<U, I> extends AbstractFastRecommender<U, I> {
 
+    /**
+     * Name of the histogram of the number of items scored for a user.
+     */
+    public static final String CANDIDATES = "recommender.candidates";
+
     /**
      * Constructor.
      *
@@ -56,6 +66,7 @@ public abstract class FastRankingRecommender<U, I> extends AbstractFastRecommend
         }
 
         Int2DoubleMap scoresMap = getScoresMap(uidx);
+        Instruments.record(CANDIDATES, scoresMap.size());
 
         if (maxLength == 0) {
             maxLength = scoresMap.size();
@@ -79,6 +90,36 @@ public abstract class FastRankingRecommender<U, I> extends AbstractFastRecommend
         return new FastRecommendation(uidx, items);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Only the scores of the candidates are predicted, see
+     * getScoresMap(int, IntSet).
+     */
+    @Override
+    public FastRecommendation getRecommendation(int uidx, IntStream candidates) {
+        if (uidx == -1) {
+            return new FastRecommendation(uidx, new ArrayList<>(0));
+        }
+
+        IntSet candidateSet = new IntOpenHashSet();
+        candidates.forEach(iidx -> candidateSet.add(iidx));
+
+        Int2DoubleMap scoresMap = getScoresMap(uidx, candidateSet);
+        Instruments.record(CANDIDATES, scoresMap.size());
+
+        final IntDoubleTopN topN = new IntDoubleTopN(scoresMap.size());
+        scoresMap.int2DoubleEntrySet().forEach(e -> topN.add(e.getIntKey(), e.getDoubleValue()));
+
+        topN.sort();
+
+        List<IdxDouble> items = topN.reverseStream()
+                .map(e -> new IdxDouble(e))
+                .collect(Collectors.toList());
+
+        return new FastRecommendation(uidx, items);
+    }
+
     /**
      * Returns a map of item-score pairs.
      *
@@ -86,4 +127,29 @@ public abstract class FastRankingRecommender<U, I> extends AbstractFastRecommend
      * @return a map of item-score pairs
      */
     protected abstract Int2DoubleMap getScoresMap(int uidx);
+
+    /**
+     * Returns a map of item-score pairs restricted to a set of candidate
+     * items. By default, it selects the candidates from the map of
+     * getScoresMap(int). Recommenders that can predict the score of
+     * specific items should override it so that only the candidates are
+     * scored.
+     *
+     * @param uidx index of the user whose scores are predicted
+     * @param candidates indexes of the candidate items
+     * @return a map of item-score pairs whose items are candidates
+     */
+    protected Int2DoubleMap getScoresMap(int uidx, IntSet candidates) {
+        Int2DoubleMap scoresMap = getScoresMap(uidx);
+
+        Int2DoubleOpenHashMap candidateScoresMap = new Int2DoubleOpenHashMap(candidates.size());
+        candidateScoresMap.defaultReturnValue(scoresMap.defaultReturnValue());
+        candidates.forEach(iidx -> {
+            if (scoresMap.containsKey(iidx)) {
+                candidateScoresMap.put(iidx, scoresMap.get(iidx));
+            }
+        });
+
+        return candidateScoresMap;
+    }
 }
@@ -0,0 +1,197 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.rec.fast.basic;
+
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.fast.IdxDouble;
+import static it.unimi.dsi.fastutil.Arrays.mergeSort;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Non-personalized ranking of items stored in primitive arrays, shared by the
+ * basic recommenders. Filtered recommendations scan the ranking from the top
+ * and stop as soon as the list is complete, and candidate recommendations
+ * sort the positions of the candidates in the ranking. The positions of the
+ * items are either stored in an array over the whole item index, or looked up
+ * by binary search over the ranked items, which only takes memory
+ * proportional to the size of the ranking.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ */
+class ItemRanking {
+
+    private final int[] iidxs;
+    private final double[] scores;
+    private final int[] positions;
+    private final int[] sortedIidxs;
+    private final int[] sortedPositions;
+
+    /**
+     * Constructor with an array of positions over the whole item index. Items
+     * are ranked by decreasing score, ties being kept in the order of the
+     * input arrays.
+     *
+     * @param numItems number of items in the item index
+     * @param iidxs indexes of the ranked items, modified by the method
+     * @param scores scores of the ranked items, modified by the method
+     */
+    public ItemRanking(int numItems, int[] iidxs, double[] scores) {
+        sort(iidxs, scores);
+
+        this.iidxs = iidxs;
+        this.scores = scores;
+        this.positions = new int[numItems];
+        Arrays.fill(positions, -1);
+        for (int k = 0; k < iidxs.length; k++) {
+            positions[iidxs[k]] = k;
+        }
+        this.sortedIidxs = null;
+        this.sortedPositions = null;
+    }
+
+    /**
+     * Constructor with positions looked up by binary search, convenient for
+     * rankings of a small subset of the item index. Items are ranked by
+     * decreasing score, ties being kept in the order of the input arrays.
+     *
+     * @param iidxs indexes of the ranked items, without repetitions, modified
+     * by the method
+     * @param scores scores of the ranked items, modified by the method
+     */
+    public ItemRanking(int[] iidxs, double[] scores) {
+        sort(iidxs, scores);
+
+        this.iidxs = iidxs;
+        this.scores = scores;
+        this.positions = null;
+        this.sortedIidxs = iidxs.clone();
+        this.sortedPositions = new int[iidxs.length];
+        for (int k = 0; k < iidxs.length; k++) {
+            sortedPositions[k] = k;
+        }
+        mergeSort(0, sortedIidxs.length, new AbstractIntComparator() {
+            @Override
+            public int compare(int k1, int k2) {
+                return Integer.compare(sortedIidxs[k1], sortedIidxs[k2]);
+            }
+        }, (k1, k2) -> {
+            int i = sortedIidxs[k1];
+            sortedIidxs[k1] = sortedIidxs[k2];
+            sortedIidxs[k2] = i;
+            int k = sortedPositions[k1];
+            sortedPositions[k1] = sortedPositions[k2];
+            sortedPositions[k2] = k;
+        });
+    }
+
+    private static void sort(int[] iidxs, double[] scores) {
+        mergeSort(0, iidxs.length, new AbstractIntComparator() {
+            @Override
+            public int compare(int k1, int k2) {
+                return Double.compare(scores[k2], scores[k1]);
+            }
+        }, (k1, k2) -> {
+            int i = iidxs[k1];
+            iidxs[k1] = iidxs[k2];
+            iidxs[k2] = i;
+            double s = scores[k1];
+            scores[k1] = scores[k2];
+            scores[k2] = s;
+        });
+    }
+
+    /**
+     * Determines whether an item is in the ranking.
+     *
+     * @param iidx index of the item
+     * @return true if the item is in the ranking, false otherwise
+     */
+    public boolean contains(int iidx) {
+        return position(iidx) >= 0;
+    }
+
+    private int position(int iidx) {
+        if (positions != null) {
+            return iidx >= 0 && iidx < positions.length ? positions[iidx] : -1;
+        }
+        int j = Arrays.binarySearch(sortedIidxs, iidx);
+        return j >= 0 ? sortedPositions[j] : -1;
+    }
+
+    /**
+     * Returns the number of ranked items.
+     *
+     * @return number of ranked items
+     */
+    public int size() {
+        return iidxs.length;
+    }
+
+    /**
+     * Returns the top items of the ranking that pass a filter.
+     *
+     * @param uidx index of the user
+     * @param maxLength maximum length of recommendation, 0 for no limit
+     * @param filter filter of the items
+     * @return a recommendation
+     */
+    public FastRecommendation recommend(int uidx, int maxLength, IntPredicate filter) {
+        if (maxLength == 0) {
+            maxLength = iidxs.length;
+        }
+
+        List<IdxDouble> items = new ArrayList<>(Math.min(maxLength, iidxs.length));
+        for (int k = 0; k < iidxs.length && items.size() < maxLength; k++) {
+            if (filter.test(iidxs[k])) {
+                items.add(new IdxDouble(iidxs[k], scores[k]));
+            }
+        }
+
+        return new FastRecommendation(uidx, items);
+    }
+
+    /**
+     * Returns the candidate items in the ranking, in the order of the
+     * ranking.
+     *
+     * @param uidx index of the user
+     * @param candidates indexes of the candidate items
+     * @return a recommendation
+     */
+    public FastRecommendation recommend(int uidx, IntStream candidates) {
+        int[] ks = candidates
+                .map(this::position)
+                .filter(k -> k >= 0)
+                .toArray();
+        Arrays.sort(ks);
+
+        List<IdxDouble> items = new ArrayList<>(ks.length);
+        for (int j = 0; j < ks.length; j++) {
+            if (j == 0 || ks[j] != ks[j - 1]) {
+                items.add(new IdxDouble(iidxs[ks[j]], scores[ks[j]]));
+            }
+        }
+
+        return new FastRecommendation(uidx, items);
+    }
+}
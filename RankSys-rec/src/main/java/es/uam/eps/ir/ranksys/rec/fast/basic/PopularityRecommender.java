@@ -17,19 +17,20 @@
  */
 package es.uam.eps.ir.ranksys.rec.fast.basic;
 
-import es.uam.eps.ir.ranksys.fast.IdxDouble;
 import es.uam.eps.ir.ranksys.fast.preference.FastPreferenceData;
 import es.uam.eps.ir.ranksys.fast.FastRecommendation;
 import es.uam.eps.ir.ranksys.rec.fast.AbstractFastRecommender;
-import static java.util.Collections.sort;
-import java.util.List;
 import java.util.function.IntPredicate;
-import static java.util.stream.Collectors.toList;
+import java.util.stream.IntStream;
 
 /**
  * Popularity-based recommender. Non-personalized recommender that returns the
  * most popular items according to the preference data provided.
  *
+ * The ranking of items is precomputed in primitive arrays, so that the
+ * recommendation of a user only scans the ranking until the list is
+ * complete, making it suitable as a cheap fallback recommender.
+ *
  * @author Saúl Vargas (saul.vargas@uam.es)
  * 
  * @param <U> type of the users
@@ -37,7 +38,7 @@ import static java.util.stream.Collectors.toList;
  */
 public class PopularityRecommender<U, I> extends AbstractFastRecommender<U, I> {
 
-    private final List<IdxDouble> popList;
+    private final ItemRanking ranking;
 
     /**
      * Constructor.
@@ -47,23 +48,21 @@ public class PopularityRecommender<U, I> extends AbstractFastRecommender<U, I> {
     public PopularityRecommender(FastPreferenceData<U, I, ?> data) {
         super(data, data);
 
-        popList = data.getIidxWithPreferences()
-                .mapToObj(iidx -> new IdxDouble(iidx, (double) data.numUsers(iidx)))
-                .collect(toList());
-        sort(popList, (p1, p2) -> Double.compare(p2.v, p1.v));
+        int[] iidxs = data.getIidxWithPreferences().sorted().toArray();
+        double[] pops = new double[iidxs.length];
+        for (int k = 0; k < iidxs.length; k++) {
+            pops[k] = data.numUsers(iidxs[k]);
+        }
+        ranking = new ItemRanking(data.numItems(), iidxs, pops);
     }
 
     @Override
     public FastRecommendation getRecommendation(int uidx, int maxLength, IntPredicate filter) {
-        if (maxLength == 0) {
-            maxLength = popList.size();
-        }
-        
-        List<IdxDouble> items = popList.stream()
-                .filter(is -> filter.test(is.idx))
-                .limit(maxLength)
-                .collect(toList());
-        
-        return new FastRecommendation(uidx, items);
+        return ranking.recommend(uidx, maxLength, filter);
+    }
+
+    @Override
+    public FastRecommendation getRecommendation(int uidx, IntStream candidates) {
+        return ranking.recommend(uidx, candidates);
     }
 }
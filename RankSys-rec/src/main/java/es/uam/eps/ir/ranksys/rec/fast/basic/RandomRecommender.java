@@ -23,16 +23,20 @@ import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
 import es.uam.eps.ir.ranksys.fast.index.FastUserIndex;
 import es.uam.eps.ir.ranksys.rec.fast.AbstractFastRecommender;
 import java.util.ArrayList;
-import static java.util.Collections.shuffle;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.IntPredicate;
-import static java.util.stream.Collectors.toList;
+import java.util.stream.IntStream;
 
 /**
  * Random recommender. It provides non-personalized recommendations without
  * by extracting a sequence of a shuffled list of the items.
  *
+ * The sequence starts at a random position of the shuffled list and scans
+ * it at most once, so that filters rejecting most (or all) of the items
+ * return short (or empty) recommendations instead of looping.
+ *
  * @author Saúl Vargas (saul.vargas@uam.es)
  * 
  * @param <U> type of the users
@@ -40,8 +44,7 @@ import static java.util.stream.Collectors.toList;
  */
 public class RandomRecommender<U, I> extends AbstractFastRecommender<U, I> {
 
-    private final Random random;
-    private final List<IdxDouble> randomList;
+    private final int[] randomIidxs;
 
     /**
      * Constructor.
@@ -51,32 +54,68 @@ public class RandomRecommender<U, I> extends AbstractFastRecommender<U, I> {
      */
     public RandomRecommender(FastUserIndex<U> uIndex, FastItemIndex<I> iIndex) {
         super(uIndex, iIndex);
-        random = new Random();
-        randomList = iIndex.getAllIidx()
-                .mapToObj(iidx -> new IdxDouble(iidx, Double.NaN))
-                .collect(toList());
+        randomIidxs = iIndex.getAllIidx().toArray();
 
-        shuffle(randomList);
+        shuffle(randomIidxs, randomIidxs.length, new Random());
     }
 
     @Override
     public FastRecommendation getRecommendation(int uidx, int maxLength, IntPredicate filter) {
+        int n = randomIidxs.length;
         if (maxLength == 0) {
-            maxLength = randomList.size();
+            maxLength = n;
+        }
+
+        List<IdxDouble> recommended = new ArrayList<>(Math.min(maxLength, n));
+        if (n == 0) {
+            return new FastRecommendation(uidx, recommended);
         }
-        
-        List<IdxDouble> recommended = new ArrayList<>();
-        int j = random.nextInt(randomList.size());
-        for (int i = 0; i < maxLength; i++) {
-            IdxDouble iv = randomList.get(j);
-            while (!filter.test(iv.idx)) {
-                j = (j + 1) % randomList.size();
-                iv = randomList.get(j);
+
+        int j = ThreadLocalRandom.current().nextInt(n);
+        for (int scanned = 0; scanned < n && recommended.size() < maxLength; scanned++) {
+            int iidx = randomIidxs[j];
+            if (filter.test(iidx)) {
+                recommended.add(new IdxDouble(iidx, Double.NaN));
             }
-            recommended.add(iv);
-            j = (j + 1) % randomList.size();
+            j = j + 1 == n ? 0 : j + 1;
         }
 
         return new FastRecommendation(uidx, recommended);
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The candidates in the item index are returned in random order.
+     */
+    @Override
+    public FastRecommendation getRecommendation(int uidx, IntStream candidates) {
+        int[] iidxs = candidates
+                .filter(iidx -> iidx >= 0 && iidx < numItems())
+                .sorted()
+                .toArray();
+        int m = 0;
+        for (int k = 0; k < iidxs.length; k++) {
+            if (k == 0 || iidxs[k] != iidxs[k - 1]) {
+                iidxs[m++] = iidxs[k];
+            }
+        }
+        shuffle(iidxs, m, ThreadLocalRandom.current());
+
+        List<IdxDouble> recommended = new ArrayList<>(m);
+        for (int k = 0; k < m; k++) {
+            recommended.add(new IdxDouble(iidxs[k], Double.NaN));
+        }
+
+        return new FastRecommendation(uidx, recommended);
+    }
+
+    private static void shuffle(int[] a, int n, Random random) {
+        for (int k = n - 1; k > 0; k--) {
+            int j = random.nextInt(k + 1);
+            int t = a[k];
+            a[k] = a[j];
+            a[j] = t;
+        }
+    }
 }
@@ -0,0 +1,180 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.rec.fast.basic;
+
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.fast.IdxDouble;
+import es.uam.eps.ir.ranksys.fast.preference.FastPreferenceData;
+import es.uam.eps.ir.ranksys.fast.preference.IdxPref;
+import es.uam.eps.ir.ranksys.rec.fast.AbstractFastRecommender;
+import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Segmented popularity-based recommender. Non-personalized recommender in
+ * which users are partitioned into segments, each of them receiving the most
+ * popular items among the users of the segment. Users out of any segment
+ * receive the most popular items of the whole preference data.
+ *
+ * Popularity is the sum of the weights of the preferences of the items, so
+ * that, for example, a weight decaying with the age of a preference given by
+ * its timestamp produces a time-decayed popularity, and segments given by a
+ * feature of the users produce a per-feature popularity. Rankings are
+ * precomputed, as in {@link PopularityRecommender}, and the ranking of each
+ * segment only takes memory proportional to its number of items. When the
+ * ranking of the segment of a user does not fill the recommendation, it is
+ * completed with the rest of the items of the whole preference data, by
+ * decreasing popularity. The scores of these items are capped by the score
+ * of the preceding item, so that the list is sorted by decreasing score.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ * 
+ * @param <U> type of the users
+ * @param <I> type of the items
+ */
+public class SegmentPopularityRecommender<U, I> extends AbstractFastRecommender<U, I> {
+
+    private final IntUnaryOperator userSegment;
+    private final ItemRanking[] segmentRankings;
+    private final ItemRanking globalRanking;
+
+    /**
+     * Constructor in which all preferences have weight 1, i.e., the
+     * popularity of an item in a segment is its number of users in the
+     * segment.
+     *
+     * @param data preference data
+     * @param numSegments number of segments
+     * @param userSegment segment of a user index, a value out of [0,
+     * numSegments) for users out of any segment
+     */
+    public SegmentPopularityRecommender(FastPreferenceData<U, I, ?> data, int numSegments, IntUnaryOperator userSegment) {
+        this(data, numSegments, userSegment, pref -> 1.0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param <O> type of other info of the preferences
+     * @param data preference data
+     * @param numSegments number of segments
+     * @param userSegment segment of a user index, a value out of [0,
+     * numSegments) for users out of any segment
+     * @param weight weight of a preference of an item, whose index is that of
+     * the user
+     */
+    public <O> SegmentPopularityRecommender(FastPreferenceData<U, I, O> data, int numSegments, IntUnaryOperator userSegment, ToDoubleFunction<IdxPref<O>> weight) {
+        super(data, data);
+        this.userSegment = userSegment;
+
+        int[] iidxs = data.getIidxWithPreferences().sorted().toArray();
+        double[] pops = new double[iidxs.length];
+        Int2DoubleOpenHashMap[] segmentPops = new Int2DoubleOpenHashMap[numSegments];
+        for (int s = 0; s < numSegments; s++) {
+            segmentPops[s] = new Int2DoubleOpenHashMap();
+        }
+
+        for (int k = 0; k < iidxs.length; k++) {
+            int iidx = iidxs[k];
+            double[] pop = {0.0};
+            data.getIidxPreferences(iidx).forEach(pref -> {
+                double w = weight.applyAsDouble(pref);
+                pop[0] += w;
+                int s = userSegment.applyAsInt(pref.idx);
+                if (s >= 0 && s < numSegments) {
+                    segmentPops[s].addTo(iidx, w);
+                }
+            });
+            pops[k] = pop[0];
+        }
+
+        this.globalRanking = new ItemRanking(data.numItems(), iidxs, pops);
+        this.segmentRankings = new ItemRanking[numSegments];
+        for (int s = 0; s < numSegments; s++) {
+            int[] segmentIidxs = segmentPops[s].keySet().toIntArray();
+            Arrays.sort(segmentIidxs);
+            double[] segmentScores = new double[segmentIidxs.length];
+            for (int k = 0; k < segmentIidxs.length; k++) {
+                segmentScores[k] = segmentPops[s].get(segmentIidxs[k]);
+            }
+            segmentRankings[s] = new ItemRanking(segmentIidxs, segmentScores);
+            segmentPops[s] = null;
+        }
+    }
+
+    private ItemRanking getRanking(int uidx) {
+        if (uidx < 0) {
+            return globalRanking;
+        }
+        int s = userSegment.applyAsInt(uidx);
+        if (s < 0 || s >= segmentRankings.length) {
+            return globalRanking;
+        }
+        return segmentRankings[s];
+    }
+
+    @Override
+    public FastRecommendation getRecommendation(int uidx, int maxLength, IntPredicate filter) {
+        ItemRanking ranking = getRanking(uidx);
+        FastRecommendation recommendation = ranking.recommend(uidx, maxLength, filter);
+        int length = recommendation.getIidxs().size();
+        if (ranking == globalRanking || (maxLength > 0 && length >= maxLength)) {
+            return recommendation;
+        }
+
+        FastRecommendation fallback = globalRanking.recommend(uidx, maxLength == 0 ? 0 : maxLength - length,
+                iidx -> !ranking.contains(iidx) && filter.test(iidx));
+        return concat(recommendation, fallback);
+    }
+
+    @Override
+    public FastRecommendation getRecommendation(int uidx, IntStream candidates) {
+        ItemRanking ranking = getRanking(uidx);
+        if (ranking == globalRanking) {
+            return ranking.recommend(uidx, candidates);
+        }
+
+        int[] cs = candidates.toArray();
+        FastRecommendation recommendation = ranking.recommend(uidx, IntStream.of(cs));
+        FastRecommendation fallback = globalRanking.recommend(uidx, IntStream.of(cs)
+                .filter(iidx -> !ranking.contains(iidx)));
+        return concat(recommendation, fallback);
+    }
+
+    private static FastRecommendation concat(FastRecommendation recommendation, FastRecommendation fallback) {
+        if (fallback.getIidxs().isEmpty()) {
+            return recommendation;
+        }
+
+        List<IdxDouble> items = new ArrayList<>(recommendation.getIidxs().size() + fallback.getIidxs().size());
+        items.addAll(recommendation.getIidxs());
+        double last = items.isEmpty() ? Double.POSITIVE_INFINITY : items.get(items.size() - 1).v;
+        for (IdxDouble iv : fallback.getIidxs()) {
+            last = Math.min(last, iv.v);
+            items.add(new IdxDouble(iv.idx, last));
+        }
+
+        return new FastRecommendation(recommendation.getUidx(), items);
+    }
+}
@@ -19,6 +19,7 @@ package es.uam.eps.ir.ranksys.rec.runner;
 
 import es.uam.eps.ir.ranksys.core.Recommendation;
 import es.uam.eps.ir.ranksys.core.format.RecommendationFormat;
+import es.uam.eps.ir.ranksys.core.util.instrument.Instruments;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
@@ -41,6 +42,17 @@ import java.util.stream.Stream;
  */
 public abstract class AbstractRecommenderRunner<U, I> implements RecommenderRunner<U, I> {
 
+    /**
+     * Name of the histogram of the time to generate the recommendation of a
+     * user, in nanoseconds.
+     */
+    public static final String LATENCY = "runner.latency";
+
+    /**
+     * Name of the histogram of the lengths of the generated recommendations.
+     */
+    public static final String LENGTH = "runner.length";
+
     private final List<U> users;
     private final RecommendationFormat<U, I> format;
 
@@ -69,7 +81,13 @@ public abstract class AbstractRecommenderRunner<U, I> implements RecommenderRunn
             List<U> usersAux = new ArrayList<>(users);
 
             users.parallelStream()
-                    .map(user -> recProvider.apply(user))
+                    .map(user -> {
+                        long time0 = Instruments.start();
+                        Recommendation<U, I> recommendation = recProvider.apply(user);
+                        Instruments.stop(LATENCY, time0);
+                        Instruments.record(LENGTH, recommendation.getItems().size());
+                        return recommendation;
+                    })
                     .forEachOrdered(recommendation -> {
                         if (recommendation.getUser().equals(usersAux.get(0))) {
                             writeCatchExceptions(writer, recommendation);
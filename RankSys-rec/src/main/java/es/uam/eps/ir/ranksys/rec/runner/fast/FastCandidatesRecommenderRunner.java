@@ -0,0 +1,81 @@
+/* 
+ * Copyright (C) 2015 Information Retrieval Group at Universidad Autonoma
+ * de Madrid, http://ir.ii.uam.es
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package es.uam.eps.ir.ranksys.rec.runner.fast;
+
+import es.uam.eps.ir.ranksys.core.IdDouble;
+import es.uam.eps.ir.ranksys.core.Recommendation;
+import es.uam.eps.ir.ranksys.core.format.RecommendationFormat;
+import es.uam.eps.ir.ranksys.fast.FastRecommendation;
+import es.uam.eps.ir.ranksys.fast.index.FastItemIndex;
+import es.uam.eps.ir.ranksys.fast.index.FastUserIndex;
+import es.uam.eps.ir.ranksys.rec.Recommender;
+import es.uam.eps.ir.ranksys.rec.fast.FastRecommender;
+import es.uam.eps.ir.ranksys.rec.runner.AbstractRecommenderRunner;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fast candidates runner. It creates recommendations by using the candidates
+ * method by index in the fast recommenders, so that recommenders that score
+ * specific items only score the candidates of each user. Candidates that are
+ * not in the item index are discarded.
+ *
+ * @author Saúl Vargas (saul.vargas@uam.es)
+ * 
+ * @param <U> type of the users
+ * @param <I> type of the items
+ */
+public class FastCandidatesRecommenderRunner<U, I> extends AbstractRecommenderRunner<U, I> {
+
+    private final FastUserIndex<U> userIndex;
+    private final FastItemIndex<I> itemIndex;
+    private final Function<U, List<I>> candidatesSupplier;
+
+    /**
+     * Constructor.
+     *
+     * @param userIndex fast user index
+     * @param itemIndex fast item index
+     * @param users target users
+     * @param format output recommendation format
+     * @param candidatesSupplier function that provide the candidate items for
+     * each user
+     */
+    public FastCandidatesRecommenderRunner(FastUserIndex<U> userIndex, FastItemIndex<I> itemIndex, Set<U> users, RecommendationFormat<U, I> format, Function<U, List<I>> candidatesSupplier) {
+        super(users.stream(), format);
+        this.userIndex = userIndex;
+        this.itemIndex = itemIndex;
+        this.candidatesSupplier = candidatesSupplier;
+    }
+
+    @Override
+    public void run(Recommender<U, I> recommender, OutputStream out) throws IOException {
+        run(user -> {
+            FastRecommendation rec = ((FastRecommender<U, I>) recommender).getRecommendation(userIndex.user2uidx(user), candidatesSupplier.apply(user).stream()
+                    .mapToInt(i -> itemIndex.item2iidx(i))
+                    .filter(iidx -> iidx >= 0));
+
+            return new Recommendation<>(userIndex.uidx2user(rec.getUidx()), rec.getIidxs().stream().map(iv -> new IdDouble<I>(itemIndex.iidx2item(iv.idx), iv.v)).collect(Collectors.toList()));
+        }, out);
+    }
+
+}
@@ -19,14 +19,18 @@ package es.uam.eps.ir.ranksys.rec.runner.fast;
 
 import es.uam.eps.ir.ranksys.fast.preference.FastPreferenceData;
 import es.uam.eps.ir.ranksys.fast.feature.FastFeatureData;
-import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
-import it.unimi.dsi.fastutil.ints.IntSet;
+import es.uam.eps.ir.ranksys.rec.fast.FastItemFilter;
+import java.util.Arrays;
 import java.util.function.Function;
 import java.util.function.IntPredicate;
 
 /**
  * Filters for the filter recommender method in FastRecommender.
  *
+ * The filters returned by all, notInTrain and withFeatures are instances of
+ * FastItemFilter, and so is the AND of filters that are all FastItemFilter,
+ * so that they can be applied in bulk to dense arrays of scores.
+ *
  * @author Saúl Vargas (saul.vargas@uam.es)
  */
 public class FastFilters {
@@ -37,12 +41,28 @@ public class FastFilters {
      * @return item filters that return true always
      */
     public static  <U, I> Function<U, IntPredicate> all() {
-        return uidx -> iidx -> true;
+        FastItemFilter all = new FastItemFilter() {
+
+            @Override
+            public boolean test(int iidx) {
+                return true;
+            }
+
+            @Override
+            public void filter(double[] scores) {
+            }
+        };
+        return user -> all;
     }
 
     /**
      * Item filter that discards items in the training preference data.
      *
+     * The filter of a user keeps the sorted indexes of the items in the
+     * training preferences of the user. Each test is a binary search over
+     * them, and the bulk filter only visits these indexes. The filter of a
+     * user holds no mutable state, so it can be shared between threads.
+     *
      * @param <U> type of the users
      * @param <I> type of the items
      * @param trainData preference data
@@ -51,10 +71,12 @@ public class FastFilters {
      */
     public static <U, I> Function<U, IntPredicate> notInTrain(FastPreferenceData<U, I, ?> trainData) {
         return user -> {
-            IntSet set = new IntOpenHashSet();
-            trainData.getUidxPreferences(trainData.user2uidx(user)).mapToInt(iv -> iv.idx).forEach(set::add);
+            int[] iidxs = trainData.getUidxPreferences(trainData.user2uidx(user)).mapToInt(iv -> iv.idx).toArray();
+            if (!isSorted(iidxs)) {
+                Arrays.sort(iidxs);
+            }
 
-            return iidx -> !set.contains(iidx);
+            return new NotInFilter(iidxs);
         };
     }
 
@@ -69,9 +91,11 @@ public class FastFilters {
      * information for the item
      */
     public static <U, I, F> Function<U, IntPredicate> withFeatures(FastFeatureData<I, F, ?> featureData) {
-        IntSet itemsWithFeatures = new IntOpenHashSet();
-        featureData.getIidxWithFeatures().forEach(iidx -> itemsWithFeatures.add(iidx));
-        return user -> iidx -> itemsWithFeatures.contains(iidx);
+        long[] bits = new long[(featureData.numItems() + 63) >>> 6];
+        featureData.getIidxWithFeatures().forEach(iidx -> bits[iidx >>> 6] |= 1L << iidx);
+
+        FastItemFilter filter = new InFilter(bits, featureData.numItems());
+        return user -> filter;
     }
 
     /**
@@ -84,11 +108,120 @@ public class FastFilters {
     @SuppressWarnings("unchecked")
     public static <U> Function<U, IntPredicate> and(Function<U, IntPredicate>... filters) {
         return user -> {
+            IntPredicate[] predicates = new IntPredicate[filters.length];
+            boolean bulk = true;
+            for (int k = 0; k < filters.length; k++) {
+                predicates[k] = filters[k].apply(user);
+                bulk &= predicates[k] instanceof FastItemFilter;
+            }
+
+            if (bulk) {
+                return new AndFilter(Arrays.copyOf(predicates, predicates.length, FastItemFilter[].class));
+            }
+
             IntPredicate andPredicate = iidx -> true;
-            for (Function<U, IntPredicate> filter : filters) {
-                andPredicate = andPredicate.and(filter.apply(user));
+            for (IntPredicate predicate : predicates) {
+                andPredicate = andPredicate.and(predicate);
             }
             return andPredicate;
         };
     }
+
+    private static boolean isSorted(int[] a) {
+        for (int k = 1; k < a.length; k++) {
+            if (a[k - 1] > a[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Filter that admits the items not in a sorted array of indexes.
+     */
+    private static class NotInFilter implements FastItemFilter {
+
+        private final int[] iidxs;
+
+        public NotInFilter(int[] iidxs) {
+            this.iidxs = iidxs;
+        }
+
+        @Override
+        public boolean test(int iidx) {
+            return Arrays.binarySearch(iidxs, iidx) < 0;
+        }
+
+        @Override
+        public void filter(double[] scores) {
+            for (int iidx : iidxs) {
+                if (iidx >= 0 && iidx < scores.length) {
+                    scores[iidx] = Double.NaN;
+                }
+            }
+        }
+    }
+
+    /**
+     * Filter that admits the items of a bitset of indexes.
+     */
+    private static class InFilter implements FastItemFilter {
+
+        private final long[] bits;
+        private final int numItems;
+
+        public InFilter(long[] bits, int numItems) {
+            this.bits = bits;
+            this.numItems = numItems;
+        }
+
+        @Override
+        public boolean test(int iidx) {
+            return iidx >= 0 && iidx < numItems && (bits[iidx >>> 6] & (1L << iidx)) != 0;
+        }
+
+        @Override
+        public void filter(double[] scores) {
+            for (int w = 0; w << 6 < scores.length; w++) {
+                long excluded = w < bits.length ? ~bits[w] : -1L;
+                while (excluded != 0) {
+                    int iidx = (w << 6) + Long.numberOfTrailingZeros(excluded);
+                    if (iidx >= scores.length) {
+                        break;
+                    }
+                    scores[iidx] = Double.NaN;
+                    excluded &= excluded - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Logical AND of filters.
+     */
+    private static class AndFilter implements FastItemFilter {
+
+        private final FastItemFilter[] filters;
+
+        public AndFilter(FastItemFilter[] filters) {
+            this.filters = filters;
+        }
+
+        @Override
+        public boolean test(int iidx) {
+            for (FastItemFilter filter : filters) {
+                if (!filter.test(iidx)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void filter(double[] scores) {
+            for (FastItemFilter filter : filters) {
+                filter.filter(scores);
+            }
+        }
+    }
 }